@@ -0,0 +1,152 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    AdmissionControl.java
+ * @brief   Capacity, policy and counters of a bounded reservation list.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The AdmissionControl class holds the capacity and AdmissionPolicy of one
+ * reservation list and counts what happened to the seats offered to it: admitted,
+ * producers blocked, seats rejected and seats shed. The list applies the policy
+ * under its own monitor; seats that are not kept are handed back to it to be
+ * dealt with outside the monitor: the pending payment list releases the hold to
+ * the seat map and the confirmed list cancels the paid seat. A capacity of 0
+ * leaves the list unbounded.
+ */
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdmissionControl {
+    private final String name; ///< Name of the list, for the summary.
+    private final int capacity; ///< Maximum number of seats in the list, or 0 for unbounded.
+    private final AdmissionPolicy policy; ///< What to do with a seat offered to a full list.
+    private final Constants constants; ///< Provides the cabin class of the seats.
+    private final LongAdder admitted = new LongAdder(); ///< Seats added to the list.
+    private final LongAdder blocked = new LongAdder(); ///< Times a producer waited for room.
+    private final LongAdder rejected = new LongAdder(); ///< Seats refused because the list was full.
+    private final LongAdder shed = new LongAdder(); ///< Seats left out to make room for a higher-priority one.
+
+    /**
+     * Constructor for the AdmissionControl class.
+     *
+     * @param name Name of the list, for the summary.
+     * @param constants The constants providing the capacity, the policy and the cabin classes.
+     */
+    public AdmissionControl(String name, Constants constants) {
+        this.name = name;
+        this.capacity = Math.max(constants.getReservationListCapacity(), 0);
+        this.policy = constants.getAdmissionPolicy();
+        this.constants = constants;
+    }
+
+    /**
+     * Gets whether a list of the given size has no room for another seat.
+     *
+     * @param size The current size of the list.
+     * @return True if the list is bounded and at capacity.
+     */
+    public boolean full(int size) {
+        return capacity > 0 && size >= capacity;
+    }
+
+    /**
+     * Gets whether producers can be waiting for room in the list. Each removal must then
+     * signal one of them: a producer signalled by an earlier removal may not have taken
+     * its slot yet, so the list can have room for several producers without being full.
+     *
+     * @return True if the list is bounded and its policy is BLOCK.
+     */
+    public boolean blocksProducers() {
+        return capacity > 0 && policy == AdmissionPolicy.BLOCK;
+    }
+
+    /**
+     * Gets whether the list leaves out seats offered to it when full, instead of waiting for room.
+     *
+     * @return True for a bounded list under the REJECT or SHED policy.
+     */
+    public boolean leavesOut() {
+        return capacity > 0 && policy != AdmissionPolicy.BLOCK;
+    }
+
+    /**
+     * Gets the policy applied when the list is full.
+     *
+     * @return The admission policy.
+     */
+    public AdmissionPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Selects the seat of a full list to shed in favour of a new one: the first seat
+     * found in the lowest cabin class, if that class is lower than the new seat's.
+     *
+     * @param seats The seats of the list.
+     * @param incoming The seat offered to the list.
+     * @return The index of the seat to shed, or -1 to shed the new seat.
+     */
+    public int sheddingIndex(List<Seat> seats, Seat incoming) {
+        int lowest = seatClassOf(incoming).ordinal();
+        int index = -1;
+        for (int i = 0; i < seats.size() && lowest < SeatClass.ECONOMY.ordinal(); i++) {
+            int seatClass = seatClassOf(seats.get(i)).ordinal();
+            if (seatClass > lowest) {
+                lowest = seatClass;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    void countAdmitted() {
+        admitted.increment();
+    }
+
+    void countBlocked() {
+        blocked.increment();
+    }
+
+    void countRejected() {
+        rejected.increment();
+    }
+
+    void countShed() {
+        shed.increment();
+    }
+
+    /**
+     * Gets the number of seats refused because the list was full.
+     *
+     * @return The number of rejected seats.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of seats left out to make room for a higher-priority one.
+     *
+     * @return The number of shed seats.
+     */
+    public long shed() {
+        return shed.sum();
+    }
+
+    /**
+     * Generates a summary of the admission counters.
+     *
+     * @return The summary, or an empty string for an unbounded list.
+     */
+    public String summary() {
+        if (capacity == 0) {
+            return "";
+        }
+        return String.format("%nAdmission %s (capacity %d, %s): admitted=%d blocked=%d rejected=%d shed=%d%n",
+                name, capacity, policy, admitted.sum(), blocked.sum(), rejected.sum(), shed.sum());
+    }
+
+    private SeatClass seatClassOf(Seat seat) {
+        return SeatClass.ofRow((seat.getId() - 1) / constants.getColumns(), constants);
+    }
+}
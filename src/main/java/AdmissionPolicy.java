@@ -0,0 +1,19 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    AdmissionPolicy.java
+ * @brief   Enum representing what a full reservation list does with a new seat.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The AdmissionPolicy enum selects how a bounded reservation list reacts when
+ * it is at capacity (Constants.getReservationListCapacity()):
+ * - BLOCK: The producing thread waits until a consumer makes room (back-pressure).
+ * - REJECT: The new seat is not admitted; its reservation is cancelled at once.
+ * - SHED: The lowest-priority seat of the list and the new one compete; the one
+ *   in the lowest cabin class is cancelled (the new one on a tie).
+ */
+public enum AdmissionPolicy {
+    BLOCK,   ///< Wait for room.
+    REJECT,  ///< Fail fast: cancel the new seat.
+    SHED     ///< Cancel the lowest-priority seat, queued or new.
+}
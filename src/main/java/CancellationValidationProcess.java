@@ -15,7 +15,7 @@
  * All rights reserved.
  */
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @class CancellationValidationProcess
@@ -60,8 +60,7 @@ public class CancellationValidationProcess implements Runnable {
      */
     public void run() {
         while (constants.getGlobalFlag()) {
-            Random random = new Random();
-            int probability = random.nextInt(101);
+            int probability = ThreadLocalRandom.current().nextInt(101);
 
             if (probability < constants.getCheckSeatProbability()) {
                 // Seat is validated
@@ -83,4 +82,22 @@ public class CancellationValidationProcess implements Runnable {
         }
         System.out.print("\nRunnable thread ended Cancellation Validation Process: " + cancelledReservations.size());
     }
+
+    /**
+     * @brief Validates one confirmed seat handed over directly, e.g. by a pipeline stage.
+     * @param seat The confirmed seat.
+     * @return The seat, marked as checked, or null if it was cancelled.
+     *
+     * @details The seat is checked or cancelled with the same probability as in run();
+     * the caller records the check and hands the seat on.
+     */
+    public Seat validate(Seat seat) {
+        int probability = ThreadLocalRandom.current().nextInt(101);
+        if (probability < constants.getCheckSeatProbability()) {
+            seat.checked();
+            return seat;
+        }
+        cancelledReservations.putCanceled(seat);
+        return null;
+    }
 }
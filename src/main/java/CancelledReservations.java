@@ -7,16 +7,19 @@
  *
  * @details This class is part of the Concurrent Flight Reservation System project.
  * It handles the reservations that are canceled during the flight reservation process.
- * The class provides synchronized methods to add canceled seats to the list and retrieve the list of canceled reservations.
- * It ensures thread safety by using the `synchronized` keyword.
+ * The class provides methods to add canceled seats and iterate the IDs of the canceled seats.
+ * Only the seat IDs are kept, in a SeatIdSet with one bit per seat, and a seat is
+ * added without taking any lock. With seat recycling a seat can be cancelled again
+ * after it is resold: it is kept once, but every cancellation is counted. No thread
+ * waits for cancelled seats, so adding one wakes nobody.
  *
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
  */
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
 
 /**
  * @class CancelledReservations
@@ -25,42 +28,149 @@ import java.util.List;
 public class CancelledReservations {
 
     /**
-     * @brief List that holds the canceled reservations.
+     * @brief IDs of the canceled seats, one bit per seat.
      */
-    private List<Seat> cancelledReservations = new ArrayList<>();
+    private final SeatIdSet cancelledReservations;
 
     /**
-     * @brief Constructor for the CancelledReservations class.
+     * @brief Cancellations, including those of resold seats cancelled again.
      */
-    public CancelledReservations() {}
+    private final LongAdder cancellations = new LongAdder();
 
     /**
-     * @brief Adds a canceled seat to the list of canceled reservations.
+     * @brief Cancellations of paid seats the full confirmed list rejected or shed.
+     */
+    private final LongAdder overflowCancellations = new LongAdder();
+
+    /**
+     * @brief Listener notified of every cancelled seat.
+     */
+    private TransitionListener transitionListener = TransitionListener.NONE;
+
+    /**
+     * @brief Desk reselling cancelled seats, or null to discard them.
+     */
+    private ResaleDesk resaleDesk;
+
+    /**
+     * @brief Constructor for the CancelledReservations class, sized to the default seat map of Constants.
+     */
+    public CancelledReservations() {
+        this(new Constants());
+    }
+
+    /**
+     * @brief Constructor that presizes the set to the whole seat map.
+     * @param constants The constants providing the number of rows and columns.
+     */
+    public CancelledReservations(Constants constants) {
+        // Seat IDs start at 1
+        cancelledReservations = new SeatIdSet(constants.getRows() * constants.getColumns() + 1);
+    }
+
+    /**
+     * @brief Adds a canceled seat to the canceled reservations.
      * @param seat The seat that is being canceled.
      *
-     * @details This method marks the seat as unavailable and adds it to the list of canceled reservations.
-     * It is synchronized to ensure thread safety when accessed by multiple threads.
-     */
-    public synchronized void putCanceled(Seat seat) {
-        seat.unavailableSeat();
-        cancelledReservations.add(seat);
-        System.out.print("\n" + seat.getId() + " Canceled");
-        notifyAll();
+     * @details This method marks the seat as unavailable and adds its ID to the canceled reservations.
+     * It is lock-free: the seat ID is set with compare-and-set.
+     * With a resale desk set, the seat is resold instead of being marked as unavailable.
+     */
+    public void putCanceled(Seat seat) {
+        // Record the transition before the cancellation is acknowledged
+        transitionListener.onTransition(seat, Transition.CANCELLED);
+        if (resaleDesk == null) {
+            seat.unavailableSeat();
+        }
+        cancelledReservations.add(seat.getId());
+        cancellations.increment();
+        SeatTrace.print(seat.getId(), SeatTrace.CANCELED);
+        if (resaleDesk != null) {
+            resaleDesk.resell(seat);
+        }
+    }
+
+    /**
+     * @brief Cancels a paid seat the full confirmed list rejected or shed.
+     * @param seat The seat left out of the confirmed list.
+     *
+     * @details The seat is cancelled as by putCanceled(), and also counted apart from
+     * the customer cancellations.
+     */
+    public void putOverflowed(Seat seat) {
+        overflowCancellations.increment();
+        putCanceled(seat);
+    }
+
+    /**
+     * @brief Sets the desk reselling cancelled seats.
+     * @param resaleDesk The resale desk, or null to mark cancelled seats as unavailable.
+     */
+    public void setResaleDesk(ResaleDesk resaleDesk) {
+        this.resaleDesk = resaleDesk;
+    }
+
+    /**
+     * @brief Sets the listener notified before a seat is added to the list.
+     * @param transitionListener The listener, for example the reservation journal.
+     */
+    public void setTransitionListener(TransitionListener transitionListener) {
+        this.transitionListener = transitionListener;
     }
 
     /**
      * @brief Returns the number of canceled reservations.
-     * @return The size of the canceled reservations list.
+     * @return The number of cancellations, counting a resold seat once per cancellation.
      */
     public int size() {
-        return cancelledReservations.size();
+        return cancellations.intValue();
+    }
+
+    /**
+     * @brief Returns the number of cancellations caused by a full confirmed list.
+     * @return The cancellations made through putOverflowed(), included in size().
+     */
+    public int overflowed() {
+        return overflowCancellations.intValue();
+    }
+
+    /**
+     * @brief Gets whether a seat was cancelled at least once.
+     * @param seatId The seat ID.
+     * @return True if the seat is in the canceled reservations.
+     */
+    public boolean contains(int seatId) {
+        return cancelledReservations.contains(seatId);
+    }
+
+    /**
+     * @brief Passes the ID of every seat cancelled at least once to an action, in ascending order.
+     * @param action The action run on each seat ID.
+     */
+    public void forEachId(IntConsumer action) {
+        cancelledReservations.forEach(action);
+    }
+
+    /**
+     * @brief Returns the number of distinct seats cancelled at least once and never verified.
+     * @param verifiedReservations The verified reservations.
+     * @return The cancelled seats not in the verified reservations, e.g. not resold and verified.
+     */
+    public int unverified(VerifiedReservations verifiedReservations) {
+        int[] unverified = new int[1];
+        cancelledReservations.forEach(seatId -> {
+            if (!verifiedReservations.contains(seatId)) {
+                unverified[0]++;
+            }
+        });
+        return unverified[0];
     }
 
     /**
-     * @brief Retrieves the list of canceled reservations.
-     * @return The list of canceled seats.
+     * @brief Gets the memory held by the canceled reservations.
+     * @return The footprint in bytes, about one bit per seat.
      */
-    public List<Seat> getCancelledReservations() {
-        return cancelledReservations;
+    public long footprintBytes() {
+        return cancelledReservations.footprintBytes();
     }
-}
\ No newline at end of file
+}
@@ -7,7 +7,8 @@
  *
  * @details This class is part of the Concurrent Flight Reservation System project.
  * It manages the confirmed seat reservations and handles checking of those seats.
- * The class uses synchronized methods to ensure thread safety when interacting with seat reservations.
+ * Both lists share one lock with a condition queue per wait reason, or are
+ * lock-free SeatRings in the RING handoff mode.
  *
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
@@ -15,7 +16,9 @@
  */
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @class ConfirmedReservations
@@ -26,57 +29,237 @@ public class ConfirmedReservations {
     /**
      * @brief List of confirmed seat reservations.
      */
-    private List<Seat> confirmedReservations = new ArrayList<>();
+    private List<Seat> confirmedReservations;
 
     /**
      * @brief List of checked seat reservations.
      */
-    private List<Seat> checkedReservations = new ArrayList<>();
+    private List<Seat> checkedReservations;
+
+    /**
+     * @brief Listener notified of every paid and checked seat.
+     */
+    private TransitionListener transitionListener = TransitionListener.NONE;
+
+    /**
+     * @brief Confirmed seats in the RING handoff mode, or null.
+     */
+    private SeatRing confirmedRing;
+
+    /**
+     * @brief Checked seats in the RING handoff mode, or null.
+     */
+    private SeatRing checkedRing;
+
+    /**
+     * @brief Capacity, policy and counters of the confirmed reservations list.
+     */
+    private AdmissionControl admission;
+
+    /**
+     * @brief List cancelling the seats rejected or shed by the confirmed reservations list,
+     * or that could not be handed to a full ring.
+     */
+    private CancelledReservations overflow;
+
+    /**
+     * @brief Lock guarding both lists.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @brief Threads waiting for a confirmed seat to check or cancel.
+     */
+    private final Condition confirmedNotEmpty = lock.newCondition();
+
+    /**
+     * @brief Threads waiting for a checked seat to verify.
+     */
+    private final Condition checkedNotEmpty = lock.newCondition();
+
+    /**
+     * @brief Payment threads waiting for room in the confirmed list under the BLOCK policy.
+     */
+    private final Condition confirmedNotFull = lock.newCondition();
+
+    /**
+     * @brief Contention of the lock guarding both lists.
+     */
+    private MonitorProfiler profiler;
 
     /**
      * @brief Constructor for the ConfirmedReservations class.
      */
-    public ConfirmedReservations() {}
+    public ConfirmedReservations() {
+        confirmedReservations = new ArrayList<>();
+        checkedReservations = new ArrayList<>();
+        admission = new AdmissionControl("confirmed", new Constants());
+        profiler = new MonitorProfiler("confirmed/checked", lock, false);
+    }
+
+    /**
+     * @brief Constructor that presizes both lists to the whole seat map.
+     * @param constants The constants providing the number of rows and columns.
+     *
+     * @details Presized lists never grow while the system runs, so moving a seat
+     * between them does not allocate.
+     */
+    public ConfirmedReservations(Constants constants) {
+        int seats = constants.getRows() * constants.getColumns();
+        confirmedReservations = new ArrayList<>(seats);
+        checkedReservations = new ArrayList<>(seats);
+        admission = new AdmissionControl("confirmed", constants);
+        profiler = new MonitorProfiler("confirmed/checked", lock,
+                constants.getMonitorProfiling() && constants.getHandoffMode() != HandoffMode.RING);
+        if (constants.getHandoffMode() == HandoffMode.RING) {
+            confirmedRing = new SeatRing(seats, constants.getWaitStrategy());
+            checkedRing = new SeatRing(seats, constants.getWaitStrategy());
+        }
+    }
 
     /**
      * @brief Checks a seat from the confirmed reservations list.
      * @details This method checks a seat randomly from the confirmed reservations list.
-     * It will notify other threads if the checked reservations list was previously empty.
+     * It wakes one thread waiting for a checked seat.
      */
-    public synchronized void checkSeat() {
+    public void checkSeat() {
+        Seat seat;
+        if (confirmedRing != null) {
+            seat = confirmedRing.take("checkSeat");
+            if (seat == null) {
+                return;
+            }
+            seat.checked();
+            putValidated(seat);
+            return;
+        }
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            StageWaitEvent waitEvent = confirmedReservations.isEmpty() ? StageWaitEvent.begin("checkSeat") : null;
+            while(confirmedReservations.isEmpty()){
+                try {
+                    profiler.await(confirmedNotEmpty);
+                } catch (InterruptedException e) {
+                    // The system is stopping; a signal is only consumed by a thread that returns from await()
+                    break;
+                }
+            }
+            StageWaitEvent.end(waitEvent, confirmedReservations.size());
 
-        while(confirmedReservations.isEmpty()){
             try {
-                wait();
-            } catch (InterruptedException e) {
-                notifyAll();
-                break;
+                // Take an unchecked seat randomly
+                int index = uncheckedSeatIndex();
+                seat = confirmedReservations.get(index);
+
+                // Mark the seat as checked
+                seat.checked();
+                if (admission.blocksProducers()) {
+                    // Wake one payment thread waiting for room
+                    profiler.signal(confirmedNotFull);
+                }
+                removeAt(confirmedReservations, index);
+            } catch (IllegalArgumentException e) {
+                // Handle exceptions if any
+                return;
             }
+        } finally {
+            profiler.released();
+            lock.unlock();
         }
 
-        try {
-            // Take an unchecked seat randomly
-            Seat seat = uncheckedSeat();
+        // Record the transition outside the lock, so a durable listener
+        // does not block the payment and verification threads meanwhile
+        putValidated(seat);
+    }
 
-            // Notify if checkedReservations is empty
-            boolean notify = false;
-            if (checkedReservations.isEmpty()) {
-                notify = true;
+    /**
+     * @brief Adds a seat checked outside the list to the checked reservations list.
+     * @param seat The seat, already marked as checked.
+     *
+     * @details Used by checkSeat() and by a pipeline that validates seats handed over
+     * directly by the payment stage; the listener is notified of the CHECKED transition.
+     */
+    public void putValidated(Seat seat) {
+        transitionListener.onTransition(seat, Transition.CHECKED);
+        addChecked(seat);
+    }
+
+    /**
+     * @brief Adds a checked seat to the checked reservations list.
+     * @param seat The checked seat.
+     *
+     * @details In the RING handoff mode the seat goes to the checked ring; if the
+     * thread is interrupted while the ring is full, the seat is cancelled instead.
+     */
+    private void addChecked(Seat seat) {
+        if (checkedRing != null) {
+            if (checkedRing.put(seat, "checkSeat")) {
+                SeatTrace.print(seat.getId(), SeatTrace.CHECKED);
+                return;
+            }
+            // Interrupted while the ring was full
+            if (overflow != null) {
+                overflow.putOverflowed(seat);
             }
+            return;
+        }
+        addCheckedToList(seat);
+    }
 
-            // Mark the seat as checked
-            seat.checked();
+    /**
+     * @brief Adds a checked seat to the checked reservations list.
+     * @param seat The checked seat.
+     *
+     * @details It wakes one thread waiting for a checked seat.
+     */
+    private void addCheckedToList(Seat seat) {
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
             checkedReservations.add(seat);
-            confirmedReservations.remove(seat);
-            System.out.print("\n" + seat.getId() + " Checked");
+            SeatTrace.print(seat.getId(), SeatTrace.CHECKED);
 
-            // Notify that checkedReservations is no longer empty
-            if (notify) {
-                notifyAll();
-            }
-        } catch (IllegalArgumentException e) {
-            // Handle exceptions if any
+            // Wake one verification thread for the new seat
+            profiler.signal(checkedNotEmpty);
+        } finally {
+            profiler.released();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @brief Restores a paid seat to the confirmed reservations list when the journal is replayed.
+     * @param seat The seat, already occupied.
+     *
+     * @details The admission policy does not apply, so the list may start over its
+     * capacity, and the listener is not notified.
+     */
+    void restoreConfirmed(Seat seat) {
+        if (confirmedRing != null) {
+            // The ring holds every seat of the map
+            confirmedRing.offer(seat);
+            return;
         }
+        lock.lock();
+        try {
+            confirmedReservations.add(seat);
+            confirmedNotEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @brief Restores a checked seat to the checked reservations list when the journal is replayed.
+     * @param seat The seat, already marked as checked.
+     *
+     * @details The checked list has no capacity; the listener is not notified.
+     */
+    void restoreChecked(Seat seat) {
+        addChecked(seat);
     }
 
     /**
@@ -87,18 +270,38 @@ public class ConfirmedReservations {
      * that has not been checked yet.
      */
     public Seat uncheckedSeat() {
-        Random random = new Random();
-        int randomIndex;
-        Seat seat;
-        randomIndex = random.nextInt(confirmedReservations.size());
-        seat = confirmedReservations.get(randomIndex);
+        return confirmedReservations.get(uncheckedSeatIndex());
+    }
 
-        while(seat.getChecked()) {
+    /**
+     * @brief Selects the index of an unchecked seat in the confirmed reservations list.
+     * @return The index of a randomly selected unchecked seat.
+     */
+    private int uncheckedSeatIndex() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int randomIndex = random.nextInt(confirmedReservations.size());
+
+        while(confirmedReservations.get(randomIndex).getChecked()) {
             randomIndex = random.nextInt(confirmedReservations.size());
-            seat = confirmedReservations.get(randomIndex);
-            if (confirmedReservations.isEmpty()) {
-                break;
-            }
+        }
+        return randomIndex;
+    }
+
+    /**
+     * @brief Removes the seat at the given index by moving the last seat into its slot.
+     * @param reservations The list to remove the seat from.
+     * @param index The index of the seat to remove.
+     * @return The removed seat.
+     *
+     * @details The lists are sampled randomly, so their order carries no meaning and
+     * the tail does not need to be shifted.
+     */
+    private static Seat removeAt(List<Seat> reservations, int index) {
+        int last = reservations.size() - 1;
+        Seat seat = reservations.get(index);
+        Seat moved = reservations.remove(last);
+        if (index != last) {
+            reservations.set(index, moved);
         }
         return seat;
     }
@@ -106,24 +309,129 @@ public class ConfirmedReservations {
     /**
      * @brief Adds a seat to the confirmed reservations list.
      * @param seat The seat that is being confirmed.
+     * @return True if the seat was added, false if it was rejected or shed.
      *
      * @details This method adds a seat to the confirmed reservations list and notifies
-     * other threads if the list was previously empty.
+     * other threads if the list was previously empty. If the list is full, the admission
+     * policy decides whether to wait for room, reject the seat or shed a lower-priority
+     * one; the seat left out is cancelled.
      */
-    public synchronized void putConfirmed(Seat seat) {
-        boolean notify = false;
-        if (confirmedReservations.isEmpty()) {
-            notify = true;
+    public boolean putConfirmed(Seat seat) {
+        // Record the transition before the cancellation/validation process can see the seat
+        transitionListener.onTransition(seat, Transition.PAID);
+        if (confirmedRing != null) {
+            if (confirmedRing.put(seat, "putConfirmed")) {
+                SeatTrace.print(seat.getId(), SeatTrace.PAID);
+                return true;
+            }
+            // Interrupted while the ring was full
+            if (overflow != null) {
+                overflow.putOverflowed(seat);
+            }
+            return false;
         }
-        confirmedReservations.add(seat);
-        System.out.print("\n" + seat.getId() + " Paid");
+        Seat left = null;
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            if (admission.full(confirmedReservations.size())) {
+                left = admit(seat);
+            }
+            if (left != seat) {
+                if (left == null) {
+                    confirmedReservations.add(seat);
+                }
+                admission.countAdmitted();
+                SeatTrace.print(seat.getId(), SeatTrace.PAID);
 
-        // Notify that the confirmed reservations list is not empty
-        if (notify) {
-            notifyAll();
+                // Wake one check or cancellation thread for the new seat. Signalling only when
+                // the list was empty would strand a second waiter if two seats arrive before
+                // the first woken thread takes its seat.
+                profiler.signal(confirmedNotEmpty);
+            }
+        } finally {
+            profiler.released();
+            lock.unlock();
+        }
+        // Cancel outside the lock: the cancelled list has its own
+        if (left != null && overflow != null) {
+            overflow.putOverflowed(left);
+        }
+        return left != seat;
+    }
+
+    /**
+     * @brief Applies the admission policy to a seat offered to the full confirmed list.
+     * @param seat The seat offered to the list.
+     * @return The seat to cancel: the offered seat, a shed seat it replaced in the list,
+     * or null if room was made by a consumer.
+     *
+     * @details Called holding the lock.
+     */
+    private Seat admit(Seat seat) {
+        switch (admission.policy()) {
+            case BLOCK:
+                StageWaitEvent waitEvent = StageWaitEvent.begin("putConfirmed");
+                while (admission.full(confirmedReservations.size())) {
+                    admission.countBlocked();
+                    try {
+                        profiler.await(confirmedNotFull);
+                    } catch (InterruptedException e) {
+                        // The system is stopping
+                        Thread.currentThread().interrupt();
+                        admission.countRejected();
+                        return seat;
+                    }
+                }
+                StageWaitEvent.end(waitEvent, confirmedReservations.size());
+                return null;
+            case SHED:
+                int index = admission.sheddingIndex(confirmedReservations, seat);
+                admission.countShed();
+                if (index < 0) {
+                    return seat;
+                }
+                return confirmedReservations.set(index, seat);
+            default:
+                admission.countRejected();
+                return seat;
         }
     }
 
+    /**
+     * @brief Sets the list cancelling the seats this list rejects or sheds when full,
+     * or that an interrupted thread could not hand to a full ring.
+     * @param overflow The cancelled reservations list.
+     */
+    public void setOverflow(CancelledReservations overflow) {
+        this.overflow = overflow;
+    }
+
+    /**
+     * @brief Gets the capacity, policy and counters of the confirmed reservations list.
+     * @return The admission control of the list.
+     */
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    /**
+     * @brief Gets the contention profile of the lock guarding both lists.
+     * @return The profiler; disabled unless Constants.getMonitorProfiling() and not in the RING handoff mode.
+     */
+    public MonitorProfiler getMonitorProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @brief Sets the listener notified before a seat is added to either list.
+     * @param transitionListener The listener, for example the reservation journal.
+     */
+    public void setTransitionListener(TransitionListener transitionListener) {
+        this.transitionListener = transitionListener;
+    }
+
     /**
      * @brief Removes a confirmed seat from the reservations list.
      * @return The randomly selected seat that was removed.
@@ -131,25 +439,43 @@ public class ConfirmedReservations {
      * @details This method removes a seat from the confirmed reservations list and returns it.
      * It waits if the list is empty until a seat becomes available.
      */
-    public synchronized Seat removeConfirmed() {
+    public Seat removeConfirmed() {
+        return confirmedRing != null ? confirmedRing.take("removeConfirmed") : removeConfirmedFromList();
+    }
 
-        while (confirmedReservations.isEmpty()) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                notifyAll();
-                break;
+    /**
+     * @brief Removes a random confirmed seat from the confirmed reservations list.
+     * @return The seat, or null if the thread was interrupted.
+     */
+    private Seat removeConfirmedFromList() {
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            StageWaitEvent waitEvent = confirmedReservations.isEmpty() ? StageWaitEvent.begin("removeConfirmed") : null;
+            while (confirmedReservations.isEmpty()) {
+                try {
+                    profiler.await(confirmedNotEmpty);
+                } catch (InterruptedException e) {
+                    // The system is stopping; a signal is only consumed by a thread that returns from await()
+                    break;
+                }
             }
-        }
+            StageWaitEvent.end(waitEvent, confirmedReservations.size());
 
-        try {
-            Random random = new Random();
-            int randomIndex = random.nextInt(confirmedReservations.size());
-            Seat seat = confirmedReservations.get(randomIndex);
-            confirmedReservations.remove(seat);
-            return seat;
-        } catch (IllegalArgumentException e) {
-            return null;
+            try {
+                int randomIndex = ThreadLocalRandom.current().nextInt(confirmedReservations.size());
+                if (admission.blocksProducers()) {
+                    // Wake one payment thread waiting for room
+                    profiler.signal(confirmedNotFull);
+                }
+                return removeAt(confirmedReservations, randomIndex);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        } finally {
+            profiler.released();
+            lock.unlock();
         }
     }
 
@@ -160,38 +486,82 @@ public class ConfirmedReservations {
      * @details This method removes a seat from the checked reservations list and returns it.
      * It waits if the list is empty until a seat becomes available.
      */
-    public synchronized Seat removeChecked() {
-        boolean flag = false;
-        while (checkedReservations.isEmpty()) {
+    public Seat removeChecked() {
+        return checkedRing != null ? checkedRing.take("removeChecked") : removeCheckedFromList();
+    }
+
+    /**
+     * @brief Removes a random checked seat from the checked reservations list.
+     * @return The seat, or null if the thread was interrupted.
+     */
+    private Seat removeCheckedFromList() {
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            boolean flag = false;
+            StageWaitEvent waitEvent = checkedReservations.isEmpty() ? StageWaitEvent.begin("removeChecked") : null;
+            while (checkedReservations.isEmpty()) {
+                try {
+                    profiler.await(checkedNotEmpty);
+                } catch (InterruptedException e) {
+                    flag = true;
+                    break;
+                }
+            }
+            StageWaitEvent.end(waitEvent, checkedReservations.size());
+            if (flag) {
+                return null;
+            }
+
             try {
-                wait();
-            } catch (InterruptedException e) {
-                flag = true;
-                notifyAll();
-                break;
+                int randomIndex = ThreadLocalRandom.current().nextInt(checkedReservations.size());
+                return removeAt(checkedReservations, randomIndex);
+            } catch (IllegalArgumentException e) {
+                return null;
             }
+        } finally {
+            profiler.released();
+            lock.unlock();
         }
-        if (flag) {
-            return null;
-        }
+    }
 
+    /**
+     * @brief Returns the number of confirmed reservations.
+     * @return The size of the confirmed reservations list.
+     */
+    public int size() {
+        if (confirmedRing != null) {
+            return confirmedRing.size();
+        }
+        long requested = profiler.requesting();
+        lock.lock();
         try {
-            Random random = new Random();
-            int randomIndex = random.nextInt(checkedReservations.size());
-            Seat seat = checkedReservations.get(randomIndex);
-            checkedReservations.remove(seat);
-            return seat;
-        } catch (IllegalArgumentException e) {
-            return null;
+            profiler.acquired(requested);
+            return confirmedReservations.size();
+        } finally {
+            profiler.released();
+            lock.unlock();
         }
     }
 
     /**
-     * @brief Returns the number of confirmed reservations.
-     * @return The size of the confirmed reservations list.
+     * @brief Returns the number of checked reservations waiting for verification.
+     * @return The size of the checked reservations list.
      */
-    public synchronized int size() {
-        return confirmedReservations.size();
+    public int checkedSize() {
+        if (checkedRing != null) {
+            return checkedRing.size();
+        }
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            return checkedReservations.size();
+        } finally {
+            profiler.released();
+            lock.unlock();
+        }
     }
 
     /**
@@ -199,8 +569,8 @@ public class ConfirmedReservations {
      * @return true if there are unchecked seats, false otherwise.
      */
     public boolean flagChecked() {
-        for (Seat seat : confirmedReservations) {
-            if (!seat.getChecked()) {
+        for (int i = 0; i < confirmedReservations.size(); i++) {
+            if (!confirmedReservations.get(i).getChecked()) {
                 return true;
             }
         }
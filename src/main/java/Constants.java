@@ -66,6 +66,93 @@ public class Constants {
     /** Global flag to control the flow of the system. */
     private boolean globalFlag = true;
 
+    /** Path of the reservation journal, or null to run without a journal. */
+    private String journalPath = null;
+
+    /** When the reservation journal forces its file to disk. */
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.ALWAYS;
+
+    /** Maximum time in milliseconds between journal forces under the INTERVAL policy. */
+    private int journalFlushInterval = 10;
+
+    /** Whether seat transitions are timed and analysed, with their summaries printed at the end of the run. */
+    private boolean analytics = false;
+
+    /** Number of seat lifecycle events recorded for the end-of-run analytics (0 disables them). */
+    private int analyticsEventCapacity = 65536;
+
+    /** Width in milliseconds of the throughput windows of the end-of-run analytics. */
+    private int analyticsWindow = 1000;
+
+    /** Whether cancelled seats are resold (waitlist first) instead of being discarded. */
+    private boolean seatRecycling = false;
+
+    /** Number of priority levels of the resale waitlist. */
+    private int waitlistPriorities = 3;
+
+    /** Most customers waiting on the resale waitlist; later arrivals are turned away. */
+    private int waitlistCapacity = 50;
+
+    /** Whether the seat map reserves seats with compare-and-set instead of its monitor. */
+    private boolean optimisticSeatMap = false;
+
+    /** Path of the memory-mapped seat inventory shared between processes (null for an in-heap seat map). */
+    private String sharedInventoryPath = null;
+
+    /** Number of first class rows, at the front of the seat map. */
+    private int firstClassRows = 2;
+
+    /** Number of business class rows, after the first class rows. */
+    private int businessClassRows = 5;
+
+    /** Order in which payment workers take pending reservations. */
+    private PaymentScheduling paymentScheduling = PaymentScheduling.RANDOM;
+
+    /** Time in milliseconds a reservation is held for payment; sets the deadlines of earliest deadline first scheduling. */
+    private int paymentHoldTime = 1000;
+
+    /** Maximum number of seats in the pending payment and confirmed lists (0 for unbounded). */
+    private int reservationListCapacity = 0;
+
+    /** What a full reservation list does with a new seat. */
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.BLOCK;
+
+    /** How seats are handed between the pipeline stages. */
+    private HandoffMode handoffMode = HandoffMode.MONITOR;
+
+    /** How threads wait on the ring buffers of the RING handoff mode. */
+    private WaitStrategy waitStrategy = WaitStrategy.PARK;
+
+    /** Whether seat transitions are recorded in the seat event log and queried through its read model. */
+    private boolean eventSourcing = false;
+
+    /** When the seats of a seat map are created. */
+    private SeatMapInitialization seatMapInitialization = SeatMapInitialization.EAGER;
+
+    /** Base path of the seat state exports (path.seats and path.csv), or null to disable them. */
+    private String exportPath = null;
+
+    /** Whether the pipeline runs as a discrete-event simulation on a virtual clock instead of threads. */
+    private boolean simulation = false;
+
+    /** Virtual time to simulate in milliseconds, or 0 to run until every seat is processed. */
+    private long simulationDuration = 0;
+
+    /** Whether the monitors of the seat map and the reservation lists record their contention. */
+    private boolean monitorProfiling = false;
+
+    /** Entries of each idempotency cache (keyed reservations and payments), or 0 to disable them. */
+    private int idempotencyCapacity = 0;
+
+    /** Milliseconds an idempotency cache entry lives. */
+    private long idempotencyTtl = 60_000;
+
+    /** Whether the process threads are built as a PipelineBuilder pipeline, fusing adjacent stages of equal parallelism. */
+    private boolean stageFusion = false;
+
+    /** Minimum time in milliseconds between two seat state exports of the LOG thread. */
+    private int exportInterval = 1000;
+
     /**
      * @brief Default constructor.
      */
@@ -301,4 +388,477 @@ public class Constants {
     public boolean getGlobalFlag(){
         return globalFlag;
     }
+
+    /**
+     * @brief Sets the path of the reservation journal.
+     * @param journalPath Path of the journal file, or null to disable the journal.
+     */
+    public void setJournalPath(String journalPath){
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * @brief Gets the path of the reservation journal.
+     * @return Path of the journal file, or null if the journal is disabled.
+     */
+    public String getJournalPath(){
+        return journalPath;
+    }
+
+    /**
+     * @brief Sets when the reservation journal forces its file to disk.
+     * @param fsyncPolicy The fsync policy of the journal.
+     */
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy){
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * @brief Gets when the reservation journal forces its file to disk.
+     * @return The fsync policy of the journal.
+     */
+    public FsyncPolicy getFsyncPolicy(){
+        return fsyncPolicy;
+    }
+
+    /**
+     * @brief Sets the maximum time between journal forces under the INTERVAL policy.
+     * @param journalFlushInterval Time in milliseconds.
+     */
+    public void setJournalFlushInterval(int journalFlushInterval){
+        this.journalFlushInterval = journalFlushInterval;
+    }
+
+    /**
+     * @brief Gets the maximum time between journal forces under the INTERVAL policy.
+     * @return Time in milliseconds.
+     */
+    public int getJournalFlushInterval(){
+        return journalFlushInterval;
+    }
+
+    /**
+     * @brief Sets whether seat transitions are timed and analysed at the end of the run.
+     * @param analytics True to record the seat timeline and lifecycle events and print their summaries.
+     */
+    public void setAnalytics(boolean analytics){
+        this.analytics = analytics;
+    }
+
+    /**
+     * @brief Gets whether seat transitions are timed and analysed at the end of the run.
+     * @return True if the analytics are enabled.
+     */
+    public boolean getAnalytics(){
+        return analytics;
+    }
+
+    /**
+     * @brief Sets the number of seat lifecycle events recorded for the analytics.
+     * @param analyticsEventCapacity Maximum number of events, or 0 to disable the analytics.
+     */
+    public void setAnalyticsEventCapacity(int analyticsEventCapacity){
+        this.analyticsEventCapacity = analyticsEventCapacity;
+    }
+
+    /**
+     * @brief Gets the number of seat lifecycle events recorded for the analytics.
+     * @return Maximum number of events, or 0 if the analytics are disabled.
+     */
+    public int getAnalyticsEventCapacity(){
+        return analyticsEventCapacity;
+    }
+
+    /**
+     * @brief Sets the width of the throughput windows of the analytics.
+     * @param analyticsWindow Time in milliseconds.
+     */
+    public void setAnalyticsWindow(int analyticsWindow){
+        this.analyticsWindow = analyticsWindow;
+    }
+
+    /**
+     * @brief Gets the width of the throughput windows of the analytics.
+     * @return Time in milliseconds.
+     */
+    public int getAnalyticsWindow(){
+        return analyticsWindow;
+    }
+
+    /**
+     * @brief Sets whether cancelled seats are resold instead of being discarded.
+     * @param seatRecycling True to resell cancelled seats.
+     */
+    public void setSeatRecycling(boolean seatRecycling){
+        this.seatRecycling = seatRecycling;
+    }
+
+    /**
+     * @brief Gets whether cancelled seats are resold instead of being discarded.
+     * @return True if cancelled seats are resold.
+     */
+    public boolean getSeatRecycling(){
+        return seatRecycling;
+    }
+
+    /**
+     * @brief Sets the number of priority levels of the resale waitlist.
+     * @param waitlistPriorities Number of priority levels.
+     */
+    public void setWaitlistPriorities(int waitlistPriorities){
+        this.waitlistPriorities = waitlistPriorities;
+    }
+
+    /**
+     * @brief Gets the number of priority levels of the resale waitlist.
+     * @return Number of priority levels.
+     */
+    public int getWaitlistPriorities(){
+        return waitlistPriorities;
+    }
+
+    /**
+     * @brief Sets the most customers waiting on the resale waitlist. Customers who find
+     * the flight sold out while the waitlist is full are turned away.
+     * @param waitlistCapacity Maximum number of waiting customers.
+     */
+    public void setWaitlistCapacity(int waitlistCapacity){
+        this.waitlistCapacity = waitlistCapacity;
+    }
+
+    /**
+     * @brief Gets the most customers waiting on the resale waitlist.
+     * @return Maximum number of waiting customers.
+     */
+    public int getWaitlistCapacity(){
+        return waitlistCapacity;
+    }
+
+    /**
+     * @brief Sets whether the seat map reserves seats with compare-and-set instead of its monitor.
+     * @param optimisticSeatMap True for lock-free reservations.
+     */
+    public void setOptimisticSeatMap(boolean optimisticSeatMap){
+        this.optimisticSeatMap = optimisticSeatMap;
+    }
+
+    /**
+     * @brief Gets whether the seat map reserves seats with compare-and-set instead of its monitor.
+     * @return True if reservations are lock-free.
+     */
+    public boolean getOptimisticSeatMap(){
+        return optimisticSeatMap;
+    }
+
+    /**
+     * @brief Sets the path of the memory-mapped seat inventory shared between processes.
+     * @param sharedInventoryPath Path of the inventory file, or null for an in-heap seat map.
+     */
+    public void setSharedInventoryPath(String sharedInventoryPath){
+        this.sharedInventoryPath = sharedInventoryPath;
+    }
+
+    /**
+     * @brief Gets the path of the memory-mapped seat inventory shared between processes.
+     * @return Path of the inventory file, or null for an in-heap seat map.
+     */
+    public String getSharedInventoryPath(){
+        return sharedInventoryPath;
+    }
+
+    /**
+     * @brief Sets the number of first class rows, at the front of the seat map.
+     * @param firstClassRows Number of first class rows.
+     */
+    public void setFirstClassRows(int firstClassRows){
+        this.firstClassRows = firstClassRows;
+    }
+
+    /**
+     * @brief Gets the number of first class rows, at the front of the seat map.
+     * @return Number of first class rows.
+     */
+    public int getFirstClassRows(){
+        return firstClassRows;
+    }
+
+    /**
+     * @brief Sets the number of business class rows, after the first class rows.
+     * @param businessClassRows Number of business class rows.
+     */
+    public void setBusinessClassRows(int businessClassRows){
+        this.businessClassRows = businessClassRows;
+    }
+
+    /**
+     * @brief Gets the number of business class rows, after the first class rows.
+     * @return Number of business class rows.
+     */
+    public int getBusinessClassRows(){
+        return businessClassRows;
+    }
+
+    /**
+     * @brief Sets the order in which payment workers take pending reservations.
+     * @param paymentScheduling The scheduling mode.
+     */
+    public void setPaymentScheduling(PaymentScheduling paymentScheduling){
+        this.paymentScheduling = paymentScheduling;
+    }
+
+    /**
+     * @brief Gets the order in which payment workers take pending reservations.
+     * @return The scheduling mode.
+     */
+    public PaymentScheduling getPaymentScheduling(){
+        return paymentScheduling;
+    }
+
+    /**
+     * @brief Sets the time a reservation is held for payment.
+     * @param paymentHoldTime Hold time in milliseconds.
+     */
+    public void setPaymentHoldTime(int paymentHoldTime){
+        this.paymentHoldTime = paymentHoldTime;
+    }
+
+    /**
+     * @brief Gets the time a reservation is held for payment.
+     * @return Hold time in milliseconds.
+     */
+    public int getPaymentHoldTime(){
+        return paymentHoldTime;
+    }
+
+    /**
+     * @brief Sets the maximum number of seats in the pending payment and confirmed lists.
+     * @param reservationListCapacity Capacity of each list, or 0 for unbounded.
+     */
+    public void setReservationListCapacity(int reservationListCapacity){
+        this.reservationListCapacity = reservationListCapacity;
+    }
+
+    /**
+     * @brief Gets the maximum number of seats in the pending payment and confirmed lists.
+     * @return Capacity of each list, or 0 for unbounded.
+     */
+    public int getReservationListCapacity(){
+        return reservationListCapacity;
+    }
+
+    /**
+     * @brief Sets what a full reservation list does with a new seat.
+     * @param admissionPolicy The admission policy.
+     */
+    public void setAdmissionPolicy(AdmissionPolicy admissionPolicy){
+        this.admissionPolicy = admissionPolicy;
+    }
+
+    /**
+     * @brief Gets what a full reservation list does with a new seat.
+     * @return The admission policy.
+     */
+    public AdmissionPolicy getAdmissionPolicy(){
+        return admissionPolicy;
+    }
+
+    /**
+     * @brief Sets how seats are handed between the pipeline stages.
+     * @param handoffMode The handoff mode.
+     */
+    public void setHandoffMode(HandoffMode handoffMode){
+        this.handoffMode = handoffMode;
+    }
+
+    /**
+     * @brief Gets how seats are handed between the pipeline stages.
+     * @return The handoff mode.
+     */
+    public HandoffMode getHandoffMode(){
+        return handoffMode;
+    }
+
+    /**
+     * @brief Sets how threads wait on the ring buffers of the RING handoff mode.
+     * @param waitStrategy The wait strategy.
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy){
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * @brief Gets how threads wait on the ring buffers of the RING handoff mode.
+     * @return The wait strategy.
+     */
+    public WaitStrategy getWaitStrategy(){
+        return waitStrategy;
+    }
+
+    /**
+     * @brief Sets whether seat transitions are recorded in the seat event log and
+     * counts are queried through its read model instead of the reservation lists.
+     * @param eventSourcing True to enable the event-sourced mode.
+     */
+    public void setEventSourcing(boolean eventSourcing){
+        this.eventSourcing = eventSourcing;
+    }
+
+    /**
+     * @brief Gets whether the event-sourced mode is enabled.
+     * @return True if seat transitions are recorded in the seat event log.
+     */
+    public boolean getEventSourcing(){
+        return eventSourcing;
+    }
+
+    /**
+     * @brief Sets when the seats of a seat map are created.
+     * @param seatMapInitialization EAGER, PARALLEL or LAZY.
+     */
+    public void setSeatMapInitialization(SeatMapInitialization seatMapInitialization){
+        this.seatMapInitialization = seatMapInitialization;
+    }
+
+    /**
+     * @brief Gets when the seats of a seat map are created.
+     * @return The seat map initialization.
+     */
+    public SeatMapInitialization getSeatMapInitialization(){
+        return seatMapInitialization;
+    }
+
+    /**
+     * @brief Sets the base path of the seat state exports. The LOG thread writes the
+     * columnar file (path.seats) and the CSV file (path.csv) every export interval and
+     * once more when the run ends.
+     * @param exportPath The base path, or null to disable the exports.
+     */
+    public void setExportPath(String exportPath){
+        this.exportPath = exportPath;
+    }
+
+    /**
+     * @brief Gets the base path of the seat state exports.
+     * @return The base path, or null if the exports are disabled.
+     */
+    public String getExportPath(){
+        return exportPath;
+    }
+
+    /**
+     * @brief Sets whether the pipeline runs as a discrete-event simulation. The stage
+     * times and probabilities are the same, but time is virtual and advances from
+     * event to event instead of sleeping. The per-seat console trace and the LOG
+     * thread are off in this mode.
+     * @param simulation True to simulate instead of running the process threads.
+     */
+    public void setSimulation(boolean simulation){
+        this.simulation = simulation;
+    }
+
+    /**
+     * @brief Gets whether the pipeline runs as a discrete-event simulation.
+     * @return True if the pipeline is simulated.
+     */
+    public boolean getSimulation(){
+        return simulation;
+    }
+
+    /**
+     * @brief Sets the virtual time to simulate.
+     * @param simulationDuration The duration in milliseconds, or 0 to run until every seat is processed.
+     */
+    public void setSimulationDuration(long simulationDuration){
+        this.simulationDuration = simulationDuration;
+    }
+
+    /**
+     * @brief Gets the virtual time to simulate.
+     * @return The duration in milliseconds, or 0 to run until every seat is processed.
+     */
+    public long getSimulationDuration(){
+        return simulationDuration;
+    }
+
+    /**
+     * @brief Sets whether the monitors of the seat map and the reservation lists record their contention.
+     * @param monitorProfiling True to record acquire waits, hold times and wait()/notifyAll() activity.
+     */
+    public void setMonitorProfiling(boolean monitorProfiling){
+        this.monitorProfiling = monitorProfiling;
+    }
+
+    /**
+     * @brief Gets whether the monitors of the seat map and the reservation lists record their contention.
+     * @return True if monitor profiling is enabled.
+     */
+    public boolean getMonitorProfiling(){
+        return monitorProfiling;
+    }
+
+    /**
+     * @brief Sets the entries of each idempotency cache (keyed reservations and payments).
+     * @param idempotencyCapacity The maximum number of remembered keys per cache, or 0 to disable the caches.
+     */
+    public void setIdempotencyCapacity(int idempotencyCapacity){
+        this.idempotencyCapacity = idempotencyCapacity;
+    }
+
+    /**
+     * @brief Gets the entries of each idempotency cache (keyed reservations and payments).
+     * @return The maximum number of remembered keys per cache, or 0 if the caches are disabled.
+     */
+    public int getIdempotencyCapacity(){
+        return idempotencyCapacity;
+    }
+
+    /**
+     * @brief Sets how long an idempotency cache entry lives.
+     * @param idempotencyTtl The time in milliseconds, or 0 for no expiry.
+     */
+    public void setIdempotencyTtl(long idempotencyTtl){
+        this.idempotencyTtl = idempotencyTtl;
+    }
+
+    /**
+     * @brief Gets how long an idempotency cache entry lives.
+     * @return The time in milliseconds, or 0 for no expiry.
+     */
+    public long getIdempotencyTtl(){
+        return idempotencyTtl;
+    }
+
+    /**
+     * @brief Sets whether the process threads are built as a pipeline that fuses adjacent stages of equal parallelism.
+     * @param stageFusion True to run fused stages in one worker loop, without the reservation list between them.
+     */
+    public void setStageFusion(boolean stageFusion){
+        this.stageFusion = stageFusion;
+    }
+
+    /**
+     * @brief Gets whether the process threads are built as a pipeline that fuses adjacent stages of equal parallelism.
+     * @return True if stage fusion is enabled.
+     */
+    public boolean getStageFusion(){
+        return stageFusion;
+    }
+
+    /**
+     * @brief Sets the minimum time between two seat state exports of the LOG thread.
+     * The LOG thread checks it on every log tick, so exports are at least one log
+     * time apart.
+     * @param exportInterval Time in milliseconds between exports.
+     */
+    public void setExportInterval(int exportInterval){
+        this.exportInterval = exportInterval;
+    }
+
+    /**
+     * @brief Gets the minimum time between two seat state exports of the LOG thread.
+     * @return Time in milliseconds between exports.
+     */
+    public int getExportInterval(){
+        return exportInterval;
+    }
 }
\ No newline at end of file
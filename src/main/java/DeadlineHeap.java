@@ -0,0 +1,110 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    DeadlineHeap.java
+ * @brief   Binary min-heap of seats ordered by deadline, on primitive arrays.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The DeadlineHeap class keeps seats in a binary min-heap keyed by a long
+ * deadline, stored in two parallel arrays, so adding a seat and removing the one
+ * with the earliest deadline take O(log n) without allocating an entry per seat.
+ * Seats with the same deadline come out in no particular order.
+ * It is not thread-safe; the owning collection guards it with its monitor.
+ */
+import java.util.Arrays;
+
+public class DeadlineHeap {
+    private long[] deadlines; ///< Deadline of each heap slot.
+    private Seat[] seats; ///< Seat of each heap slot.
+    private int size; ///< Number of seats in the heap.
+
+    /**
+     * Constructor for the DeadlineHeap class.
+     *
+     * @param capacity Initial capacity; the heap grows beyond it if needed.
+     */
+    public DeadlineHeap(int capacity) {
+        deadlines = new long[Math.max(capacity, 1)];
+        seats = new Seat[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a seat.
+     *
+     * @param seat The seat.
+     * @param deadline The deadline of the seat, e.g. a System.nanoTime() value.
+     */
+    public void add(Seat seat, long deadline) {
+        if (size == seats.length) {
+            deadlines = Arrays.copyOf(deadlines, size * 2);
+            seats = Arrays.copyOf(seats, size * 2);
+        }
+        // Sift up from the new last slot
+        int slot = size++;
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (deadlines[parent] - deadline <= 0) {
+                break;
+            }
+            deadlines[slot] = deadlines[parent];
+            seats[slot] = seats[parent];
+            slot = parent;
+        }
+        deadlines[slot] = deadline;
+        seats[slot] = seat;
+    }
+
+    /**
+     * Removes the seat with the earliest deadline.
+     *
+     * @return The seat, or null if the heap is empty.
+     */
+    public Seat poll() {
+        if (size == 0) {
+            return null;
+        }
+        Seat first = seats[0];
+        int last = --size;
+        long deadline = deadlines[last];
+        Seat seat = seats[last];
+        seats[last] = null;
+        // Sift the last seat down from the root
+        int slot = 0;
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && deadlines[child + 1] - deadlines[child] < 0) {
+                child++;
+            }
+            if (deadline - deadlines[child] <= 0) {
+                break;
+            }
+            deadlines[slot] = deadlines[child];
+            seats[slot] = seats[child];
+            slot = child;
+        }
+        if (size > 0) {
+            deadlines[slot] = deadline;
+            seats[slot] = seat;
+        }
+        return first;
+    }
+
+    /**
+     * Gets the earliest deadline.
+     *
+     * @return The deadline of the next seat poll() returns; undefined if the heap is empty.
+     */
+    public long peekDeadline() {
+        return deadlines[0];
+    }
+
+    /**
+     * Gets the number of seats in the heap.
+     *
+     * @return The size of the heap.
+     */
+    public int size() {
+        return size;
+    }
+}
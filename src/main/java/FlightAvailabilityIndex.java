@@ -0,0 +1,150 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    FlightAvailabilityIndex.java
+ * @brief   Search index of flights by available seats per cabin class.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The FlightAvailabilityIndex class answers "which flights have at least N free
+ * seats in class X" without asking every SeatMap. For each SeatClass it keeps a
+ * ConcurrentSkipListSet of keys (available seats << 32 | flight ID), so flights
+ * are ordered by availability and a query is a logarithmic ceiling lookup
+ * followed by a walk over the matching flights only.
+ * Seat maps created with an index refresh their entry on every reservation and
+ * release. A refresh reads the current count under the lock of the flight's
+ * entry, so concurrent refreshes of one flight always leave its latest count in
+ * the index; the new key is added before the old one is removed, so a
+ * concurrent search never misses a flight that matches before and after. A
+ * search can then meet both keys of a flight, so it skips flights already found.
+ */
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class FlightAvailabilityIndex {
+    private static final SeatClass[] CLASSES = SeatClass.values(); ///< Cached to avoid cloning values() on every refresh.
+    private static final long ABSENT = -1; ///< Key of a class not yet in the index.
+
+    private final EnumMap<SeatClass, ConcurrentSkipListSet<Long>> classes = new EnumMap<>(SeatClass.class); ///< Flights of each class, ordered by available seats.
+    private final ConcurrentHashMap<Integer, long[]> entries = new ConcurrentHashMap<>(); ///< Current key of each class, by flight ID.
+
+    /**
+     * Constructor for the FlightAvailabilityIndex class.
+     */
+    public FlightAvailabilityIndex() {
+        for (SeatClass seatClass : CLASSES) {
+            classes.put(seatClass, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    /**
+     * Adds a flight to the index, or refreshes all of its classes if it is already there.
+     *
+     * @param seatMap The seat map of the flight.
+     */
+    public void register(SeatMap seatMap) {
+        for (SeatClass seatClass : CLASSES) {
+            refresh(seatMap, seatClass);
+        }
+    }
+
+    /**
+     * Updates the available seats of one class of a flight.
+     *
+     * @param seatMap The seat map of the flight.
+     * @param seatClass The class whose count changed.
+     */
+    public void refresh(SeatMap seatMap, SeatClass seatClass) {
+        long[] entry = entries.computeIfAbsent(seatMap.getFlightId(), id -> newEntry());
+        ConcurrentSkipListSet<Long> flights = classes.get(seatClass);
+        synchronized (entry) {
+            long key = key(seatMap.availableSeats(seatClass), seatMap.getFlightId());
+            long previous = entry[seatClass.ordinal()];
+            if (key != previous) {
+                flights.add(key);
+                if (previous != ABSENT) {
+                    flights.remove(previous);
+                }
+                entry[seatClass.ordinal()] = key;
+            }
+        }
+    }
+
+    /**
+     * Removes a flight from the index.
+     *
+     * @param flightId The flight.
+     */
+    public void remove(int flightId) {
+        long[] entry = entries.remove(flightId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            for (SeatClass seatClass : CLASSES) {
+                if (entry[seatClass.ordinal()] != ABSENT) {
+                    classes.get(seatClass).remove(entry[seatClass.ordinal()]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds flights with at least a number of available seats in a class,
+     * fewest available seats first.
+     *
+     * @param seatClass The class.
+     * @param minSeats The minimum number of available seats.
+     * @param limit The maximum number of flights to return.
+     * @return The distinct IDs of the matching flights, at most limit.
+     */
+    public int[] search(SeatClass seatClass, int minSeats, int limit) {
+        int[] found = new int[Math.min(limit, entries.size())];
+        int size = 0;
+        // A flight being refreshed has its old and new keys in the set for a moment
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Long> matches = classes.get(seatClass).tailSet(key(Math.max(minSeats, 0), 0)).iterator();
+        while (size < found.length && matches.hasNext()) {
+            int flightId = (int) matches.next().longValue();
+            if (seen.add(flightId)) {
+                found[size++] = flightId;
+            }
+        }
+        return size == found.length ? found : Arrays.copyOf(found, size);
+    }
+
+    /**
+     * Finds the flight with the fewest available seats in a class that still has at least the requested number.
+     *
+     * @param seatClass The class.
+     * @param minSeats The minimum number of available seats.
+     * @return The ID of the flight, or -1 if no flight has enough seats.
+     */
+    public int bestFit(SeatClass seatClass, int minSeats) {
+        Long key = classes.get(seatClass).ceiling(key(Math.max(minSeats, 0), 0));
+        return key == null ? -1 : (int) key.longValue();
+    }
+
+    /**
+     * Gets the number of flights in the index.
+     *
+     * @return The number of registered flights.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static long[] newEntry() {
+        long[] entry = new long[CLASSES.length];
+        Arrays.fill(entry, ABSENT);
+        return entry;
+    }
+
+    private static long key(int availableSeats, int flightId) {
+        return (long) availableSeats << 32 | (flightId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    FsyncPolicy.java
+ * @brief   Enum representing when the reservation journal forces its file to disk.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The FsyncPolicy enum selects the durability of the reservation journal:
+ * - ALWAYS: A transition is acknowledged only after the batch holding it was forced
+ *   to disk. Transitions appended while a force is running share the next one.
+ * - INTERVAL: A transition is acknowledged once buffered; the file is forced at most
+ *   once per configured interval.
+ * - NEVER: The file is written but never forced; the operating system decides.
+ */
+public enum FsyncPolicy {
+    ALWAYS,    ///< Group commit: acknowledge after the batch is forced.
+    INTERVAL,  ///< Acknowledge when buffered, force periodically.
+    NEVER      ///< Acknowledge when buffered, never force.
+}
@@ -0,0 +1,125 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    HandoffBenchmark.java
+ * @brief   Compares the monitor-based and ring buffer stage handoffs.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The HandoffBenchmark class pushes every seat of a seat map from reservation to
+ * verification through the real reservation lists, with no simulated processing
+ * time, so the handoffs themselves are what is measured. Each stage (reserve, pay,
+ * check, verify) runs on its own threads. It runs the MONITOR handoff mode and the
+ * RING mode with every wait strategy, and prints the throughput and the
+ * reservation-to-verification latency percentiles (from SeatTimeline) of the best
+ * of the measured rounds.
+ * Run it with: gradle handoffBenchmark --args="<rows> <columns> <threadsPerStage> <rounds>"
+ */
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HandoffBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Rows (1000), columns (100), threads per stage (1) and measured rounds (3).
+     * @throws InterruptedException If interrupted while waiting for a round.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int threadsPerStage = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        PrintStream console = System.out;
+        // The lists trace every transition to the console; keep the path but drop the output.
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        console.printf("%d seats, %d thread(s) per stage, best of %d rounds%n", rows * columns, threadsPerStage, rounds);
+        console.printf("%-20s %14s  %s%n", "mode", "seats/s", "reserve -> verify latency");
+        List<Object[]> modes = new ArrayList<>();
+        modes.add(new Object[]{HandoffMode.MONITOR, WaitStrategy.PARK});
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            modes.add(new Object[]{HandoffMode.RING, waitStrategy});
+        }
+        for (Object[] mode : modes) {
+            Constants constants = new Constants();
+            constants.setRows(rows);
+            constants.setColumns(columns);
+            constants.setHandoffMode((HandoffMode) mode[0]);
+            constants.setWaitStrategy((WaitStrategy) mode[1]);
+
+            // One unmeasured round to warm up the JIT
+            round(constants, threadsPerStage);
+            double bestThroughput = 0;
+            String bestLatency = "";
+            for (int r = 0; r < rounds; r++) {
+                SeatTimeline timeline = new SeatTimeline(rows * columns);
+                double throughput = round(constants, threadsPerStage, timeline);
+                if (throughput > bestThroughput) {
+                    bestThroughput = throughput;
+                    bestLatency = timeline.dwellTimes(Transition.RESERVED, Transition.VERIFIED).summaryMillis();
+                }
+            }
+            String name = mode[0] == HandoffMode.MONITOR ? "MONITOR" : "RING/" + mode[1];
+            console.printf("%-20s %14.0f  %s%n", name, bestThroughput, bestLatency);
+        }
+        System.setOut(console);
+    }
+
+    private static double round(Constants constants, int threadsPerStage) throws InterruptedException {
+        return round(constants, threadsPerStage, new SeatTimeline(constants.getRows() * constants.getColumns()));
+    }
+
+    /**
+     * Moves every seat of a fresh seat map from reservation to verification.
+     *
+     * @return The throughput in seats per second.
+     */
+    private static double round(Constants constants, int threadsPerStage, SeatTimeline timeline) throws InterruptedException {
+        int seats = constants.getRows() * constants.getColumns();
+        SeatMap seatMap = new SeatMap(constants);
+        PendingPaymentReservations pending = new PendingPaymentReservations(constants);
+        ConfirmedReservations confirmed = new ConfirmedReservations(constants);
+        VerifiedReservations verified = new VerifiedReservations(constants);
+        pending.setTransitionListener(timeline);
+        confirmed.setTransitionListener(timeline);
+        verified.setTransitionListener(timeline);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadsPerStage; t++) {
+            // Split the seats between the threads of each stage
+            int share = seats / threadsPerStage + (t < seats % threadsPerStage ? 1 : 0);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    pending.putPendingPayment(seatMap.reserve());
+                }
+            }));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    confirmed.putConfirmed(pending.removePendingPayment());
+                }
+            }));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    confirmed.checkSeat();
+                }
+            }));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    verified.putVerified(confirmed.removeChecked());
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return seats / ((System.nanoTime() - start) / 1e9);
+    }
+}
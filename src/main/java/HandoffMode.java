@@ -0,0 +1,20 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    HandoffMode.java
+ * @brief   Enum representing how seats are handed between pipeline stages.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The HandoffMode enum selects the structure behind the pending payment,
+ * confirmed and checked reservation lists:
+ * - MONITOR: Presized ArrayLists guarded by the list's lock, with one condition
+ *   queue per wait reason and one thread signalled per seat.
+ *   Seats are taken at random (or by deadline), admission control applies.
+ * - RING: Preallocated SeatRings; seats flow in FIFO order with no locks and no
+ *   allocation, and idle threads follow Constants.getWaitStrategy(). Payment
+ *   scheduling and admission policies do not apply.
+ */
+public enum HandoffMode {
+    MONITOR,  ///< Locked lists with condition queues.
+    RING      ///< Lock-free ring buffers.
+}
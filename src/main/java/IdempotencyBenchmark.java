@@ -0,0 +1,151 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    IdempotencyBenchmark.java
+ * @brief   Checks retried reservations and payments and measures the idempotency cache.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The IdempotencyBenchmark class first retries keyed reservations and payments,
+ * sequentially and from racing threads, and checks that each key took exactly one
+ * seat and applied exactly one payment. It then streams many more keys than the
+ * capacity through an IdempotencyCache from several threads, each key recorded
+ * once and looked up again as a retry, and prints the throughput, the hit ratio
+ * and the heap used by the cache, which does not grow with the number of keys.
+ * Run it with: gradle idempotencyBenchmark --args="<capacity> <keys> <threads>"
+ */
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IdempotencyBenchmark {
+
+    /**
+     * Runs the check and the benchmark.
+     *
+     * @param args Cache capacity (2000000), keys streamed through it (20000000) and threads (4).
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        long keys = args.length > 1 ? Long.parseLong(args[1]) : 20_000_000L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        checkRetries(threads);
+        measure(capacity, keys, threads);
+    }
+
+    /**
+     * Retries reservations and payments and fails if any was applied twice.
+     */
+    private static void checkRetries(int threads) throws InterruptedException {
+        SeatTrace.setEnabled(false);
+        Constants constants = new Constants();
+        SeatMap seatMap = new SeatMap(constants);
+        seatMap.setIdempotencyCache(new IdempotencyCache(1024, 0));
+        int available = seatMap.availableSeats();
+
+        Seat first = seatMap.reserve(42L);
+        Seat retry = seatMap.reserve(42L);
+        if (first != retry || seatMap.availableSeats() != available - 1) {
+            throw new IllegalStateException("A retried reservation took a second seat");
+        }
+
+        // Once the hold ended, a retry is a new request and must not get the released seat
+        seatMap.release(first);
+        Seat again = seatMap.reserve(42L);
+        if (again == null || again.getStatus() != SeatStatus.OCCUPIED || seatMap.availableSeats() != available - 1) {
+            throw new IllegalStateException("A retried reservation returned a seat it no longer holds");
+        }
+
+        // Racing retries of one key: the losers release their seats
+        Seat[] raced = new Seat[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] racers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int racer = t;
+            racers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                raced[racer] = seatMap.reserve(7L);
+            });
+            racers[t].start();
+        }
+        start.countDown();
+        for (Thread racer : racers) {
+            racer.join();
+        }
+        for (Seat seat : raced) {
+            if (seat != raced[0]) {
+                throw new IllegalStateException("Racing retries got different seats");
+            }
+        }
+        if (seatMap.availableSeats() != available - 2) {
+            throw new IllegalStateException("Racing retries kept more than one seat");
+        }
+
+        // A retried payment returns the first outcome and is not applied again
+        constants.setConfirmedSeatProbability(100);
+        ConfirmedReservations confirmed = new ConfirmedReservations(constants);
+        CancelledReservations cancelled = new CancelledReservations(constants);
+        PaymentProcess payment = new PaymentProcess(constants, new PendingPaymentReservations(constants), confirmed, cancelled);
+        payment.setIdempotencyCache(new IdempotencyCache(1024, 0));
+        long key = PaymentProcess.paymentKey(first);
+        Transition outcome = payment.pay(first, key);
+        constants.setConfirmedSeatProbability(0);
+        if (payment.pay(first, key) != outcome || confirmed.size() != 1 || cancelled.size() != 0) {
+            throw new IllegalStateException("A retried payment was applied twice");
+        }
+        System.out.println("Retries: a reservation key kept one seat (also racing " + threads
+                + " threads), a payment key applied one payment");
+    }
+
+    /**
+     * Streams keys through a cache from several threads and prints the results.
+     */
+    private static void measure(int capacity, long keys, int threads) throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long before = usedHeap(runtime);
+        IdempotencyCache cache = new IdempotencyCache(capacity, 0);
+        long created = usedHeap(runtime);
+
+        AtomicLong hits = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        long perThread = keys / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long first = t * perThread;
+            workers[t] = new Thread(() -> {
+                long found = 0;
+                for (long key = first; key < first + perThread; key++) {
+                    cache.putIfAbsent(key, key);
+                    // Retry a key recorded a while ago: a hit while it is still among the most recent entries
+                    long retried = key - (capacity / 2 / threads);
+                    if (retried >= first && cache.get(retried) == retried) {
+                        found++;
+                    }
+                }
+                hits.addAndGet(found);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long after = usedHeap(runtime);
+
+        long operations = 2 * perThread * threads;
+        System.out.printf("Cache: capacity=%d keys=%d threads=%d%n", cache.capacity(), perThread * threads, threads);
+        System.out.printf("  %.0f operations/s, retry hits=%d, entries=%d%n", operations / seconds, hits.get(), cache.size());
+        System.out.printf("  footprint=%.1f MB (%d bytes/entry), heap after creation=+%.1f MB, after all keys=+%.1f MB%n",
+                cache.footprintBytes() / 1e6, cache.footprintBytes() / cache.capacity(),
+                (created - before) / 1e6, (after - before) / 1e6);
+    }
+
+    private static long usedHeap(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
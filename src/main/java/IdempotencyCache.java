@@ -0,0 +1,334 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    IdempotencyCache.java
+ * @brief   Bounded map from request keys to the outcome of their first execution.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The IdempotencyCache class remembers the result of keyed operations, so a
+ * retried reserve or payment returns its original outcome instead of being
+ * applied twice. Keys and results are longs. The cache is split into segments,
+ * each guarded by its own monitor and holding a fixed number of entries in
+ * parallel primitive arrays: an open-addressing hash table of slot indexes (linear
+ * probing, deletions shift the probe run back) and a doubly linked list of the
+ * slots in least recently used order. Everything is allocated by the constructor,
+ * about BYTES_PER_ENTRY bytes per entry, so the footprint stays the same however
+ * many keys go through it and lookups never allocate.
+ * An entry expires TTL nanoseconds (SimulationClock.nanoTime()) after it was
+ * stored; a full segment evicts its least recently used entry.
+ */
+public class IdempotencyCache {
+    public static final long MISSING = Long.MIN_VALUE; ///< Returned for keys without a live entry; not storable as a result.
+    public static final int BYTES_PER_ENTRY = 3 * Long.BYTES + 2 * Integer.BYTES + 2 * Integer.BYTES; ///< Entry arrays plus two hash table slots.
+    private static final int MAX_SEGMENTS = 64; ///< Segments for large caches; small ones use fewer.
+    private static final int NONE = -1; ///< End of the LRU and free lists.
+
+    private final Segment[] segments; ///< Independently locked parts of the cache.
+    private final int segmentShift; ///< Right shift taking the segment index from the top bits of a hash.
+    private final long ttl; ///< Nanoseconds an entry lives, or 0 for no expiry.
+    private final int capacity; ///< Total number of entries.
+
+    /**
+     * Constructor for the IdempotencyCache class.
+     *
+     * @param capacity The maximum number of entries, at least 1.
+     * @param ttlNanos The nanoseconds an entry lives, or 0 for no expiry.
+     */
+    public IdempotencyCache(int capacity, long ttlNanos) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, capacity / 1024)));
+        int perSegment = (capacity + count - 1) / count;
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        ttl = Math.max(0, ttlNanos);
+        this.capacity = perSegment * count;
+    }
+
+    /**
+     * Gets the outcome recorded for a key and marks it as recently used.
+     *
+     * @param key The request key.
+     * @return The recorded result, or MISSING if the key is unknown or its entry expired.
+     */
+    public long get(long key) {
+        long hash = mix(key);
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            long result = segment.lookup(key, hash, SimulationClock.nanoTime());
+            if (result == MISSING) {
+                segment.misses++;
+            } else {
+                segment.hits++;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Records the outcome of a key unless one is already recorded.
+     * Callers run the operation first and then record it; if another caller recorded
+     * the same key meanwhile, they undo their own execution and use the returned result.
+     *
+     * @param key The request key.
+     * @param result The outcome to record; must not be MISSING.
+     * @return MISSING if the result was recorded, otherwise the result recorded before.
+     */
+    public long putIfAbsent(long key, long result) {
+        if (result == MISSING) {
+            throw new IllegalArgumentException("MISSING cannot be recorded");
+        }
+        long hash = mix(key);
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            long now = SimulationClock.nanoTime();
+            long recorded = segment.lookup(key, hash, now);
+            if (recorded != MISSING) {
+                segment.hits++;
+                return recorded;
+            }
+            segment.insert(key, hash, result, ttl == 0 ? Long.MAX_VALUE : now + ttl);
+            return MISSING;
+        }
+    }
+
+    /**
+     * Forgets a key if it still records the given result, e.g. an outcome that no longer holds.
+     *
+     * @param key The request key.
+     * @param result The result the caller read for the key.
+     * @return True if the entry was removed, false if the key records another result or none.
+     */
+    public boolean remove(long key, long result) {
+        long hash = mix(key);
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            int bucket = segment.find(key, hash);
+            if (bucket < 0 || segment.results[segment.table[bucket] - 1] != result) {
+                return false;
+            }
+            segment.remove(bucket, segment.table[bucket] - 1);
+            return true;
+        }
+    }
+
+    /**
+     * Gets the number of live or not yet purged entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of entries, rounded up to a multiple of the segment count.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the memory held by the entry and hash table arrays.
+     *
+     * @return The footprint in bytes, fixed at construction.
+     */
+    public long footprintBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.footprintBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Generates a one-line summary of the cache activity.
+     *
+     * @param name The operations the cache deduplicates.
+     * @return The summary.
+     */
+    public String summary(String name) {
+        long hits = 0, misses = 0, evictions = 0, expirations = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+                misses += segment.misses;
+                evictions += segment.evictions;
+                expirations += segment.expirations;
+            }
+        }
+        return String.format("\nIdempotency %s (capacity %d, %.1f MB): entries=%d hits=%d misses=%d evictions=%d expirations=%d\n",
+                name, capacity, footprintBytes() / 1e6, size(), hits, misses, evictions, expirations);
+    }
+
+    private Segment segmentOf(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * Spreads the key bits over the whole long (MurmurHash3 64-bit finalizer).
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Fixed-size part of the cache. Every method is called holding its monitor.
+     */
+    private static final class Segment {
+        final long[] keys; ///< Key of each slot.
+        final long[] results; ///< Result of each slot.
+        final long[] expires; ///< Expiry time of each slot.
+        final int[] newer; ///< Next more recently used slot, or NONE; next free slot for free slots.
+        final int[] older; ///< Next less recently used slot, or NONE.
+        final int[] table; ///< Hash table of slot + 1, 0 for an empty bucket.
+        final int mask; ///< Hash table size - 1.
+        int newest = NONE; ///< Most recently used slot.
+        int oldest = NONE; ///< Least recently used slot, evicted first.
+        int free = NONE; ///< First slot freed by an expiry.
+        int used; ///< Slots handed out from the end of the arrays so far.
+        int size; ///< Number of entries.
+        long hits, misses, evictions, expirations; ///< Activity counters; a hit is a lookup or a retried record finding a live entry.
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            results = new long[capacity];
+            expires = new long[capacity];
+            newer = new int[capacity];
+            older = new int[capacity];
+            // Two buckets per entry keep the probe runs short
+            table = new int[Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1];
+            mask = table.length - 1;
+        }
+
+        /**
+         * Gets the result of a live entry and marks it as most recently used; removes an expired one.
+         */
+        long lookup(long key, long hash, long now) {
+            int bucket = find(key, hash);
+            if (bucket < 0) {
+                return MISSING;
+            }
+            int slot = table[bucket] - 1;
+            if (expires[slot] <= now) {
+                remove(bucket, slot);
+                expirations++;
+                return MISSING;
+            }
+            unlink(slot);
+            linkNewest(slot);
+            return results[slot];
+        }
+
+        void insert(long key, long hash, long result, long expiry) {
+            int slot;
+            if (free != NONE) {
+                slot = free;
+                free = newer[slot];
+            } else if (used < keys.length) {
+                slot = used++;
+            } else {
+                slot = oldest;
+                remove(find(keys[slot], mix(keys[slot])), slot);
+                evictions++;
+                free = newer[slot];
+            }
+            keys[slot] = key;
+            results[slot] = result;
+            expires[slot] = expiry;
+            linkNewest(slot);
+            int bucket = (int) hash & mask;
+            while (table[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = slot + 1;
+            size++;
+        }
+
+        /**
+         * Gets the bucket holding a key.
+         *
+         * @return The bucket, or -1 if the key is not in the table.
+         */
+        int find(long key, long hash) {
+            int bucket = (int) hash & mask;
+            while (table[bucket] != 0) {
+                if (keys[table[bucket] - 1] == key) {
+                    return bucket;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Removes an entry and puts its slot on the free list.
+         */
+        void remove(int bucket, int slot) {
+            unlink(slot);
+            newer[slot] = free;
+            free = slot;
+            size--;
+            // Shift back the rest of the probe run so lookups never stop at the hole
+            int hole = bucket;
+            int next = (hole + 1) & mask;
+            while (table[next] != 0) {
+                int home = (int) mix(keys[table[next] - 1]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    table[hole] = table[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            table[hole] = 0;
+        }
+
+        void unlink(int slot) {
+            int n = newer[slot];
+            int o = older[slot];
+            if (n != NONE) {
+                older[n] = o;
+            } else {
+                newest = o;
+            }
+            if (o != NONE) {
+                newer[o] = n;
+            } else {
+                oldest = n;
+            }
+        }
+
+        void linkNewest(int slot) {
+            newer[slot] = NONE;
+            older[slot] = newest;
+            if (newest != NONE) {
+                newer[newest] = slot;
+            } else {
+                oldest = slot;
+            }
+            newest = slot;
+        }
+
+        long footprintBytes() {
+            return (long) keys.length * (3L * Long.BYTES + 2L * Integer.BYTES) + (long) table.length * Integer.BYTES;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    InventoryFormat.java
+ * @brief   Enum representing the record layouts of an inventory file.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The InventoryFormat enum names the layouts the InventoryImporter reads. Every
+ * line is one seat: flight ID, row (from 1), seat (a number from 1 or a letter
+ * from A), class (FIRST, BUSINESS, ECONOMY or their initial) and initial status
+ * (AVAILABLE, OCCUPIED, UNAVAILABLE or their initial).
+ * - CSV: The five fields separated by commas. Blank lines, lines starting with '#'
+ *   and a header line are skipped.
+ * - FIXED_WIDTH: The five fields at fixed columns, padded with spaces: flight in
+ *   characters 1-8, row in 9-12, seat in 13-15, class in 16 and status in 17.
+ *   Blank lines and lines starting with '#' are skipped.
+ */
+public enum InventoryFormat {
+    CSV,          ///< Comma-separated fields.
+    FIXED_WIDTH   ///< Fields at fixed character positions.
+}
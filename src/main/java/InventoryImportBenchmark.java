@@ -0,0 +1,100 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    InventoryImportBenchmark.java
+ * @brief   Generates a flight schedule inventory file and times its import.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The InventoryImportBenchmark class writes a temporary inventory file with the
+ * requested number of flights (2 FIRST rows, 5 BUSINESS rows, the rest ECONOMY,
+ * seats lettered from A, a share of them OCCUPIED) and times the
+ * InventoryImporter building every seat map from it, with LAZY seat map rows.
+ * It checks that the imported flights and available seats match the file.
+ * Run it with: gradle inventoryImportBenchmark --args="<flights> <rows> <columns> <occupied%> <CSV|FIXED_WIDTH> <chunkSize>"
+ */
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+public class InventoryImportBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Flights (100000), rows (30), columns (6), percentage of OCCUPIED seats (10)
+     *             format (CSV) and chunk size in bytes (InventoryImporter.DEFAULT_CHUNK_SIZE).
+     * @throws IOException If the file cannot be written or imported.
+     */
+    public static void main(String[] args) throws IOException {
+        int flights = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int occupiedPercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        InventoryFormat format = args.length > 4 ? InventoryFormat.valueOf(args[4]) : InventoryFormat.CSV;
+        int chunkSize = args.length > 5 ? Integer.parseInt(args[5]) : InventoryImporter.DEFAULT_CHUNK_SIZE;
+
+        Path file = Files.createTempFile("inventory", ".txt");
+        try {
+            long available = write(file, format, flights, rows, columns, occupiedPercent);
+            long bytes = Files.size(file);
+            System.out.printf("%d flights, %d seats, %.1f MB %s%n", flights, (long) flights * rows * columns, bytes / 1e6, format);
+
+            Constants constants = new Constants();
+            constants.setSeatMapInitialization(SeatMapInitialization.LAZY);
+            FlightAvailabilityIndex index = new FlightAvailabilityIndex();
+            long start = System.nanoTime();
+            Map<Integer, SeatMap> imported = new InventoryImporter(constants, index, chunkSize).importInventory(file, format);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long importedAvailable = 0;
+            for (SeatMap seatMap : imported.values()) {
+                importedAvailable += seatMap.availableSeats();
+            }
+            System.out.printf("imported in %.2f s: %.0f seats/s, %.1f MB/s%n", seconds, flights * (double) rows * columns / seconds, bytes / 1e6 / seconds);
+            if (imported.size() != flights || importedAvailable != available) {
+                System.out.println("MISMATCH: " + imported.size() + " flights, " + importedAvailable + " available seats, expected " + available);
+                System.exit(1);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes the inventory file.
+     *
+     * @return The number of AVAILABLE seats written.
+     */
+    private static long write(Path file, InventoryFormat format, int flights, int rows, int columns, int occupiedPercent) throws IOException {
+        Random random = new Random(42);
+        long available = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            if (format == InventoryFormat.CSV) {
+                writer.write("flight,row,seat,class,status\n");
+            }
+            for (int flight = 1; flight <= flights; flight++) {
+                for (int row = 1; row <= rows; row++) {
+                    char seatClass = row <= 2 ? 'F' : row <= 7 ? 'B' : 'E';
+                    for (int column = 0; column < columns; column++) {
+                        boolean occupied = random.nextInt(100) < occupiedPercent;
+                        if (!occupied) {
+                            available++;
+                        }
+                        char seat = (char) ('A' + column);
+                        char status = occupied ? 'O' : 'A';
+                        if (format == InventoryFormat.CSV) {
+                            writer.write(flight + "," + row + "," + seat + "," + seatClass + "," + status + "\n");
+                        } else {
+                            writer.write(String.format("%8d%4d%3s%c%c%n", flight, row, seat, seatClass, status));
+                        }
+                    }
+                }
+            }
+        }
+        return available;
+    }
+}
@@ -0,0 +1,507 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    InventoryImporter.java
+ * @brief   Streaming parallel importer building seat maps from inventory files.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The InventoryImporter class reads a schedule of flights, one seat per line in
+ * an InventoryFormat, and builds one SeatMap per flight sized after its records
+ * instead of Constants.getRows() and getColumns().
+ * The file is split into chunks that are parsed in parallel. Each chunk is read
+ * with positional FileChannel reads into a small buffer, so the file is never
+ * held in memory. A chunk owns the lines that start inside it. Lines are parsed
+ * in place from the bytes, without creating Strings.
+ * The records of a flight must be contiguous, as in any export sorted by flight.
+ * A chunk builds the seat map of a flight as soon as the flight's records end, and
+ * keeps only the flight being parsed. The first and last flight of a chunk may
+ * continue in a neighbouring chunk, so their records are merged and built once all
+ * chunks are parsed.
+ * The class of each row comes from its records: FIRST rows first, then BUSINESS,
+ * then ECONOMY. Seats missing from the file become UNAVAILABLE. A seat listed twice,
+ * or a flight whose rows and seats would exceed the seat IDs a seat map can hold,
+ * is reported with the byte offset of the record.
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+public class InventoryImporter {
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20; ///< Bytes of the file per parallel task.
+
+    private static final int BLOCK_SIZE = 256 << 10; ///< Bytes per read of a chunk.
+    private static final int MAX_LINE = 256; ///< Longest accepted line, in bytes.
+    private static final int MAX_ROW = (1 << 24) - 1; ///< Largest row a record can hold.
+    private static final int MAX_SEAT = (1 << 16) - 1; ///< Largest seat a record can hold.
+    private static final long MAX_SEATS = Integer.MAX_VALUE - 8; ///< Most seats of a flight: seat IDs are ints and arrays are indexed by them.
+
+    private final Constants constants; ///< Settings copied into the constants of every flight.
+    private final FlightAvailabilityIndex index; ///< Index the seat maps register in, or null.
+    private final int chunkSize; ///< Bytes of the file per parallel task.
+
+    /**
+     * Constructor for the InventoryImporter class.
+     *
+     * @param constants Settings of the seat maps (initialization, optimistic mode); the sizes come from the file.
+     * @param index The index the seat maps register in, or null.
+     */
+    public InventoryImporter(Constants constants, FlightAvailabilityIndex index) {
+        this(constants, index, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor for the InventoryImporter class.
+     *
+     * @param constants Settings of the seat maps (initialization, optimistic mode); the sizes come from the file.
+     * @param index The index the seat maps register in, or null.
+     * @param chunkSize Bytes of the file per parallel task.
+     */
+    public InventoryImporter(Constants constants, FlightAvailabilityIndex index, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        this.constants = constants;
+        this.index = index;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports an inventory file.
+     *
+     * @param path The file.
+     * @param format The layout of its lines.
+     * @return The seat map of every flight, by flight ID.
+     * @throws IOException If the file cannot be read or a record is malformed.
+     */
+    public Map<Integer, SeatMap> importInventory(Path path, InventoryFormat format) throws IOException {
+        Map<Integer, SeatMap> flights = new ConcurrentHashMap<>();
+        Map<Integer, FlightRecords> partials = new ConcurrentHashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            int chunks = (int) Math.max(1, (fileSize + chunkSize - 1) / chunkSize);
+            try {
+                IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                    long start = (long) chunk * chunkSize;
+                    long end = Math.min(fileSize, start + chunkSize);
+                    try {
+                        new ChunkParser(format, flights, partials).parse(channel, start, end, fileSize);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                // Build the flights that crossed a chunk boundary
+                partials.values().parallelStream().forEach(records -> {
+                    try {
+                        add(flights, records);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Builds the seat map of a flight whose records are complete and adds it to the result.
+     */
+    private void add(Map<Integer, SeatMap> flights, FlightRecords records) throws IOException {
+        SeatMap seatMap = records.build();
+        if (flights.putIfAbsent(records.flightId, seatMap) != null) {
+            throw new IOException("The records of flight " + records.flightId + " are not contiguous");
+        }
+    }
+
+    /**
+     * Parses the lines starting in one chunk of the file.
+     */
+    private final class ChunkParser {
+        private final InventoryFormat format;
+        private final Map<Integer, SeatMap> flights;
+        private final Map<Integer, FlightRecords> partials;
+        private final byte[] line = new byte[MAX_LINE];
+        private final int[] bounds = new int[10]; ///< Start and end of each CSV field of the line.
+        private FlightRecords current; ///< Records of the flight being parsed, or null.
+        private boolean firstFlight = true; ///< Whether current is the first flight of the chunk.
+
+        ChunkParser(InventoryFormat format, Map<Integer, SeatMap> flights, Map<Integer, FlightRecords> partials) {
+            this.format = format;
+            this.flights = flights;
+            this.partials = partials;
+        }
+
+        /**
+         * Parses every line whose first byte is in [start, end). A chunk other than
+         * the first skips the line that started before it; the last line may run past end.
+         */
+        void parse(FileChannel channel, long start, long end, long fileSize) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+            byte[] bytes = buffer.array();
+            long position = start == 0 ? 0 : start - 1;
+            boolean skipping = start != 0;
+            long lineStart = start;
+            int length = 0;
+            reading:
+            while (position < fileSize) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = bytes[i];
+                    if (skipping) {
+                        if (b == '\n') {
+                            skipping = false;
+                            lineStart = position + i + 1;
+                            if (lineStart >= end) {
+                                break reading;
+                            }
+                        }
+                    } else if (b == '\n') {
+                        parseLine(length, lineStart);
+                        length = 0;
+                        lineStart = position + i + 1;
+                        if (lineStart >= end) {
+                            break reading;
+                        }
+                    } else if (b != '\r') {
+                        if (length == MAX_LINE) {
+                            throw malformed(lineStart, "line longer than " + MAX_LINE + " bytes");
+                        }
+                        line[length++] = b;
+                    }
+                }
+                position += read;
+            }
+            if (!skipping && length > 0) {
+                // Last line of the file, without a line break
+                parseLine(length, lineStart);
+            }
+            if (current != null) {
+                partial(current);
+            }
+        }
+
+        /**
+         * Parses one line and adds its record to the flight being parsed.
+         */
+        private void parseLine(int length, long offset) throws IOException {
+            int from = skipSpaces(0, length);
+            if (from == length || line[from] == '#') {
+                return;
+            }
+            int flightId;
+            int row;
+            int seat;
+            int seatClass;
+            int status;
+            if (format == InventoryFormat.CSV) {
+                if (!isDigit(line[from])) {
+                    // Header line
+                    return;
+                }
+                int field = 0;
+                int fieldStart = 0;
+                for (int i = 0; i <= length && field < 5; i++) {
+                    if (i == length || line[i] == ',') {
+                        bounds[field * 2] = fieldStart;
+                        bounds[field * 2 + 1] = i;
+                        field++;
+                        fieldStart = i + 1;
+                    }
+                }
+                if (field < 5) {
+                    throw malformed(offset, "expected 5 fields");
+                }
+                flightId = parseNumber(bounds[0], bounds[1], offset);
+                row = parseNumber(bounds[2], bounds[3], offset);
+                seat = parseSeat(bounds[4], bounds[5], offset);
+                seatClass = parseClass(bounds[6], bounds[7], offset);
+                status = parseStatus(bounds[8], bounds[9], offset);
+            } else {
+                if (length < 17) {
+                    throw malformed(offset, "expected 17 characters");
+                }
+                flightId = parseNumber(0, 8, offset);
+                row = parseNumber(8, 12, offset);
+                seat = parseSeat(12, 15, offset);
+                seatClass = parseClass(15, 16, offset);
+                status = parseStatus(16, 17, offset);
+            }
+            if (row < 1 || row > MAX_ROW || seat < 1 || seat > MAX_SEAT) {
+                throw malformed(offset, "row or seat out of range");
+            }
+
+            if (current == null || current.flightId != flightId) {
+                if (current != null) {
+                    finish(current);
+                }
+                current = new FlightRecords(flightId);
+            }
+            current.add(row, seat, seatClass, status, offset);
+        }
+
+        /**
+         * Builds a flight whose records ended inside the chunk, or keeps it for
+         * merging if it is the first flight of the chunk.
+         */
+        private void finish(FlightRecords records) throws IOException {
+            if (firstFlight) {
+                firstFlight = false;
+                partial(records);
+            } else {
+                add(flights, records);
+            }
+        }
+
+        /**
+         * Keeps the records of a flight that may continue in another chunk.
+         */
+        private void partial(FlightRecords records) {
+            partials.merge(records.flightId, records, FlightRecords::append);
+        }
+
+        private int skipSpaces(int from, int to) {
+            while (from < to && line[from] == ' ') {
+                from++;
+            }
+            return from;
+        }
+
+        private int trimEnd(int from, int to) {
+            while (to > from && line[to - 1] == ' ') {
+                to--;
+            }
+            return to;
+        }
+
+        private int parseNumber(int from, int to, long offset) throws IOException {
+            from = skipSpaces(from, to);
+            to = trimEnd(from, to);
+            if (from == to || to - from > 9) {
+                throw malformed(offset, "expected a number");
+            }
+            int value = 0;
+            for (int i = from; i < to; i++) {
+                if (!isDigit(line[i])) {
+                    throw malformed(offset, "expected a number");
+                }
+                value = value * 10 + (line[i] - '0');
+            }
+            return value;
+        }
+
+        private int parseSeat(int from, int to, long offset) throws IOException {
+            from = skipSpaces(from, to);
+            to = trimEnd(from, to);
+            if (to - from == 1 && line[from] >= 'A' && line[from] <= 'Z') {
+                return line[from] - 'A' + 1;
+            }
+            return parseNumber(from, to, offset);
+        }
+
+        private int parseClass(int from, int to, long offset) throws IOException {
+            from = skipSpaces(from, to);
+            switch (from < to ? line[from] : 0) {
+                case 'F':
+                    return SeatClass.FIRST.ordinal();
+                case 'B':
+                    return SeatClass.BUSINESS.ordinal();
+                case 'E':
+                    return SeatClass.ECONOMY.ordinal();
+                default:
+                    throw malformed(offset, "expected FIRST, BUSINESS or ECONOMY");
+            }
+        }
+
+        private int parseStatus(int from, int to, long offset) throws IOException {
+            from = skipSpaces(from, to);
+            switch (from < to ? line[from] : 0) {
+                case 'A':
+                    return SeatStatus.AVAILABLE.ordinal();
+                case 'O':
+                    return SeatStatus.OCCUPIED.ordinal();
+                case 'U':
+                    return SeatStatus.UNAVAILABLE.ordinal();
+                default:
+                    throw malformed(offset, "expected AVAILABLE, OCCUPIED or UNAVAILABLE");
+            }
+        }
+
+        private boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+    }
+
+    private static IOException malformed(long offset, String reason) {
+        return new IOException("Malformed inventory record at byte " + offset + ": " + reason);
+    }
+
+    /**
+     * Records of one flight, each packed in a long: row, seat, class and status,
+     * with the byte offset of its line in the file.
+     */
+    private final class FlightRecords {
+        final int flightId;
+        private long[] records = new long[64];
+        private long[] offsets = new long[64]; ///< Byte offset of the line of each record.
+        private int size;
+        private int rows; ///< Highest row of the records.
+        private int columns; ///< Highest seat of the records.
+
+        FlightRecords(int flightId) {
+            this.flightId = flightId;
+        }
+
+        void add(int row, int seat, int seatClass, int status, long offset) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size] = offset;
+            records[size++] = (long) row << 24 | (long) seat << 8 | seatClass << 4 | status;
+            rows = Math.max(rows, row);
+            columns = Math.max(columns, seat);
+        }
+
+        FlightRecords append(FlightRecords other) {
+            if (size + other.size > records.length) {
+                records = Arrays.copyOf(records, Math.max(records.length * 2, size + other.size));
+                offsets = Arrays.copyOf(offsets, records.length);
+            }
+            System.arraycopy(other.records, 0, records, size, other.size);
+            System.arraycopy(other.offsets, 0, offsets, size, other.size);
+            size += other.size;
+            rows = Math.max(rows, other.rows);
+            columns = Math.max(columns, other.columns);
+            return this;
+        }
+
+        /**
+         * Creates the seat map of the flight and applies the initial statuses.
+         */
+        SeatMap build() throws IOException {
+            if ((long) rows * columns > MAX_SEATS) {
+                throw malformed(oversizedOffset(), "flight " + flightId + " has more than " + MAX_SEATS + " seats");
+            }
+
+            // Class of every row; rows without records are ECONOMY
+            byte[] rowClasses = new byte[rows];
+            Arrays.fill(rowClasses, (byte) -1);
+            for (int i = 0; i < size; i++) {
+                int row = (int) (records[i] >>> 24) - 1;
+                byte seatClass = (byte) ((records[i] >>> 4) & 0xF);
+                if (rowClasses[row] != -1 && rowClasses[row] != seatClass) {
+                    throw new IOException("Row " + (row + 1) + " of flight " + flightId + " has seats of several classes");
+                }
+                rowClasses[row] = seatClass;
+            }
+            int firstClassRows = 0;
+            while (firstClassRows < rows && rowClasses[firstClassRows] == SeatClass.FIRST.ordinal()) {
+                firstClassRows++;
+            }
+            int businessClassRows = 0;
+            while (firstClassRows + businessClassRows < rows
+                    && rowClasses[firstClassRows + businessClassRows] == SeatClass.BUSINESS.ordinal()) {
+                businessClassRows++;
+            }
+            for (int row = firstClassRows + businessClassRows; row < rows; row++) {
+                if (rowClasses[row] != -1 && rowClasses[row] != SeatClass.ECONOMY.ordinal()) {
+                    throw new IOException("The classes of flight " + flightId + " are not in FIRST, BUSINESS, ECONOMY row order");
+                }
+            }
+
+            Constants flightConstants = new Constants();
+            flightConstants.setRows(rows);
+            flightConstants.setColumns(columns);
+            flightConstants.setFirstClassRows(firstClassRows);
+            flightConstants.setBusinessClassRows(businessClassRows);
+            flightConstants.setOptimisticSeatMap(constants.getOptimisticSeatMap());
+            flightConstants.setSeatMapInitialization(constants.getSeatMapInitialization());
+            SeatMap seatMap = new SeatMap(flightConstants, flightId, index);
+
+            boolean[] listed = new boolean[rows * columns + 1];
+            boolean changed = false;
+            for (int i = 0; i < size; i++) {
+                int row = (int) (records[i] >>> 24);
+                int seat = (int) ((records[i] >>> 8) & 0xFFFF);
+                int id = (row - 1) * columns + seat;
+                if (listed[id]) {
+                    throw malformed(duplicateOffset(row, seat), "row " + row + " seat " + seat + " of flight " + flightId + " listed twice");
+                }
+                listed[id] = true;
+                if ((records[i] & 0xF) == SeatStatus.OCCUPIED.ordinal()) {
+                    seatMap.getSeat(id).occupiedSeat();
+                    changed = true;
+                } else if ((records[i] & 0xF) == SeatStatus.UNAVAILABLE.ordinal()) {
+                    seatMap.getSeat(id).unavailableSeat();
+                    changed = true;
+                }
+            }
+            for (int id = 1; id < listed.length; id++) {
+                if (!listed[id]) {
+                    seatMap.getSeat(id).unavailableSeat();
+                    changed = true;
+                }
+            }
+            if (changed) {
+                seatMap.recountAvailableSeats();
+            }
+            return seatMap;
+        }
+
+        /**
+         * Finds the record at which the rows and seats seen so far in the file first exceed MAX_SEATS.
+         */
+        private long oversizedOffset() {
+            long maxRow = 0;
+            long maxSeat = 0;
+            for (int i : inFileOrder()) {
+                maxRow = Math.max(maxRow, records[i] >>> 24);
+                maxSeat = Math.max(maxSeat, (records[i] >>> 8) & 0xFFFF);
+                if (maxRow * maxSeat > MAX_SEATS) {
+                    return offsets[i];
+                }
+            }
+            return offsets[size - 1];
+        }
+
+        /**
+         * Finds the second record of a seat in the file.
+         */
+        private long duplicateOffset(int row, int seat) {
+            boolean seen = false;
+            for (int i : inFileOrder()) {
+                if (records[i] >>> 24 == row && ((records[i] >>> 8) & 0xFFFF) == seat) {
+                    if (seen) {
+                        return offsets[i];
+                    }
+                    seen = true;
+                }
+            }
+            return offsets[size - 1];
+        }
+
+        /**
+         * Gets the indexes of the records sorted by offset. The records of a flight split
+         * across chunks are appended in the order the chunks are merged, not in file order;
+         * only used to report an error.
+         */
+        private int[] inFileOrder() {
+            return IntStream.range(0, size).boxed()
+                    .sorted((a, b) -> Long.compare(offsets[a], offsets[b]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ItineraryBenchmark.java
+ * @brief   Measures all-or-nothing itinerary reservations on nearly sold-out flights.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ItineraryBenchmark class creates a set of small flights and lets several
+ * threads reserve itineraries over random distinct flights with an
+ * ItineraryReservation. Each thread keeps its last itineraries and cancels the
+ * oldest one when it holds too many, so together the threads hold most of the seats
+ * (90% by default) and keep contending for the last ones. Seats are only freed by
+ * committed itineraries, so holding every seat would leave nothing to commit.
+ * It runs once with the default (monitor) seat maps and once with optimistic ones,
+ * prints the throughput and the abort and retry counts, and checks that, after
+ * every itinerary was cancelled, no seat was leaked.
+ * Run it with: gradle itineraryBenchmark --args="<flights> <seats> <legs> <threads> <held> <seconds>"
+ */
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ItineraryBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Flights (8), seats per flight (60), legs per itinerary (3), threads (4),
+     *             itineraries held per thread (36) and seconds per run (2).
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int flights = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int legs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int held = args.length > 4 ? Integer.parseInt(args[4]) : 36;
+        double seconds = args.length > 5 ? Double.parseDouble(args[5]) : 2;
+        if (legs > flights) {
+            throw new IllegalArgumentException("An itinerary cannot have more legs than there are flights");
+        }
+
+        System.out.printf("%d flights x %d seats, %d legs, %d threads holding up to %d itineraries each (%d%% of the seats)%n",
+                flights, seats, legs, threads, held, (long) threads * held * legs * 100 / ((long) flights * seats));
+        for (boolean optimistic : new boolean[] {false, true}) {
+            run(flights, seats, legs, threads, held, seconds, optimistic);
+        }
+    }
+
+    private static void run(int flights, int seats, int legs, int threads, int held, double seconds, boolean optimistic)
+            throws InterruptedException {
+        Constants constants = new Constants();
+        constants.setRows(seats / constants.getColumns());
+        constants.setOptimisticSeatMap(optimistic);
+        SeatMap[] seatMaps = new SeatMap[flights];
+        for (int i = 0; i < flights; i++) {
+            seatMaps[i] = new SeatMap(constants, i, null);
+        }
+        ItineraryReservation itineraries = new ItineraryReservation(8);
+
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                SeatMap[][] heldLegs = new SeatMap[held][];
+                Seat[][] heldSeats = new Seat[held][];
+                int next = 0;
+                while (System.nanoTime() < deadline) {
+                    SeatMap[] itinerary = randomItinerary(seatMaps, legs, random);
+                    Seat[] reserved = itineraries.reserve(itinerary);
+                    if (reserved == null) {
+                        continue;
+                    }
+                    // Cancel the oldest held itinerary to make room for this one
+                    if (heldSeats[next] != null) {
+                        itineraries.release(heldLegs[next], heldSeats[next]);
+                    }
+                    heldLegs[next] = itinerary;
+                    heldSeats[next] = reserved;
+                    next = (next + 1) % held;
+                }
+                for (int i = 0; i < held; i++) {
+                    if (heldSeats[i] != null) {
+                        itineraries.release(heldLegs[i], heldSeats[i]);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (SeatMap seatMap : seatMaps) {
+            if (seatMap.availableSeats() != seatMap.size()) {
+                throw new IllegalStateException("Flight " + seatMap.getFlightId() + " leaked "
+                        + (seatMap.size() - seatMap.availableSeats()) + " seats");
+            }
+            for (int id = 1; id <= seatMap.size(); id++) {
+                if (seatMap.getSeat(id).getStatus() != SeatStatus.AVAILABLE) {
+                    throw new IllegalStateException("Seat " + id + " of flight " + seatMap.getFlightId() + " is still reserved");
+                }
+            }
+        }
+        System.out.printf("%s seat maps: %.0f itineraries/s, no seat leaked%s",
+                optimistic ? "optimistic" : "monitor", itineraries.commits() / seconds, itineraries.summary());
+    }
+
+    /**
+     * Picks distinct random flights.
+     */
+    private static SeatMap[] randomItinerary(SeatMap[] seatMaps, int legs, ThreadLocalRandom random) {
+        SeatMap[] itinerary = new SeatMap[legs];
+        for (int i = 0; i < legs; i++) {
+            SeatMap leg;
+            boolean repeated;
+            do {
+                leg = seatMaps[random.nextInt(seatMaps.length)];
+                repeated = false;
+                for (int j = 0; j < i; j++) {
+                    repeated |= itinerary[j] == leg;
+                }
+            } while (repeated);
+            itinerary[i] = leg;
+        }
+        return itinerary;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ItineraryReservation.java
+ * @brief   Reserves one seat on each flight of an itinerary, all or nothing.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ItineraryReservation class claims the legs of a connecting itinerary
+ * optimistically: it reserves a seat on each SeatMap with the map's own
+ * reserve(), which holds at most that map's monitor and only for the one seat,
+ * and if a leg is sold out it releases the seats already claimed, in reverse
+ * order, and aborts the attempt. No lock is ever held across legs, so there is no
+ * lock ordering to get wrong and no map is blocked while another is searched.
+ * The legs are claimed scarcest first (fewest available seats), so a doomed
+ * attempt usually fails on its first leg, before anything has to be rolled back.
+ * An aborted attempt is retried while the failed leg has seats again, which
+ * happens when a concurrent itinerary rolled back its claim on that flight, up
+ * to the configured number of attempts.
+ * Claimed seats are OCCUPIED like any reserved seat; a committed itinerary is
+ * handed on by the caller, e.g. to each flight's pending payment list.
+ * Counters are LongAdders, so counting does not become a contention point itself.
+ */
+import java.util.concurrent.atomic.LongAdder;
+
+public class ItineraryReservation {
+    private final int maxAttempts; ///< Attempts per itinerary before giving up.
+    private final LongAdder attempts = new LongAdder(); ///< Attempts started.
+    private final LongAdder commits = new LongAdder(); ///< Itineraries with every leg claimed.
+    private final LongAdder aborts = new LongAdder(); ///< Attempts stopped by a sold-out leg.
+    private final LongAdder failures = new LongAdder(); ///< Itineraries given up.
+    private final LongAdder rolledBack = new LongAdder(); ///< Seats released by aborted attempts.
+
+    /**
+     * Constructor for the ItineraryReservation class.
+     *
+     * @param maxAttempts The attempts per itinerary before giving up, at least 1.
+     */
+    public ItineraryReservation(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Reserves one seat on every leg, or none.
+     *
+     * @param legs The seat maps of the flights of the itinerary, each at most once.
+     * @return The reserved seat of each leg, in the order of the legs, or null if a leg
+     *         stayed sold out; then no seat of the itinerary is left reserved.
+     */
+    public Seat[] reserve(SeatMap... legs) {
+        int[] order = scarcestFirst(legs);
+        Seat[] seats = new Seat[legs.length];
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            attempts.increment();
+            int claimed = 0;
+            while (claimed < order.length) {
+                Seat seat = legs[order[claimed]].reserve();
+                if (seat == null) {
+                    break;
+                }
+                seats[order[claimed]] = seat;
+                claimed++;
+            }
+            if (claimed == order.length) {
+                commits.increment();
+                return seats;
+            }
+
+            // Roll back in reverse claim order
+            SeatMap soldOut = legs[order[claimed]];
+            for (int i = claimed - 1; i >= 0; i--) {
+                legs[order[i]].release(seats[order[i]]);
+                seats[order[i]] = null;
+            }
+            rolledBack.add(claimed);
+            aborts.increment();
+            if (soldOut.availableSeats() == 0) {
+                // Nobody released a seat of the failed leg meanwhile
+                break;
+            }
+            Thread.yield();
+        }
+        failures.increment();
+        return null;
+    }
+
+    /**
+     * Releases every seat of a committed itinerary, e.g. when it is cancelled.
+     *
+     * @param legs The seat maps the itinerary was reserved on.
+     * @param seats The seats returned by reserve().
+     */
+    public void release(SeatMap[] legs, Seat[] seats) {
+        for (int i = legs.length - 1; i >= 0; i--) {
+            legs[i].release(seats[i]);
+        }
+    }
+
+    /**
+     * Orders the legs by available seats, fewest first.
+     */
+    private static int[] scarcestFirst(SeatMap[] legs) {
+        int[] order = new int[legs.length];
+        int[] available = new int[legs.length];
+        for (int i = 0; i < legs.length; i++) {
+            int seats = legs[i].availableSeats();
+            int j = i;
+            // Insertion sort: itineraries have a handful of legs
+            while (j > 0 && available[j - 1] > seats) {
+                order[j] = order[j - 1];
+                available[j] = available[j - 1];
+                j--;
+            }
+            order[j] = i;
+            available[j] = seats;
+        }
+        return order;
+    }
+
+    /**
+     * Gets the number of committed itineraries.
+     *
+     * @return The commits.
+     */
+    public long commits() {
+        return commits.sum();
+    }
+
+    /**
+     * Gets the number of aborted attempts.
+     *
+     * @return The aborts.
+     */
+    public long aborts() {
+        return aborts.sum();
+    }
+
+    /**
+     * Gets the number of seats released by aborted attempts.
+     *
+     * @return The rolled back seats.
+     */
+    public long rolledBack() {
+        return rolledBack.sum();
+    }
+
+    /**
+     * Generates a summary of the itinerary reservations.
+     *
+     * @return The counts of attempts, commits, aborts, failures and rolled back seats.
+     */
+    public String summary() {
+        long started = attempts.sum();
+        return String.format("\nItineraries: attempts=%d commits=%d aborts=%d (%.2f%%) retries=%d failures=%d rolled back seats=%d\n",
+                started, commits.sum(), aborts.sum(), started == 0 ? 0.0 : aborts.sum() * 100.0 / started,
+                started - commits.sum() - failures.sum(), failures.sum(), rolledBack.sum());
+    }
+}
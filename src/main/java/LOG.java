@@ -18,6 +18,7 @@
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Paths;
 
 public class LOG extends Thread {
     public String filePath; // Path to the log file
@@ -26,6 +27,10 @@ public class LOG extends Thread {
     private VerifiedReservations verifiedReservations; // List of verified reservations
     private CancelledReservations cancelledReservations; // List of canceled reservations
     private SeatMap seatMap; // Seat map of the flight reservation system
+    private SeatReadModel readModel; // Read model of the seat event log, or null to count the lists
+    private SeatStateExporter exporter; // Exporter of the seat state, or null
+    private long lastExport; // Time of the last export, in milliseconds since the start
+    private IOException exportFailure; // First export error, reported when the thread ends; no export is tried after it
 
     /**
      * Constructor to initialize the LOG class with necessary parameters.
@@ -47,6 +52,26 @@ public class LOG extends Thread {
         this.seatMap = seatMap;
     }
 
+    /**
+     * Answers the counts and seat IDs from the read model of the seat event log
+     * instead of walking the reservation lists.
+     *
+     * @param readModel The read model.
+     */
+    public void setReadModel(SeatReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    /**
+     * Exports the seat state every Constants.getExportInterval() milliseconds and
+     * when the run ends, to the columnar and CSV files named after Constants.getExportPath().
+     *
+     * @param exporter The exporter.
+     */
+    public void setExporter(SeatStateExporter exporter) {
+        this.exporter = exporter;
+    }
+
     /**
      * Run method executed by the log thread.
      * It writes log information periodically to the log file.
@@ -64,6 +89,9 @@ public class LOG extends Thread {
             while (constants.getGlobalFlag()) {
                 // Write the log information
                 buffer.write(infoLog());
+                if (System.currentTimeMillis() - startTime - lastExport >= constants.getExportInterval()) {
+                    export();
+                }
                 try {
                     sleep(constants.getLogTime());
                 } catch (InterruptedException e) {
@@ -71,6 +99,9 @@ public class LOG extends Thread {
                 }
             }
 
+            // Export the final seat state
+            export();
+
             // Write the final seat map and duration of the log thread
             buffer.write(seatMap.printMatrix());
             time = System.currentTimeMillis() - startTime;
@@ -86,9 +117,30 @@ public class LOG extends Thread {
         } catch (IOException e) {
             System.out.println("\nError writing to file: " + e.getMessage());
         }
+        if (exportFailure != null) {
+            System.out.println("\nError writing the export: " + exportFailure.getMessage());
+        }
         System.out.println("LOG thread ended, duration: " + time);
     }
 
+    /**
+     * Exports the seat state, if an exporter is set and no export failed yet.
+     * A write error is kept, to be reported when the thread ends, instead of
+     * stopping the log.
+     */
+    private void export() {
+        if (exporter == null || exportFailure != null) {
+            return;
+        }
+        lastExport = System.currentTimeMillis() - startTime;
+        try {
+            exporter.exportColumns(Paths.get(constants.getExportPath() + ".seats"));
+            exporter.exportCsv(Paths.get(constants.getExportPath() + ".csv"));
+        } catch (IOException e) {
+            exportFailure = e;
+        }
+    }
+
     /**
      * Generates a string with the current log information.
      *
@@ -96,6 +148,11 @@ public class LOG extends Thread {
      */
     public String infoLog() {
         String infoLog = "\n Current time: " + (System.currentTimeMillis() - startTime);
+        if (readModel != null) {
+            infoLog += "\n Number of canceled reservations: " + readModel.cancellations();
+            infoLog += "\n Number of verified reservations: " + readModel.count(Transition.VERIFIED);
+            return infoLog;
+        }
         infoLog += "\n Number of canceled reservations: " + cancelledReservations.size();
         infoLog += "\n Number of verified reservations: " + verifiedReservations.size();
         return infoLog;
@@ -109,17 +166,29 @@ public class LOG extends Thread {
     public String asientosDeRegistros() {
         StringBuilder recordEntries = new StringBuilder();
 
+        if (readModel != null) {
+            int[] verifiedIds = readModel.verifiedIds();
+            recordEntries.append("\nVerified reservations: ");
+            recordEntries.append("Size = ").append(verifiedIds.length).append("\n");
+            for (int seatId : verifiedIds) {
+                recordEntries.append(seatId).append(" - ");
+            }
+
+            recordEntries.append("\nCanceled Reservations: ");
+            recordEntries.append("Size = ").append(readModel.cancellations()).append("\n");
+            for (int seatId : readModel.cancelledIds()) {
+                recordEntries.append(seatId).append(" - ");
+            }
+            return recordEntries.toString();
+        }
+
         recordEntries.append("\nVerified reservations: ");
         recordEntries.append("Size = ").append(verifiedReservations.size()).append("\n");
-        for (Seat seat : verifiedReservations.getVerifiedReservations()) {
-            recordEntries.append(seat.getId()).append(" - ");
-        }
+        verifiedReservations.forEachId(seatId -> recordEntries.append(seatId).append(" - "));
 
         recordEntries.append("\nCanceled Reservations: ");
         recordEntries.append("Size = ").append(cancelledReservations.size()).append("\n");
-        for (Seat seat : cancelledReservations.getCancelledReservations()) {
-            recordEntries.append(seat.getId()).append(" - ");
-        }
+        cancelledReservations.forEachId(seatId -> recordEntries.append(seatId).append(" - "));
 
         return recordEntries.toString();
     }
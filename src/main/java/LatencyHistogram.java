@@ -0,0 +1,162 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    LatencyHistogram.java
+ * @brief   Fixed-size log-linear histogram of non-negative durations.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The LatencyHistogram class counts values in buckets that are exact below 64
+ * and split every power of two into 32 sub-buckets above it, so percentiles are
+ * accurate to about 3% over the whole range of a long. Recording is a single
+ * array increment and never allocates. Instances are not thread-safe: each thread
+ * or task records into its own histogram and the results are merged.
+ */
+import java.util.Arrays;
+
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 64; ///< Values below this are counted exactly.
+    private static final int SUB_BUCKETS = 32; ///< Sub-buckets per power of two above LINEAR_BUCKETS.
+    private static final int BUCKETS = LINEAR_BUCKETS + 57 * SUB_BUCKETS; ///< Enough for Long.MAX_VALUE.
+
+    private final long[] counts = new long[BUCKETS]; ///< Number of values per bucket.
+    private long count; ///< Number of recorded values.
+    private long sum; ///< Sum of the recorded values.
+    private long max; ///< Largest recorded value.
+
+    /**
+     * Constructor for the LatencyHistogram class.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value to record, usually nanoseconds.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one.
+     *
+     * @param other The histogram to merge.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The number of recorded values.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the recorded values.
+     *
+     * @return The sum, or 0 if nothing was recorded.
+     */
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return The largest value, or 0 if nothing was recorded.
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket holding the percentile (never above max()),
+     *         or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Generates a one-line summary with the count, mean, main percentiles and max,
+     * with values converted from nanoseconds to milliseconds.
+     *
+     * @return The summary.
+     */
+    public String summaryMillis() {
+        return String.format("n=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                count, mean() / 1e6, percentile(50) / 1e6, percentile(90) / 1e6,
+                percentile(99) / 1e6, percentile(99.9) / 1e6, max / 1e6);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 5;
+        int top = (int) (value >>> shift);
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int k = bucket - LINEAR_BUCKETS;
+        int shift = k / SUB_BUCKETS + 1;
+        long top = k % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((top + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
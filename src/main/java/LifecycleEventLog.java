@@ -0,0 +1,113 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    LifecycleEventLog.java
+ * @brief   Append-only log of seat lifecycle events in preallocated primitive arrays.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The LifecycleEventLog class records every transition reported by the reservation
+ * records as (seat ID, transition, SimulationClock.nanoTime()) in three parallel arrays sized
+ * once at construction: 13 bytes per event and no allocation per event. Stage threads
+ * claim a slot with a single atomic increment; events beyond the capacity are counted
+ * as dropped. SeatAnalytics reads the log after the run.
+ */
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LifecycleEventLog implements TransitionListener {
+    private final int[] seatIds; ///< Seat ID of each event.
+    private final byte[] transitions; ///< Transition ordinal of each event.
+    private final long[] timestamps; ///< SimulationClock.nanoTime() of each event.
+    private final AtomicInteger next = new AtomicInteger(); ///< Next free slot; may run past the capacity.
+
+    /**
+     * Constructor for the LifecycleEventLog class.
+     *
+     * @param capacity The maximum number of events kept.
+     */
+    public LifecycleEventLog(int capacity) {
+        seatIds = new int[capacity];
+        transitions = new byte[capacity];
+        timestamps = new long[capacity];
+    }
+
+    /**
+     * Records the transition with the current time.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    @Override
+    public void onTransition(Seat seat, Transition transition) {
+        append(seat.getId(), transition, SimulationClock.nanoTime());
+    }
+
+    /**
+     * Records an event, for example when loading events recorded elsewhere.
+     *
+     * @param seatId The ID of the seat.
+     * @param transition The transition made.
+     * @param timestamp The SimulationClock.nanoTime() of the transition.
+     * @return True if the event was recorded, false if the log is full.
+     */
+    public boolean append(int seatId, Transition transition, long timestamp) {
+        int slot = next.getAndIncrement();
+        if (slot >= seatIds.length || slot < 0) {
+            // Keep the counter from wrapping around after billions of dropped events
+            next.set(seatIds.length + 1);
+            return false;
+        }
+        seatIds[slot] = seatId;
+        transitions[slot] = (byte) transition.ordinal();
+        timestamps[slot] = timestamp;
+        return true;
+    }
+
+    /**
+     * Gets the number of recorded events.
+     * Read it once the stage threads have stopped to see every event completely written.
+     *
+     * @return The number of recorded events.
+     */
+    public int size() {
+        return Math.min(next.get(), seatIds.length);
+    }
+
+    /**
+     * Returns whether events were dropped because the log was full.
+     *
+     * @return True if at least one event was dropped.
+     */
+    public boolean overflowed() {
+        return next.get() > seatIds.length;
+    }
+
+    /**
+     * Gets the seat ID of an event.
+     *
+     * @param index The index of the event, in recording order.
+     * @return The seat ID.
+     */
+    public int seatId(int index) {
+        return seatIds[index];
+    }
+
+    /**
+     * Gets the transition ordinal of an event.
+     *
+     * @param index The index of the event, in recording order.
+     * @return The ordinal of the Transition.
+     */
+    public int transition(int index) {
+        return transitions[index];
+    }
+
+    /**
+     * Gets the timestamp of an event.
+     *
+     * @param index The index of the event, in recording order.
+     * @return The SimulationClock.nanoTime() of the event.
+     */
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+}
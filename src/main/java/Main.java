@@ -13,8 +13,12 @@
  * All rights reserved.
  */
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 // TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
 
@@ -33,100 +37,343 @@ public class Main {
          */
         Constants constants = new Constants();
 
+        // A simulation measures every time on the virtual clock, so start it before creating the system.
+        if (constants.getSimulation()) {
+            SimulationClock.startVirtual();
+            SeatTrace.setEnabled(false);
+        }
+
         /**
          * @brief SeatMap: Class where the seat map is initialized.
          */
-        SeatMap seatMap = new SeatMap(constants);
+        SeatMap seatMap;
+        SharedSeatInventory sharedInventory = null;
+        if (constants.getSharedInventoryPath() != null) {
+            try {
+                sharedInventory = new SharedSeatInventory(Paths.get(constants.getSharedInventoryPath()), constants.getRows(), constants.getColumns());
+            } catch (IOException e) {
+                System.out.println("\nError opening the shared inventory: " + e.getMessage());
+                return;
+            }
+            if (sharedInventory.reclaimed() > 0) {
+                System.out.print("\nShared inventory: reclaimed " + sharedInventory.reclaimed() + " seats held by processes that ended\n");
+            }
+            seatMap = new SeatMap(constants, sharedInventory);
+        } else {
+            seatMap = new SeatMap(constants);
+        }
 
         // Initialize the different reservation lists.
-        PendingPaymentReservations pendingPaymentReservations = new PendingPaymentReservations();
-        ConfirmedReservations confirmedReservations = new ConfirmedReservations();
-        CancelledReservations cancelledReservations = new CancelledReservations();
-        VerifiedReservations verifiedReservations = new VerifiedReservations();
+        PendingPaymentReservations pendingPaymentReservations = new PendingPaymentReservations(constants);
+        ConfirmedReservations confirmedReservations = new ConfirmedReservations(constants);
+        CancelledReservations cancelledReservations = new CancelledReservations(constants);
+        VerifiedReservations verifiedReservations = new VerifiedReservations(constants);
 
-        // Start time counting.
-        long startTime = System.currentTimeMillis();
+        // Listeners notified of every seat transition.
+        List<TransitionListener> transitionListeners = new ArrayList<>();
 
-        // Initializes a list to gather the threads.
-        List<Thread> allThreads = new ArrayList<>();
+        // Holds a full pending list rejects or sheds go back to the seat map; paid seats a full confirmed list leaves out are cancelled.
+        pendingPaymentReservations.setSeatMap(seatMap);
+        confirmedReservations.setOverflow(cancelledReservations);
 
-        // Initialize Reservation Process threads
-        for (int i = 0; i < constants.getNumReservationProcesses(); i++) {
-            ReservationProcess reservationProcess = new ReservationProcess(constants, seatMap, pendingPaymentReservations);
-            Thread thread = new Thread(reservationProcess, "reservationProcess" + (i + 1));
-            allThreads.add(thread);
-            thread.start();
+        // Resell cancelled seats, serving the waitlist first, if configured; wired before the journal replay so restored cancelled seats are resold too.
+        ResaleDesk resaleDesk = null;
+        if (constants.getSeatRecycling()) {
+            resaleDesk = new ResaleDesk(seatMap, pendingPaymentReservations, constants.getWaitlistCapacity());
+            cancelledReservations.setResaleDesk(resaleDesk);
         }
 
-        // Initialize Payment Process threads
-        for (int i = 0; i < constants.getNumPaymentProcess(); i++) {
-            PaymentProcess paymentProcess = new PaymentProcess(constants, pendingPaymentReservations, confirmedReservations, cancelledReservations);
-            Thread thread = new Thread(paymentProcess, "reservationProcess" + (i + 1));
-            allThreads.add(thread);
-            thread.start();
+        // The seat event log and its read model, created before the journal replay so they count the restored seats.
+        SeatEventLog seatEvents = null;
+        SeatReadModel readModel = null;
+        if (constants.getEventSourcing()) {
+            seatEvents = new SeatEventLog(seatMap.size() * Transition.values().length);
+            readModel = new SeatReadModel(constants.getRows(), constants.getColumns());
+            seatEvents.subscribe(readModel);
         }
 
-        // Initialize Cancellation/Validation Process threads
-        for (int i = 0; i < constants.getNumCancellationValidationProcess(); i++) {
-            CancellationValidationProcess cancellationValidationProcess = new CancellationValidationProcess(constants, confirmedReservations, cancelledReservations);
-            Thread thread = new Thread(cancellationValidationProcess, "reservationProcess" + (i + 1));
-            allThreads.add(thread);
-            thread.start();
+        // Replay the reservation journal, if configured, and journal every transition from now on.
+        ReservationJournal journal = null;
+        if (constants.getJournalPath() != null) {
+            Path journalPath = Paths.get(constants.getJournalPath());
+            try {
+                long replayed = ReservationJournal.recover(journalPath, seatMap, pendingPaymentReservations, confirmedReservations, cancelledReservations, verifiedReservations,
+                        TransitionListener.of(seatEvents != null ? seatEvents : TransitionListener.NONE, sharedInventory != null ? sharedInventory : TransitionListener.NONE));
+                System.out.print("\nJournal replayed: " + replayed + " transitions\n");
+                journal = new ReservationJournal(journalPath, constants.getFsyncPolicy(), constants.getJournalFlushInterval());
+            } catch (IOException e) {
+                System.out.println("\nError opening the journal: " + e.getMessage());
+                return;
+            }
+            transitionListeners.add(journal);
         }
 
-        // Initialize Verification Process threads
-        for (int i = 0; i < constants.getNumVerificationProcess(); i++) {
-            VerificationProcess verificationProcess = new VerificationProcess(constants, confirmedReservations, verifiedReservations);
-            Thread thread = new Thread(verificationProcess, "reservationProcess" + (i + 1));
-            allThreads.add(thread);
-            thread.start();
+        // Mark paid seats in the shared inventory, so they are not reclaimed as orphaned holds.
+        if (sharedInventory != null) {
+            transitionListeners.add(sharedInventory);
         }
 
-        // Initialize LOG thread
-        LOG logThread = new LOG(startTime, constants, seatMap, verifiedReservations, cancelledReservations);
-        logThread.start();
+        // Keep the availability view up to date with cancellations.
+        transitionListeners.add(seatMap.getAvailabilityView());
 
-        // Boolean variable to track whether threads are still alive.
-        boolean alive;
+        // Record when each seat makes each transition, for the analytics and the export.
+        SeatTimeline seatTimeline = null;
+        if (constants.getAnalytics() || constants.getExportPath() != null) {
+            seatTimeline = new SeatTimeline(seatMap.size());
+            transitionListeners.add(seatTimeline);
+        }
 
-        // Do/While loop to check if threads are alive or if all seats are processed.
-        do{
-            alive = false;
-            for(Thread thread : allThreads){
-                alive |= thread.isAlive();
+        // Record the seat lifecycle events for the end-of-run analytics.
+        LifecycleEventLog eventLog = null;
+        if (constants.getAnalytics() && constants.getAnalyticsEventCapacity() > 0) {
+            eventLog = new LifecycleEventLog(constants.getAnalyticsEventCapacity());
+            transitionListeners.add(eventLog);
+        }
+
+        // Emit a JFR event per transition while a recording is running.
+        transitionListeners.add(SeatTransitionEvent.LISTENER);
+
+        // Record every transition in the seat event log and answer counts from its read model.
+        if (seatEvents != null) {
+            transitionListeners.add(seatEvents);
+        }
+
+        TransitionListener transitionListener = TransitionListener.of(transitionListeners.toArray(new TransitionListener[0]));
+        pendingPaymentReservations.setTransitionListener(transitionListener);
+        confirmedReservations.setTransitionListener(transitionListener);
+        cancelledReservations.setTransitionListener(transitionListener);
+        verifiedReservations.setTransitionListener(transitionListener);
+
+        // Remember keyed reservations and payments, so retries are not applied twice, if configured.
+        IdempotencyCache reservationKeys = null;
+        IdempotencyCache paymentKeys = null;
+        if (constants.getIdempotencyCapacity() > 0) {
+            reservationKeys = new IdempotencyCache(constants.getIdempotencyCapacity(), constants.getIdempotencyTtl() * 1_000_000L);
+            paymentKeys = new IdempotencyCache(constants.getIdempotencyCapacity(), constants.getIdempotencyTtl() * 1_000_000L);
+            seatMap.setIdempotencyCache(reservationKeys);
+        }
+
+        // Start time counting.
+        long startTime = System.currentTimeMillis();
+        long startNanos = SimulationClock.nanoTime();
+
+        ReservationSimulation simulation = null;
+        if (constants.getSimulation()) {
+            // Run the pipeline on the virtual clock instead of the process threads.
+            try {
+                simulation = new ReservationSimulation(constants, seatMap, pendingPaymentReservations, confirmedReservations,
+                        cancelledReservations, verifiedReservations, resaleDesk);
+            } catch (IllegalArgumentException e) {
+                System.out.println("\nError configuring the simulation: " + e.getMessage());
+                return;
             }
-            if(!(verifiedReservations.size()+cancelledReservations.size() < constants.getRows()*constants.getColumns())){
-                constants.flagDown();
+            simulation.run(constants.getSimulationDuration() * 1_000_000L);
+        } else {
+            // Initializes a list to gather the threads.
+            List<Thread> allThreads = new ArrayList<>();
+
+            if (constants.getStageFusion()) {
+                // Build the same stages as a pipeline, fusing adjacent stages of equal parallelism
+                ReservationProcess reservation = resaleDesk == null
+                        ? new ReservationProcess(constants, seatMap, pendingPaymentReservations)
+                        : new ReservationProcess(constants, seatMap, pendingPaymentReservations, resaleDesk);
+                PaymentProcess payment = new PaymentProcess(constants, pendingPaymentReservations, confirmedReservations, cancelledReservations);
+                payment.setIdempotencyCache(paymentKeys);
+                CancellationValidationProcess validation = new CancellationValidationProcess(constants, confirmedReservations, cancelledReservations);
+                VerificationProcess verification = new VerificationProcess(constants, confirmedReservations, verifiedReservations);
+                AtomicLong requestKeys = new AtomicLong();
+                boolean resells = resaleDesk != null;
+
+                // The resale desk and the journal replay also fill the lists, so those are never fused away
+                PipelineBuilder.Link pendingLink = PipelineBuilder.Link.of(pendingPaymentReservations::putPendingPayment,
+                        pendingPaymentReservations::removePendingPayment, resells || journal != null);
+                PipelineBuilder.Link confirmedLink = PipelineBuilder.Link.of(confirmedReservations::putConfirmed,
+                        confirmedReservations::removeConfirmed, journal != null);
+                PipelineBuilder.Link checkedLink = PipelineBuilder.Link.of(confirmedReservations::putValidated,
+                        confirmedReservations::removeChecked, journal != null);
+
+                PipelineBuilder pipeline = new PipelineBuilder(constants, transitionListener)
+                        .source("reservation", constants.getNumReservationProcesses(), constants.getReservationProcessTime(), none -> {
+                            Seat seat = reservation.reserve(requestKeys.getAndIncrement());
+                            // Without resale or released holds a sold-out flight has no more seats to produce
+                            return seat == null && !resells && !pendingPaymentReservations.releasesHolds() ? PipelineBuilder.END : seat;
+                        })
+                        .then(Transition.RESERVED, pendingLink, "payment", constants.getNumPaymentProcess(),
+                                constants.getPaymentProcessTime(), seat -> payment.settle(seat, PaymentProcess.paymentKey(seat)))
+                        .then(Transition.PAID, confirmedLink, "validation", constants.getNumCancellationValidationProcess(),
+                                constants.getCancellationValidationProcessTime(), validation::validate)
+                        .then(Transition.CHECKED, checkedLink, "verification", constants.getNumVerificationProcess(),
+                                constants.getVerificationProcessTime(), seat -> {
+                                    verification.verify(seat);
+                                    return null;
+                                });
+                System.out.print("\nPipeline: " + pipeline.plan() + "\n");
+                for (Thread thread : pipeline.build()) {
+                    allThreads.add(thread);
+                    thread.start();
+                }
+            } else {
+                // Initialize Reservation Process threads
+                for (int i = 0; i < constants.getNumReservationProcesses(); i++) {
+                    ReservationProcess reservationProcess = resaleDesk == null
+                            ? new ReservationProcess(constants, seatMap, pendingPaymentReservations)
+                            : new ReservationProcess(constants, seatMap, pendingPaymentReservations, resaleDesk);
+                    Thread thread = new Thread(reservationProcess, "reservationProcess" + (i + 1));
+                    allThreads.add(thread);
+                    thread.start();
+                }
+
+                // Initialize Payment Process threads
+                for (int i = 0; i < constants.getNumPaymentProcess(); i++) {
+                    PaymentProcess paymentProcess = new PaymentProcess(constants, pendingPaymentReservations, confirmedReservations, cancelledReservations);
+                    paymentProcess.setIdempotencyCache(paymentKeys);
+                    Thread thread = new Thread(paymentProcess, "reservationProcess" + (i + 1));
+                    allThreads.add(thread);
+                    thread.start();
+                }
+
+                // Initialize Cancellation/Validation Process threads
+                for (int i = 0; i < constants.getNumCancellationValidationProcess(); i++) {
+                    CancellationValidationProcess cancellationValidationProcess = new CancellationValidationProcess(constants, confirmedReservations, cancelledReservations);
+                    Thread thread = new Thread(cancellationValidationProcess, "reservationProcess" + (i + 1));
+                    allThreads.add(thread);
+                    thread.start();
+                }
+
+                // Initialize Verification Process threads
+                for (int i = 0; i < constants.getNumVerificationProcess(); i++) {
+                    VerificationProcess verificationProcess = new VerificationProcess(constants, confirmedReservations, verifiedReservations);
+                    Thread thread = new Thread(verificationProcess, "reservationProcess" + (i + 1));
+                    allThreads.add(thread);
+                    thread.start();
+                }
+
+            }
+
+            // Initialize LOG thread
+            LOG logThread = new LOG(startTime, constants, seatMap, verifiedReservations, cancelledReservations);
+            if (readModel != null) {
+                logThread.setReadModel(readModel);
             }
+            if (constants.getExportPath() != null) {
+                logThread.setExporter(new SeatStateExporter(seatMap, seatTimeline, startNanos));
+            }
+            logThread.start();
+
+            // Boolean variable to track whether threads are still alive.
+            boolean alive;
+
+            // Do/While loop to check if threads are alive or if all seats are processed.
+            do{
+                alive = false;
+                for(Thread thread : allThreads){
+                    alive |= thread.isAlive();
+                }
+                // With seat recycling a cancelled seat is sold again, so only verified seats are final.
+                int processed = readModel != null
+                        ? readModel.count(Transition.VERIFIED) + (resaleDesk == null ? readModel.cancellations() : 0)
+                        : verifiedReservations.size() + (resaleDesk == null ? cancelledReservations.size() : 0);
+                int seatsToProcess = constants.getRows()*constants.getColumns();
+                if (sharedInventory != null) {
+                    // Other processes sell part of a shared inventory: once it is sold out, only the seats reserved here are left to process.
+                    seatsToProcess = sharedInventory.availableSeats() > 0 ? Integer.MAX_VALUE : sharedInventory.reservations();
+                }
+                if(!(processed < seatsToProcess)){
+                    constants.flagDown();
+                }
 
-        }while(alive && constants.getGlobalFlag());
+            }while(alive && constants.getGlobalFlag());
 
-        // Interrupt remaining threads to ensure proper termination.
-        for(Thread thread : allThreads){
-            thread.interrupt();
+            // Interrupt remaining threads to ensure proper termination.
+            for(Thread thread : allThreads){
+                thread.interrupt();
+            }
+            logThread.interrupt();
+
+            // Sleep to ensure final log messages are printed.
+            try {
+                Thread.sleep(constants.getLogTime());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
         }
-        logThread.interrupt();
 
-        // Sleep to ensure final log messages are printed.
-        try {
-            Thread.sleep(constants.getLogTime());
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        // Write and close the journal before reporting.
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.out.println("\nError writing the journal: " + e.getMessage());
+            }
+        }
+
+        // Close the shared inventory.
+        if (sharedInventory != null) {
+            try {
+                sharedInventory.close();
+            } catch (IOException e) {
+                System.out.println("\nError writing the shared inventory: " + e.getMessage());
+            }
         }
 
         // Print final statistics.
-        System.out.print("\n" + "PAYMENT PENDING: " + pendingPaymentReservations.size() + "\n");
+        int pending = readModel != null ? readModel.count(Transition.RESERVED) : pendingPaymentReservations.size();
+        int confirmed = readModel != null ? readModel.count(Transition.PAID) : confirmedReservations.size();
+        int verified = readModel != null ? readModel.count(Transition.VERIFIED) : verifiedReservations.size();
+        int cancelled = readModel != null ? readModel.cancellations() : cancelledReservations.size();
+        System.out.print("\n" + "PAYMENT PENDING: " + pending + "\n");
+
+        System.out.print("\n" + "CONFIRMED: " + confirmed + "\n");
+
+        System.out.print("\n" + "VERIFIED: " + verified);
+        System.out.println(" - percentage: " + String.format("%.1f", (double)verified * 100 / (constants.getRows() * constants.getColumns())) + "%\n");
+
+        System.out.print("CANCELED: " + cancelled);
+        System.out.println(" - percentage: " + String.format("%.1f", (double)cancelled * 100 / (constants.getRows() * constants.getColumns())) + "%");
+        System.out.println("  of which for lack of room in the confirmed list: " + cancelledReservations.overflowed() + "\n");
+
+        // A resold seat can be both cancelled and verified: count each seat once.
+        int processed = readModel != null ? readModel.processedSeats() : verified + cancelledReservations.unverified(verifiedReservations);
+        System.out.print("RESERVATIONS PROCESSED: " + processed);
+        System.out.println(" - percentage: " + String.format("%.1f", (double)processed * 100 / (constants.getRows() * constants.getColumns())) + "%\n");
 
-        System.out.print("\n" + "CONFIRMED: " + confirmedReservations.size() + "\n");
+        if (resaleDesk != null) {
+            System.out.print(resaleDesk.summary());
+            System.out.println("LOAD FACTOR: " + String.format("%.1f", (double)verified * 100 / (constants.getRows() * constants.getColumns())) + "%");
+        }
 
-        System.out.print("\n" + "VERIFIED: " + verifiedReservations.size());
-        System.out.println(" - percentage: " + String.format("%.1f", (double)verifiedReservations.size() * 100 / (constants.getRows() * constants.getColumns())) + "%\n");
+        System.out.print(pendingPaymentReservations.getAdmission().summary());
+        System.out.print(confirmedReservations.getAdmission().summary());
+        if (constants.getAnalytics()) {
+            System.out.print(pendingPaymentReservations.holdToPaymentSummary());
+            System.out.print(seatTimeline.dwellSummary());
+            System.out.print(SeatContention.summary());
+        }
+        if (reservationKeys != null) {
+            System.out.print(reservationKeys.summary("reservations"));
+            System.out.print(paymentKeys.summary("payments"));
+        }
+        System.out.print(MonitorProfiler.report(seatMap.getMonitorProfiler(),
+                pendingPaymentReservations.getMonitorProfiler(), confirmedReservations.getMonitorProfiler()));
 
-        System.out.print("CANCELED: " + cancelledReservations.size());
-        System.out.println(" - percentage: " + String.format("%.1f", (double)cancelledReservations.size() * 100 / (constants.getRows() * constants.getColumns())) + "%\n");
+        // Print the seat lifecycle analytics.
+        if (eventLog != null) {
+            System.out.print(new SeatAnalytics(eventLog, constants.getRows(), constants.getColumns(), constants.getAnalyticsWindow()).analyze());
+        }
 
-        System.out.print("RESERVATIONS PROCESSED: " + (verifiedReservations.size() + cancelledReservations.size()));
-        System.out.println(" - percentage: " + String.format("%.1f", (double)(verifiedReservations.size() + cancelledReservations.size()) * 100 / (constants.getRows() * constants.getColumns())) + "%\n");
+        // Print the simulated and real time of a simulation, and export its final seat state.
+        if (simulation != null) {
+            System.out.print(simulation.summary());
+            if (constants.getExportPath() != null) {
+                SeatStateExporter exporter = new SeatStateExporter(seatMap, seatTimeline, startNanos);
+                try {
+                    exporter.exportColumns(Paths.get(constants.getExportPath() + ".seats"));
+                    exporter.exportCsv(Paths.get(constants.getExportPath() + ".csv"));
+                } catch (IOException e) {
+                    System.out.println("\nError writing the export: " + e.getMessage());
+                }
+            }
+        }
 
         System.out.print("\nSystem finished.");
 
@@ -0,0 +1,119 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    MappedSeat.java
+ * @brief   Seat whose state lives in a SharedSeatInventory file.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The MappedSeat class is the Seat handed out by a seat map backed by a shared
+ * inventory. It holds only the seat ID: every read and every transition goes to
+ * the seat's word in the memory-mapped file, with the same compare-and-set rules
+ * as the stamp of Seat, so there is a single copy of the seat state, shared with
+ * the other processes using the file, and nothing to keep in sync. The stamp
+ * inherited from Seat is never used.
+ */
+public final class MappedSeat extends Seat {
+    private final SharedSeatInventory inventory; ///< The file holding the state of the seat.
+
+    /**
+     * Constructor for the MappedSeat class.
+     *
+     * @param inventory The shared inventory holding the state of the seat.
+     * @param id The ID of the seat, from 1 to inventory.size().
+     */
+    public MappedSeat(SharedSeatInventory inventory, int id) {
+        this.inventory = inventory;
+        setId(id);
+    }
+
+    /**
+     * Gets the current status of the seat from the shared inventory.
+     *
+     * @return The status of the seat.
+     */
+    @Override
+    public SeatStatus getStatus() {
+        return inventory.status(getId());
+    }
+
+    /**
+     * Gets the version of the seat in the shared inventory.
+     *
+     * @return The version of the seat, modulo 2^28.
+     */
+    @Override
+    public long getVersion() {
+        return inventory.version(getId());
+    }
+
+    /**
+     * Gets the stamp of the seat from a single read of its word in the shared inventory.
+     *
+     * @return The stamp of the seat, in the format of Seat.getStamp().
+     */
+    @Override
+    public long getStamp() {
+        return inventory.stamp(getId());
+    }
+
+    /**
+     * Marks the seat as occupied, without taking a permit from the shared available seat counter.
+     */
+    @Override
+    public void occupiedSeat() {
+        inventory.occupy(getId());
+    }
+
+    /**
+     * Marks the seat as occupied only if it is available, in this or any other process.
+     *
+     * @return True if the seat was available and is now occupied by the caller.
+     */
+    @Override
+    public boolean tryOccupy() {
+        return inventory.tryOccupy(getId());
+    }
+
+    /**
+     * Returns the seat to the shared inventory as AVAILABLE and unchecked,
+     * giving its permit back to the shared available seat counter.
+     */
+    @Override
+    public void availableSeat() {
+        inventory.release(getId());
+    }
+
+    /**
+     * Marks the seat as occupied and unchecked in a single step, without it ever becoming available.
+     */
+    @Override
+    public void resoldSeat() {
+        inventory.resell(getId());
+    }
+
+    /**
+     * Marks the seat as unavailable, keeping its checked flag.
+     */
+    @Override
+    public void unavailableSeat() {
+        inventory.markUnavailable(getId());
+    }
+
+    /**
+     * Checks if the seat has been marked as checked in the shared inventory.
+     *
+     * @return True if the seat is checked, otherwise false.
+     */
+    @Override
+    public boolean getChecked() {
+        return inventory.isChecked(getId());
+    }
+
+    /**
+     * Marks the seat as checked, keeping its status.
+     */
+    @Override
+    public void checked() {
+        inventory.check(getId());
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    MonitorProfiler.java
+ * @brief   Measures the contention of one lock and its condition queues.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The MonitorProfiler class wraps the critical sections of one reservation
+ * collection, guarded either by a synchronized monitor or by a Lock. It records,
+ * as LatencyHistograms, how long threads waited to enter, how long they held the
+ * lock (not counting the time released inside await()) and how long each await()
+ * lasted, and counts the await() and signal() calls, the wakeups and the spurious
+ * wakeups: wakeups after which the thread found its condition still false and
+ * waited again, for example because another thread barged in and took the seat.
+ * The usage with a Lock is:
+ *
+ *     long requested = profiler.requesting();
+ *     lock.lock();
+ *     try {
+ *         profiler.acquired(requested);
+ *         ... profiler.await(condition) instead of await(), profiler.signal(condition) instead of signal() ...
+ *     } finally {
+ *         profiler.released();
+ *         lock.unlock();
+ *     }
+ *
+ * and the same with a synchronized block, which has no condition to wait on.
+ * Everything is recorded while holding the lock, so the histograms need no further
+ * synchronization and recording never allocates. A disabled profiler only forwards
+ * await() and signal() to the condition. A profiled section must not be entered
+ * again by the thread already holding the lock.
+ */
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+public class MonitorProfiler {
+    private final String name; ///< Name of the collection owning the lock.
+    private final Object monitor; ///< The profiled synchronized monitor, or null.
+    private final Lock lock; ///< The profiled lock, or null.
+    private final boolean enabled; ///< Whether anything is recorded.
+
+    private final LatencyHistogram acquireWait = new LatencyHistogram(); ///< Nanoseconds from requesting() to acquired().
+    private final LatencyHistogram holdTime = new LatencyHistogram(); ///< Nanoseconds from acquired() to released(), minus the waits.
+    private final LatencyHistogram waitTime = new LatencyHistogram(); ///< Nanoseconds spent in each await(), until the lock was re-entered.
+    private long waits; ///< Calls to await().
+    private long signals; ///< Calls to signal().
+    private long wakeups; ///< Returns from await().
+    private long spuriousWakeups; ///< Wakeups followed by another await() without releasing the lock.
+    private long heldSince; ///< When the current holder entered, shifted forward by its waits.
+    private boolean woken; ///< Whether the current holder returned from await() and has not waited again or released.
+
+    /**
+     * Constructor for a profiler of synchronized blocks.
+     *
+     * @param name The name of the collection owning the monitor, used in the summary.
+     * @param monitor The profiled monitor.
+     * @param enabled Whether to record anything.
+     */
+    public MonitorProfiler(String name, Object monitor, boolean enabled) {
+        this.name = name;
+        this.monitor = monitor;
+        this.lock = null;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Constructor for a profiler of a lock and its conditions.
+     *
+     * @param name The name of the collection owning the lock, used in the summary.
+     * @param lock The profiled lock.
+     * @param enabled Whether to record anything.
+     */
+    public MonitorProfiler(String name, Lock lock, boolean enabled) {
+        this.name = name;
+        this.monitor = null;
+        this.lock = lock;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Marks the start of an attempt to enter. Called before taking the lock.
+     *
+     * @return The token to pass to acquired().
+     */
+    public long requesting() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time taken to enter. Called first once the lock is held.
+     *
+     * @param requested The token returned by requesting().
+     */
+    public void acquired(long requested) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        acquireWait.record(now - requested);
+        heldSince = now;
+        woken = false;
+    }
+
+    /**
+     * Records the time the lock was held. Called last before releasing it, in a finally block.
+     */
+    public void released() {
+        if (!enabled) {
+            return;
+        }
+        holdTime.record(System.nanoTime() - heldSince);
+        woken = false;
+    }
+
+    /**
+     * Waits on a condition of the lock, recording the wait. Called holding the lock.
+     *
+     * @param condition The condition to wait on.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    public void await(Condition condition) throws InterruptedException {
+        if (!enabled) {
+            condition.await();
+            return;
+        }
+        long start = System.nanoTime();
+        // Other holders overwrite heldSince meanwhile, so keep this holder's time on the stack
+        long held = start - heldSince;
+        waits++;
+        if (woken) {
+            spuriousWakeups++;
+        }
+        try {
+            condition.await();
+        } finally {
+            long now = System.nanoTime();
+            waitTime.record(now - start);
+            wakeups++;
+            woken = true;
+            heldSince = now - held;
+        }
+    }
+
+    /**
+     * Wakes one thread waiting on a condition, counting the call. Called holding the lock.
+     *
+     * @param condition The condition to signal.
+     */
+    public void signal(Condition condition) {
+        if (enabled) {
+            signals++;
+        }
+        condition.signal();
+    }
+
+    /**
+     * Gets whether the profiler records anything.
+     *
+     * @return True if enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the total time threads spent waiting to enter.
+     *
+     * @return The sum of the acquire waits, in nanoseconds.
+     */
+    public long totalAcquireWait() {
+        return guarded(acquireWait::sum);
+    }
+
+    /**
+     * Generates the histograms and counters of the lock.
+     *
+     * @return The summary, with values in milliseconds.
+     */
+    public String summary() {
+        return guarded(() -> "\n" + name + " monitor:\n"
+                + "  acquire wait: " + acquireWait.summaryMillis() + "\n"
+                + "  hold time:    " + holdTime.summaryMillis() + "\n"
+                + "  await():      " + waitTime.summaryMillis() + "\n"
+                + "  waits=" + waits + " signals=" + signals + " wakeups=" + wakeups
+                + " spurious wakeups=" + spuriousWakeups + "\n");
+    }
+
+    /**
+     * Reads the recorded values holding the profiled lock or monitor.
+     */
+    private <T> T guarded(Supplier<T> read) {
+        if (lock == null) {
+            synchronized (monitor) {
+                return read.get();
+            }
+        }
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Generates the summaries of several locks, the most contended first.
+     *
+     * @param profilers The profilers of the locks.
+     * @return The report, ranked by total acquire wait, or an empty string if none is enabled.
+     */
+    public static String report(MonitorProfiler... profilers) {
+        MonitorProfiler[] ranked = Arrays.stream(profilers)
+                .filter(MonitorProfiler::isEnabled)
+                .sorted(Comparator.comparingLong(MonitorProfiler::totalAcquireWait).reversed())
+                .toArray(MonitorProfiler[]::new);
+        if (ranked.length == 0) {
+            return "";
+        }
+        StringBuilder report = new StringBuilder("\nMonitor contention (most total acquire wait first):\n");
+        for (MonitorProfiler profiler : ranked) {
+            report.append(profiler.summary());
+        }
+        return report.toString();
+    }
+}
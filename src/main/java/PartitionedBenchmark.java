@@ -0,0 +1,128 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    PartitionedBenchmark.java
+ * @brief   Launches reservation node JVMs and measures routed throughput.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The PartitionedBenchmark class starts 1, 2, ... up to the requested number of
+ * ReservationNode processes on this host (same Java binary and class path),
+ * connects a ReservationRouter to them and runs the same workload each time:
+ * pipelined bursts of reservations on random flights, followed by the payment
+ * (or, with the configured probability, the cancellation) of every reserved seat.
+ * It prints the throughput for each number of nodes.
+ * Run it with: gradle partitionedBenchmark --args="<maxNodes> <flights> <reservations> <window>"
+ */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class PartitionedBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Maximum number of nodes (2), flights (10000), reservations per run (200000)
+     *             and requests per pipelined burst (1024).
+     * @throws Exception If a node cannot be started or reached.
+     */
+    public static void main(String[] args) throws Exception {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int flights = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int reservations = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        Constants constants = new Constants();
+
+        System.out.println("nodes  operations  seconds  operations/s");
+        for (int nodes = 1; nodes <= maxNodes; nodes++) {
+            List<Process> processes = new ArrayList<>();
+            try {
+                List<InetSocketAddress> addresses = new ArrayList<>();
+                for (int i = 0; i < nodes; i++) {
+                    Process process = startNode(constants);
+                    processes.add(process);
+                    addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), readPort(process)));
+                }
+                try (ReservationRouter router = new ReservationRouter(addresses)) {
+                    // Warm up the nodes before measuring
+                    run(router, constants, flights, reservations / 10, window);
+                    long start = System.nanoTime();
+                    long operations = run(router, constants, flights, reservations, window);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%5d  %10d  %7.2f  %12.0f%n", nodes, operations, seconds, operations / seconds);
+                }
+            } finally {
+                for (Process process : processes) {
+                    process.destroy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the workload in pipelined bursts.
+     *
+     * @return The number of requests completed.
+     */
+    private static long run(ReservationRouter router, Constants constants, int flights, int reservations, int window) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long operations = 0;
+        int[] burstFlights = new int[window];
+        List<CompletableFuture<ReservationRouter.Response>> burst = new ArrayList<>(window);
+        for (int sent = 0; sent < reservations; sent += window) {
+            int size = Math.min(window, reservations - sent);
+            burst.clear();
+            for (int i = 0; i < size; i++) {
+                burstFlights[i] = random.nextInt(flights);
+                burst.add(router.reserve(burstFlights[i]));
+            }
+            router.flush();
+            List<CompletableFuture<ReservationRouter.Response>> settlements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ReservationRouter.Response reserved = burst.get(i).join();
+                if (reserved.getStatus() == ReservationNode.OK) {
+                    settlements.add(random.nextInt(101) < constants.getConfirmedSeatProbability()
+                            ? router.pay(burstFlights[i], reserved.getSeatId())
+                            : router.cancel(burstFlights[i], reserved.getSeatId()));
+                }
+            }
+            router.flush();
+            for (CompletableFuture<ReservationRouter.Response> settlement : settlements) {
+                settlement.join();
+            }
+            operations += size + settlements.size();
+        }
+        return operations;
+    }
+
+    /**
+     * Starts a node JVM with the same Java binary and class path as this one.
+     */
+    private static Process startNode(Constants constants) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "ReservationNode", "0", String.valueOf(constants.getRows()), String.valueOf(constants.getColumns()));
+        builder.redirectErrorStream(true);
+        return builder.start();
+    }
+
+    /**
+     * Waits for the node to print its port.
+     */
+    private static int readPort(Process process) throws IOException {
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith(ReservationNode.READY)) {
+                return Integer.parseInt(line.substring(ReservationNode.READY.length()).trim());
+            }
+        }
+        throw new IOException("Node exited before accepting connections");
+    }
+}
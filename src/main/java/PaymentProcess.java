@@ -11,11 +11,14 @@
  * The PaymentProcess class is responsible for processing reservations that
  * are pending payment. It determines whether a reservation is confirmed or canceled
  * based on a probability, and updates the respective reservation lists.
+ * With an IdempotencyCache set, the outcome of every payment is recorded under its
+ * payment key before it is applied, so paying the same key again returns the
+ * recorded outcome and leaves the lists untouched.
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
  */
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class PaymentProcess implements Runnable {
 
@@ -23,6 +26,7 @@ public class PaymentProcess implements Runnable {
     private ConfirmedReservations confirmedReservations; // List of confirmed reservations
     private CancelledReservations cancelledReservations; // List of canceled reservations
     private Constants constants; // Constants related to system behavior
+    private IdempotencyCache payments; // Outcome of each payment key, or null
 
     /**
      * Constructor for the PaymentProcess class.
@@ -47,27 +51,115 @@ public class PaymentProcess implements Runnable {
     public void run() {
         // The number of iterations for the payment process based on the number of seats
         int loopBounds = constants.getColumns() * constants.getRows() / constants.getNumPaymentProcess();
-        for (int i = 0; i < loopBounds; i++) {
+        if (constants.getSeatRecycling()) {
+            // Resold seats are paid again, so keep processing until the system stops
+            loopBounds = Integer.MAX_VALUE;
+        }
+        for (int i = 0; i < loopBounds && constants.getGlobalFlag(); i++) {
             try {
                 // Simulate payment processing time
                 Thread.sleep(constants.getPaymentProcessTime());
             } catch (InterruptedException e) {
-                // Handle interruption
+                // The system is stopping: keep the interrupt so the removal below returns null
+                Thread.currentThread().interrupt();
             }
             // Remove a seat from the pending payment list
             Seat seat = pendingPaymentReservations.removePendingPayment();
-            Random random = new Random();
-            // Generate a random number to determine if the seat is confirmed or canceled
-            int probability = random.nextInt(101);
-            if (probability < constants.getConfirmedSeatProbability()) {
-                // Seat is confirmed
-                confirmedReservations.putConfirmed(seat);
-            } else {
-                // Seat is canceled
-                cancelledReservations.putCanceled(seat);
+            if (seat == null) {
+                break;
             }
+            pay(seat, paymentKey(seat));
         }
         // Output message indicating the thread has ended
         System.out.print("\nPayment Process runnable thread ended");
     }
+
+    /**
+     * Pays a seat pending payment once per payment key: the seat is confirmed or
+     * canceled based on the probability, unless the key was already paid, in which
+     * case its recorded outcome is returned and nothing is applied.
+     *
+     * @param seat The seat removed from the pending payment list.
+     * @param paymentKey The key identifying the payment, e.g. paymentKey(seat).
+     * @return PAID if the seat was confirmed, CANCELLED if it was canceled.
+     */
+    public Transition pay(Seat seat, long paymentKey) {
+        Transition outcome = decide();
+        Transition recorded = claim(paymentKey, outcome);
+        if (recorded != null) {
+            return recorded;
+        }
+        if (outcome == Transition.PAID) {
+            // Seat is confirmed
+            confirmedReservations.putConfirmed(seat);
+        } else {
+            // Seat is canceled
+            cancelledReservations.putCanceled(seat);
+        }
+        return outcome;
+    }
+
+    /**
+     * Settles a seat pending payment once per payment key, like pay(), but hands a
+     * paid seat back to the caller instead of adding it to the confirmed list. Used by
+     * a pipeline that validates the seat in the same worker right after the payment.
+     *
+     * @param seat The seat reserved or removed from the pending payment list.
+     * @param paymentKey The key identifying the payment, e.g. paymentKey(seat).
+     * @return The seat if it was paid now, or null if it was canceled or the key was already paid.
+     */
+    public Seat settle(Seat seat, long paymentKey) {
+        Transition outcome = decide();
+        if (claim(paymentKey, outcome) != null) {
+            return null;
+        }
+        if (outcome == Transition.CANCELLED) {
+            cancelledReservations.putCanceled(seat);
+            return null;
+        }
+        return seat;
+    }
+
+    /**
+     * Decides the outcome of a payment based on the probability.
+     */
+    private Transition decide() {
+        // Generate a random number to determine if the seat is confirmed or canceled
+        int probability = ThreadLocalRandom.current().nextInt(101);
+        return probability < constants.getConfirmedSeatProbability() ? Transition.PAID : Transition.CANCELLED;
+    }
+
+    /**
+     * Records the outcome of a payment key unless it was already paid.
+     *
+     * @return Null if the outcome was recorded (or nothing is recorded), otherwise the outcome recorded before.
+     */
+    private Transition claim(long paymentKey, Transition outcome) {
+        if (payments == null) {
+            return null;
+        }
+        // Claim the key before applying, so a concurrent retry cannot apply it too
+        long recorded = payments.putIfAbsent(paymentKey, outcome.ordinal());
+        return recorded == IdempotencyCache.MISSING ? null : Transition.fromOrdinal((int) recorded);
+    }
+
+    /**
+     * Gets the payment key of the current hold of a seat. Every reservation of the
+     * seat changes its version, so the key differs between reservations of the same seat.
+     *
+     * @param seat A seat pending payment.
+     * @return The version of the seat in the upper 32 bits and its ID in the lower 32 bits.
+     */
+    public static long paymentKey(Seat seat) {
+        return (seat.getVersion() << 32) | (seat.getId() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Sets the cache recording the outcome of each payment key.
+     *
+     * @param payments The cache, or null to apply every payment.
+     */
+    public void setIdempotencyCache(IdempotencyCache payments) {
+        this.payments = payments;
+    }
 }
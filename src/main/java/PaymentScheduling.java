@@ -0,0 +1,18 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    PaymentScheduling.java
+ * @brief   Enum representing how payment workers pick the next pending reservation.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The PaymentScheduling enum selects the order in which PendingPaymentReservations
+ * hands out seats to the payment process:
+ * - RANDOM: Any pending seat, chosen uniformly. Old holds can be passed over many
+ *   times, which shows in the tail of the hold-to-payment latency.
+ * - EARLIEST_DEADLINE_FIRST: The hold closest to its deadline (reservation time plus
+ *   the payment hold time) is always taken first.
+ */
+public enum PaymentScheduling {
+    RANDOM,                  ///< Uniformly random pending seat.
+    EARLIEST_DEADLINE_FIRST  ///< Pending seat with the earliest hold deadline.
+}
@@ -11,68 +11,376 @@
  * The PendingPaymentReservations class handles the reservations that are pending payment.
  * It provides methods for adding reservations to the pending list and removing them
  * once payment processing is initiated.
+ * Seats are handed out at random or earliest hold deadline first. A bounded list
+ * applies its AdmissionPolicy when full, releasing the holds it does not keep; in
+ * the RING handoff mode the seats go through a lock-free SeatRing instead.
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
  */
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PendingPaymentReservations {
-    private List<Seat> pendingPaymentReservations = new ArrayList<>(); // List of seats pending payment
+    private List<Seat> pendingPaymentReservations; // List of seats pending payment
+    private TransitionListener transitionListener = TransitionListener.NONE; // Notified of every reserved seat
+    private PaymentScheduling scheduling = PaymentScheduling.RANDOM; // Order seats are handed out in
+    private DeadlineHeap deadlineHeap; // Seats pending payment by hold deadline, when scheduling earliest deadline first
+    private long holdTime; // Nanoseconds from reservation to the hold deadline
+    private long[] heldSince; // SimulationClock.nanoTime() of the reservation of each pending seat, by seat ID
+    private final LatencyHistogram holdToPayment = new LatencyHistogram(); // Time from reservation to removal for payment
+    private AdmissionControl admission; // Capacity, policy and counters of the list
+    private SeatMap seatMap; // Takes back the seats whose holds are rejected or shed by the list
+    private SeatRing ring; // Seats pending payment in the RING handoff mode, or null
+    private final ReentrantLock lock = new ReentrantLock(); // Guards the list
+    private final Condition notEmpty = lock.newCondition(); // Payment threads waiting for a seat
+    private final Condition notFull = lock.newCondition(); // Producers waiting for room under the BLOCK policy
+    private MonitorProfiler profiler; // Contention of the list lock
 
     /**
      * Constructor for the PendingPaymentReservations class.
      * Initializes the list of pending payment reservations.
      */
     public PendingPaymentReservations(){
+        pendingPaymentReservations = new ArrayList<>();
+        admission = new AdmissionControl("pending payment", new Constants());
+        profiler = new MonitorProfiler("pending payment", lock, false);
+    }
+
+    /**
+     * Constructor for the PendingPaymentReservations class.
+     * Presizes the list to the whole seat map so it never grows while the system runs.
+     *
+     * @param constants The constants providing the number of rows and columns.
+     */
+    public PendingPaymentReservations(Constants constants){
+        int seats = constants.getRows() * constants.getColumns();
+        scheduling = constants.getPaymentScheduling();
+        if (scheduling == PaymentScheduling.EARLIEST_DEADLINE_FIRST) {
+            pendingPaymentReservations = new ArrayList<>(0);
+            deadlineHeap = new DeadlineHeap(seats);
+        } else {
+            pendingPaymentReservations = new ArrayList<>(seats);
+        }
+        holdTime = constants.getPaymentHoldTime() * 1_000_000L;
+        heldSince = new long[seats + 1];
+        admission = new AdmissionControl("pending payment", constants);
+        profiler = new MonitorProfiler("pending payment", lock,
+                constants.getMonitorProfiling() && constants.getHandoffMode() != HandoffMode.RING);
+        if (constants.getHandoffMode() == HandoffMode.RING) {
+            pendingPaymentReservations = new ArrayList<>(0);
+            deadlineHeap = null;
+            ring = new SeatRing(seats, constants.getWaitStrategy());
+        }
     }
 
     /**
      * Removes a seat from the list of pending payment reservations.
-     * This method waits if the list is empty and returns a randomly chosen seat from the list.
+     * This method waits if the list is empty and returns a randomly chosen seat from the list,
+     * or the seat with the earliest hold deadline when scheduling earliest deadline first.
+     * In the RING handoff mode it takes the oldest seat of the ring.
      *
-     * @return The seat to be processed, or null if no seat is found.
+     * @return The seat to be processed, or null if no seat is found or the thread was interrupted.
      */
-    public synchronized Seat removePendingPayment(){
-        while(pendingPaymentReservations.isEmpty()){
-            try{
-                // Wait until there are pending reservations to process
-                wait();
-            }catch (InterruptedException e){
-            }
+    public Seat removePendingPayment(){
+        if (ring != null) {
+            return ring.take("removePendingPayment");
         }
-        try{
-            Random random = new Random();
-            int randomIndex = random.nextInt(pendingPaymentReservations.size());
-            Seat seat = pendingPaymentReservations.get(randomIndex);
-            pendingPaymentReservations.remove(seat);
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            StageWaitEvent waitEvent = size() == 0 ? StageWaitEvent.begin("removePendingPayment") : null;
+            while(size() == 0){
+                try{
+                    // Wait until there are pending reservations to process
+                    profiler.await(notEmpty);
+                }catch (InterruptedException e){
+                    // The system is stopping
+                    return null;
+                }
+            }
+            StageWaitEvent.end(waitEvent, size());
+            if (admission.blocksProducers()) {
+                // Wake one producer waiting for room
+                profiler.signal(notFull);
+            }
+            Seat seat;
+            if (deadlineHeap != null) {
+                seat = deadlineHeap.poll();
+            } else {
+                try{
+                    int randomIndex = ThreadLocalRandom.current().nextInt(pendingPaymentReservations.size());
+                    seat = removeAt(randomIndex);
+                }catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            if (heldSince != null) {
+                holdToPayment.record(SimulationClock.nanoTime() - heldSince[seat.getId()]);
+            }
             return seat;
-        }catch (IllegalArgumentException e) {
-            return null;
+        } finally {
+            profiler.released();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the seat at the given index by moving the last seat into its slot.
+     * The list order carries no meaning, so this avoids shifting the whole tail.
+     *
+     * @param index The index of the seat to remove.
+     * @return The removed seat.
+     */
+    private Seat removeAt(int index){
+        int last = pendingPaymentReservations.size() - 1;
+        Seat seat = pendingPaymentReservations.get(index);
+        Seat moved = pendingPaymentReservations.remove(last);
+        if(index != last){
+            pendingPaymentReservations.set(index, moved);
         }
+        return seat;
     }
 
     /**
      * Adds a seat to the list of pending payment reservations.
      * If the list was empty before adding the seat, it notifies other threads waiting
-     * to process a reservation.
+     * to process a reservation. If the list is full, the admission policy decides
+     * whether to wait for room, reject the seat or shed a lower-priority one; the
+     * seat left out is released to the seat map.
+     *
+     * @param seat The seat to be added to the pending list.
+     * @return True if the seat was added, false if it was rejected or shed.
+     */
+    public boolean putPendingPayment(Seat seat){
+        return putPendingPayment(seat, true);
+    }
+
+    /**
+     * Adds a seat to the list of pending payment reservations, optionally without waiting.
+     * Threads that also consume this list (e.g. payment threads reselling a cancelled
+     * seat) must not wait for room, or they could all end up waiting for each other.
      *
      * @param seat The seat to be added to the pending list.
+     * @param block False to reject the seat instead of waiting when the policy is BLOCK.
+     * @return True if the seat was added, false if it was rejected or shed.
+     */
+    public boolean putPendingPayment(Seat seat, boolean block){
+        // Record the transition before the payment process can see the seat
+        transitionListener.onTransition(seat, Transition.RESERVED);
+        if (ring != null) {
+            return putInRing(seat, block);
+        }
+        Seat left = null;
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            if (admission.full(size())) {
+                left = admit(seat, block);
+            }
+            if (left != seat) {
+                long now = SimulationClock.nanoTime();
+                if (heldSince != null) {
+                    heldSince[seat.getId()] = now;
+                }
+                if (deadlineHeap != null) {
+                    deadlineHeap.add(seat, now + holdTime);
+                } else if (left == null) {
+                    pendingPaymentReservations.add(seat);
+                }
+                admission.countAdmitted();
+                SeatTrace.print(seat.getId(), SeatTrace.RESERVED);
+                // Wake one payment thread for the new seat. Signalling only when the list
+                // was empty would strand a second waiter if two seats arrive before the
+                // first woken thread takes its seat.
+                profiler.signal(notEmpty);
+            }
+        } finally {
+            profiler.released();
+            lock.unlock();
+        }
+        // Release outside the lock: the seat map has its own
+        if (left != null) {
+            release(left);
+        }
+        return left != seat;
+    }
+
+    /**
+     * Restores a reserved seat to the list when the journal is replayed.
+     * The admission policy does not apply, so the list may start over its capacity,
+     * and the listener is not notified.
+     *
+     * @param seat The seat, already occupied.
      */
-    public synchronized void putPendingPayment(Seat seat){
-        boolean notify = false;
-        if(pendingPaymentReservations.isEmpty()){
-            // If the list was empty, notify waiting threads
-            notify = true;
+    void restorePendingPayment(Seat seat){
+        if (ring != null) {
+            // The ring holds every seat of the map
+            ring.offer(seat);
+            return;
+        }
+        lock.lock();
+        try {
+            long now = SimulationClock.nanoTime();
+            if (heldSince != null) {
+                heldSince[seat.getId()] = now;
+            }
+            if (deadlineHeap != null) {
+                deadlineHeap.add(seat, now + holdTime);
+            } else {
+                pendingPaymentReservations.add(seat);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
         }
-        pendingPaymentReservations.add(seat);
-        System.out.print("\n"+seat.getId()+" Reserved");
-        if(notify){
-            // Notify other threads that a reservation has been added
-            notifyAll();
+    }
+
+    /**
+     * Adds a seat to the ring of the RING handoff mode.
+     *
+     * @param seat The seat to be added to the ring.
+     * @param block False to release the seat instead of waiting when the ring is full.
+     * @return True if the seat was added, false if it was released.
+     */
+    private boolean putInRing(Seat seat, boolean block){
+        if (block ? ring.put(seat, "putPendingPayment") : ring.offer(seat)) {
+            SeatTrace.print(seat.getId(), SeatTrace.RESERVED);
+            return true;
         }
+        release(seat);
+        return false;
+    }
+
+    /**
+     * Gives up a hold the list does not keep: records the RELEASED transition, then
+     * returns the seat to the seat map, so no later reservation of the seat can be
+     * recorded before the release.
+     *
+     * @param seat The seat whose hold was rejected or shed.
+     */
+    private void release(Seat seat){
+        transitionListener.onTransition(seat, Transition.RELEASED);
+        SeatTrace.print(seat.getId(), SeatTrace.RELEASED);
+        if (seatMap != null) {
+            seatMap.release(seat);
+        }
+    }
+
+    /**
+     * Applies the admission policy to a seat offered to the full list.
+     * Called holding the lock.
+     *
+     * @param seat The seat offered to the list.
+     * @param block False to reject the seat instead of waiting when the policy is BLOCK.
+     * @return The seat to release: the offered seat, a shed seat it replaced in the list,
+     *         or null if room was made by a consumer.
+     */
+    private Seat admit(Seat seat, boolean block){
+        switch (admission.policy()) {
+            case BLOCK:
+                if (!block) {
+                    admission.countRejected();
+                    return seat;
+                }
+                StageWaitEvent waitEvent = StageWaitEvent.begin("putPendingPayment");
+                while (admission.full(size())) {
+                    admission.countBlocked();
+                    try {
+                        profiler.await(notFull);
+                    } catch (InterruptedException e) {
+                        // The system is stopping
+                        Thread.currentThread().interrupt();
+                        admission.countRejected();
+                        return seat;
+                    }
+                }
+                StageWaitEvent.end(waitEvent, size());
+                return null;
+            case SHED:
+                // Under earliest deadline first the new hold has the latest deadline, so it is the one shed
+                int index = deadlineHeap != null ? -1 : admission.sheddingIndex(pendingPaymentReservations, seat);
+                admission.countShed();
+                if (index < 0) {
+                    return seat;
+                }
+                return pendingPaymentReservations.set(index, seat);
+            default:
+                admission.countRejected();
+                return seat;
+        }
+    }
+
+    /**
+     * Sets the seat map the seats this list rejects or sheds when full are released to.
+     *
+     * @param seatMap The seat map the seats were reserved from.
+     */
+    public void setSeatMap(SeatMap seatMap){
+        this.seatMap = seatMap;
+    }
+
+    /**
+     * Gets whether seats keep coming back to the seat map while the system runs,
+     * because the list rejects or sheds holds when full. Reservation threads must
+     * then keep serving customers after the flight first sells out.
+     *
+     * @return True if the list releases the holds it leaves out to a seat map.
+     */
+    public boolean releasesHolds(){
+        return ring == null && seatMap != null && admission.leavesOut();
+    }
+
+    /**
+     * Gets whether the list is at capacity.
+     *
+     * @return True if the list is bounded and full.
+     */
+    public boolean full(){
+        if (ring != null) {
+            return ring.size() >= ring.capacity();
+        }
+        long requested = profiler.requesting();
+        lock.lock();
+        try {
+            profiler.acquired(requested);
+            return admission.full(size());
+        } finally {
+            profiler.released();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the capacity, policy and counters of the list.
+     *
+     * @return The admission control of the list.
+     */
+    public AdmissionControl getAdmission(){
+        return admission;
+    }
+
+    /**
+     * Gets the contention profile of the list lock.
+     *
+     * @return The profiler; disabled unless Constants.getMonitorProfiling() and not in the RING handoff mode.
+     */
+    public MonitorProfiler getMonitorProfiler(){
+        return profiler;
+    }
+
+    /**
+     * Sets the listener notified before a seat is added to the list.
+     *
+     * @param transitionListener The listener, for example the reservation journal.
+     */
+    public void setTransitionListener(TransitionListener transitionListener){
+        this.transitionListener = transitionListener;
     }
 
     /**
@@ -81,6 +389,26 @@ public class PendingPaymentReservations {
      * @return The size of the pending payment list.
      */
     public int size(){
-        return pendingPaymentReservations.size();
+        if (ring != null) {
+            return ring.size();
+        }
+        return deadlineHeap != null ? deadlineHeap.size() : pendingPaymentReservations.size();
+    }
+
+    /**
+     * Generates a summary of the time seats waited between reservation and removal for payment.
+     *
+     * @return The summary, labelled with the scheduling mode.
+     */
+    public String holdToPaymentSummary(){
+        if (ring != null) {
+            return "\nHold-to-payment latency: not recorded in the RING handoff mode, see the pending payment dwell time\n";
+        }
+        lock.lock();
+        try {
+            return "\nHold-to-payment latency (" + scheduling + "): " + holdToPayment.summaryMillis() + "\n";
+        } finally {
+            lock.unlock();
+        }
     }
 }
\ No newline at end of file
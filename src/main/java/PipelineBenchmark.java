@@ -0,0 +1,135 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    PipelineBenchmark.java
+ * @brief   Compares a pipeline with a list between every pair of stages and a fused one.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The PipelineBenchmark class builds the reservation, payment, validation and
+ * verification stages with a PipelineBuilder, every stage with the same
+ * parallelism and no simulated processing time, and pushes every seat of a seat
+ * map through them. Every payment is approved and every seat validated, so every
+ * seat crosses every stage. It runs the pipeline unfused, with the reservation
+ * lists between the stages, partly fused (validation followed by verification in
+ * the same worker) and fully fused, and prints the throughput and the
+ * reservation-to-verification latency percentiles (from SeatTimeline) of the best
+ * of the measured rounds.
+ * Run it with: gradle pipelineBenchmark --args="<rows> <columns> <threadsPerStage> <rounds>"
+ */
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+public class PipelineBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Rows (1000), columns (100), threads per stage (1) and measured rounds (3).
+     * @throws InterruptedException If interrupted while waiting for a round.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int threadsPerStage = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        SeatTrace.setEnabled(false);
+        PrintStream console = System.out;
+        // The workers print a message when they end; drop it
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        console.printf("%d seats, %d thread(s) per stage, best of %d rounds%n", rows * columns, threadsPerStage, rounds);
+        console.printf("%-62s %14s  %s%n", "pipeline", "seats/s", "reserve -> verify latency");
+        // Validation and verification get one more worker in the partly fused run, so only they fuse
+        int[][] runs = {{0, 0}, {1, 1}, {1, 0}};
+        for (int[] run : runs) {
+            boolean fusion = run[0] == 1;
+            int extra = run[1];
+            // One unmeasured round to warm up the JIT
+            round(rows, columns, threadsPerStage, extra, fusion, new SeatTimeline(rows * columns));
+            double bestThroughput = 0;
+            String bestLatency = "";
+            String plan = "";
+            for (int r = 0; r < rounds; r++) {
+                SeatTimeline timeline = new SeatTimeline(rows * columns);
+                Object[] result = round(rows, columns, threadsPerStage, extra, fusion, timeline);
+                double throughput = (Double) result[0];
+                plan = (String) result[1];
+                if (throughput > bestThroughput) {
+                    bestThroughput = throughput;
+                    bestLatency = timeline.dwellTimes(Transition.RESERVED, Transition.VERIFIED).summaryMillis();
+                }
+            }
+            console.printf("%-62s %14.0f  %s%n", plan, bestThroughput, bestLatency);
+        }
+        System.setOut(console);
+    }
+
+    /**
+     * Moves every seat of a fresh seat map from reservation to verification.
+     *
+     * @param extra Workers added to the validation and verification stages.
+     * @return The throughput in seats per second and the plan of the pipeline.
+     */
+    private static Object[] round(int rows, int columns, int threadsPerStage, int extra, boolean fusion, SeatTimeline timeline)
+            throws InterruptedException {
+        Constants constants = new Constants();
+        constants.setRows(rows);
+        constants.setColumns(columns);
+        constants.setConfirmedSeatProbability(101);
+        constants.setCheckSeatProbability(101);
+        int seats = rows * columns;
+        SeatMap seatMap = new SeatMap(constants);
+        PendingPaymentReservations pending = new PendingPaymentReservations(constants);
+        ConfirmedReservations confirmed = new ConfirmedReservations(constants);
+        CancelledReservations cancelled = new CancelledReservations(constants);
+        VerifiedReservations verified = new VerifiedReservations(constants);
+        pending.setTransitionListener(timeline);
+        confirmed.setTransitionListener(timeline);
+        cancelled.setTransitionListener(timeline);
+        verified.setTransitionListener(timeline);
+
+        ReservationProcess reservation = new ReservationProcess(constants, seatMap, pending);
+        PaymentProcess payment = new PaymentProcess(constants, pending, confirmed, cancelled);
+        CancellationValidationProcess validation = new CancellationValidationProcess(constants, confirmed, cancelled);
+        VerificationProcess verification = new VerificationProcess(constants, confirmed, verified);
+        PipelineBuilder pipeline = new PipelineBuilder(constants, timeline)
+                .fusion(fusion)
+                .source("reservation", threadsPerStage, 0, none -> {
+                    // The seat map has no idempotency cache, so the request key is not used
+                    Seat seat = reservation.reserve(0);
+                    return seat == null ? PipelineBuilder.END : seat;
+                })
+                .then(Transition.RESERVED, PipelineBuilder.Link.of(pending::putPendingPayment, pending::removePendingPayment, false),
+                        "payment", threadsPerStage, 0, seat -> payment.settle(seat, PaymentProcess.paymentKey(seat)))
+                .then(Transition.PAID, PipelineBuilder.Link.of(confirmed::putConfirmed, confirmed::removeConfirmed, false),
+                        "validation", threadsPerStage + extra, 0, validation::validate)
+                .then(Transition.CHECKED, PipelineBuilder.Link.of(confirmed::putValidated, confirmed::removeChecked, false),
+                        "verification", threadsPerStage + extra, 0, seat -> {
+                            verification.verify(seat);
+                            return null;
+                        });
+
+        List<Thread> threads = pipeline.build();
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        while (verified.size() + cancelled.size() < seats) {
+            Thread.sleep(1);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // The workers of the later stages are waiting for seats that will not come
+        constants.flagDown();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (cancelled.size() != 0) {
+            throw new IllegalStateException(cancelled.size() + " seats were cancelled");
+        }
+        return new Object[]{seats / seconds, pipeline.plan()};
+    }
+}
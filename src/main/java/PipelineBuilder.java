@@ -0,0 +1,347 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    PipelineBuilder.java
+ * @brief   Builds the process threads from composable stages, fusing adjacent ones.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The PipelineBuilder class builds the worker threads of a seat pipeline from
+ * stages with a declared parallelism. A Stage turns the seat it is handed into the
+ * seat it hands on, or null when the seat leaves the pipeline (it was cancelled or
+ * verified); the first stage, the source, is handed null and produces seats until
+ * it returns END. Consecutive stages are connected by a Link, the reservation list
+ * that records the transition and from which the workers of the next stage take
+ * the seat.
+ * When fusion is enabled and two adjacent stages declare the same parallelism, the
+ * stages are fused: one group of workers runs both back to back on the same seat,
+ * so the seat skips the list between them, with its lock, the wake-up of a waiting
+ * thread and the context switch to it. The fused edge still notifies the
+ * TransitionListener and prints the seat trace, as the list would. A shared link,
+ * one that other producers also fill (the resale desk, the journal replay), is
+ * never fused, or the seats they add would never be taken.
+ * Each stage sleeps for its processing time after handling a seat, as the process
+ * threads do. The workers stop when the global flag goes down, when they are
+ * interrupted while waiting on a link or, for the source, when it returns END.
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class PipelineBuilder {
+    public static final Seat END = new Seat(); ///< Returned by the source stage when it has no more seats to produce.
+
+    /**
+     * One step of the pipeline, run by every worker of its stage.
+     */
+    public interface Stage {
+        /**
+         * Processes one seat.
+         *
+         * @param seat The seat handed on by the previous stage, or null for the source.
+         * @return The seat to hand to the next stage, null if the seat leaves the pipeline,
+         *         or END from the source when it has no more seats.
+         */
+        Seat process(Seat seat);
+    }
+
+    /**
+     * The reservation list between two stages.
+     */
+    public interface Link {
+        /**
+         * Adds a seat, recording its transition.
+         *
+         * @param seat The seat handed on.
+         */
+        void put(Seat seat);
+
+        /**
+         * Removes a seat, waiting for one.
+         *
+         * @return The seat, or null if the thread was interrupted.
+         */
+        Seat take();
+
+        /**
+         * Gets whether other producers also add seats to the list, so it must not be fused away.
+         *
+         * @return True for a shared link.
+         */
+        default boolean isShared() {
+            return false;
+        }
+
+        /**
+         * Creates a link from the methods of a reservation list.
+         *
+         * @param put Adds a seat to the list.
+         * @param take Removes a seat from the list.
+         * @param shared Whether other producers also add seats to the list; a shared link is never fused.
+         * @return The link.
+         */
+        static Link of(Consumer<Seat> put, Supplier<Seat> take, boolean shared) {
+            return new Link() {
+                public void put(Seat seat) {
+                    put.accept(seat);
+                }
+
+                public Seat take() {
+                    return take.get();
+                }
+
+                public boolean isShared() {
+                    return shared;
+                }
+            };
+        }
+    }
+
+    /**
+     * A declared stage and the link feeding it.
+     */
+    private static final class StageSpec {
+        final String name; ///< Name of the stage.
+        final int parallelism; ///< Number of workers.
+        final long processTime; ///< Milliseconds a worker sleeps after each seat.
+        final Stage stage; ///< The step run on each seat.
+        final Transition handoff; ///< Transition recorded when a seat is handed to the stage, null for the source.
+        final Link link; ///< List feeding the stage, null for the source.
+
+        StageSpec(String name, int parallelism, long processTime, Stage stage, Transition handoff, Link link) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.processTime = processTime;
+            this.stage = stage;
+            this.handoff = handoff;
+            this.link = link;
+        }
+    }
+
+    private final Constants constants; ///< Constants holding the global flag.
+    private final TransitionListener transitionListener; ///< Listener notified of the transitions of fused edges.
+    private final List<StageSpec> stages = new ArrayList<>(); ///< The stages, source first.
+    private boolean fusion = true; ///< Whether adjacent stages of equal parallelism are fused.
+
+    /**
+     * Constructor for the PipelineBuilder class.
+     *
+     * @param constants The constants holding the global flag.
+     * @param transitionListener The listener the reservation lists notify, also notified of fused edges.
+     */
+    public PipelineBuilder(Constants constants, TransitionListener transitionListener) {
+        this.constants = constants;
+        this.transitionListener = transitionListener;
+    }
+
+    /**
+     * Declares the source stage.
+     *
+     * @param name The name of the stage, used in the thread names and the plan.
+     * @param parallelism The number of workers, at least 1.
+     * @param processTime The milliseconds a worker sleeps after each seat.
+     * @param stage The stage, handed null on each call.
+     * @return This builder.
+     */
+    public PipelineBuilder source(String name, int parallelism, long processTime, Stage stage) {
+        if (!stages.isEmpty()) {
+            throw new IllegalStateException("The pipeline already has a source");
+        }
+        return add(new StageSpec(name, parallelism, processTime, stage, null, null));
+    }
+
+    /**
+     * Declares the next stage.
+     *
+     * @param handoff The transition recorded when a seat is handed to this stage.
+     * @param link The list between the previous stage and this one.
+     * @param name The name of the stage, used in the thread names and the plan.
+     * @param parallelism The number of workers, at least 1.
+     * @param processTime The milliseconds a worker sleeps after each seat.
+     * @param stage The stage.
+     * @return This builder.
+     */
+    public PipelineBuilder then(Transition handoff, Link link, String name, int parallelism, long processTime, Stage stage) {
+        if (stages.isEmpty()) {
+            throw new IllegalStateException("The pipeline needs a source first");
+        }
+        return add(new StageSpec(name, parallelism, processTime, stage, handoff, link));
+    }
+
+    private PipelineBuilder add(StageSpec spec) {
+        if (spec.parallelism < 1) {
+            throw new IllegalArgumentException("Stage " + spec.name + " needs at least one worker: " + spec.parallelism);
+        }
+        stages.add(spec);
+        return this;
+    }
+
+    /**
+     * Sets whether adjacent stages of equal parallelism are fused.
+     *
+     * @param fusion True to fuse, false to connect every pair of stages with its link.
+     * @return This builder.
+     */
+    public PipelineBuilder fusion(boolean fusion) {
+        this.fusion = fusion;
+        return this;
+    }
+
+    /**
+     * Generates the plan of the pipeline: the worker groups, each with its fused stages.
+     *
+     * @return The plan, e.g. "reservation x3 | payment x2 | validation+verification x2".
+     */
+    public String plan() {
+        StringBuilder plan = new StringBuilder();
+        for (int[] group : groups()) {
+            if (plan.length() > 0) {
+                plan.append(" | ");
+            }
+            plan.append(groupName(group)).append(" x").append(stages.get(group[0]).parallelism);
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Creates the worker threads, not started yet.
+     *
+     * @return The threads of every worker group, named after the group.
+     */
+    public List<Thread> build() {
+        if (stages.isEmpty()) {
+            throw new IllegalStateException("The pipeline has no stages");
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int[] group : groups()) {
+            String name = groupName(group);
+            for (int i = 0; i < stages.get(group[0]).parallelism; i++) {
+                threads.add(new Thread(new Worker(group[0], group[1], name), name + (i + 1)));
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * Splits the stages into runs of fused stages.
+     *
+     * @return The first and last stage of each group.
+     */
+    private List<int[]> groups() {
+        List<int[]> groups = new ArrayList<>();
+        int first = 0;
+        for (int s = 1; s <= stages.size(); s++) {
+            if (s == stages.size() || !fused(s)) {
+                groups.add(new int[]{first, s - 1});
+                first = s;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Gets whether a stage runs in the same workers as the previous one.
+     */
+    private boolean fused(int stage) {
+        StageSpec spec = stages.get(stage);
+        return fusion && !spec.link.isShared() && spec.parallelism == stages.get(stage - 1).parallelism;
+    }
+
+    private String groupName(int[] group) {
+        StringBuilder name = new StringBuilder(stages.get(group[0]).name);
+        for (int s = group[0] + 1; s <= group[1]; s++) {
+            name.append('+').append(stages.get(s).name);
+        }
+        return name.toString();
+    }
+
+    /**
+     * Records the transition of a seat handed on within a worker, as its list would.
+     */
+    private void handOver(Seat seat, Transition handoff) {
+        transitionListener.onTransition(seat, handoff);
+        SeatTrace.print(seat.getId(), traceLabel(handoff));
+    }
+
+    private static byte[] traceLabel(Transition transition) {
+        switch (transition) {
+            case RESERVED:
+                return SeatTrace.RESERVED;
+            case PAID:
+                return SeatTrace.PAID;
+            case CHECKED:
+                return SeatTrace.CHECKED;
+            case CANCELLED:
+                return SeatTrace.CANCELED;
+            case RELEASED:
+                return SeatTrace.RELEASED;
+            default:
+                return SeatTrace.VERIFIED;
+        }
+    }
+
+    /**
+     * Runs a group of fused stages on one seat at a time.
+     */
+    private final class Worker implements Runnable {
+        private final StageSpec[] group; ///< The fused stages, in order.
+        private final Link input; ///< The list the first stage takes from, or null for the source.
+        private final Link output; ///< The list the last stage puts into, or null for the sink.
+        private final String name; ///< The name of the group.
+
+        Worker(int first, int last, String name) {
+            group = stages.subList(first, last + 1).toArray(new StageSpec[0]);
+            input = stages.get(first).link;
+            output = last + 1 < stages.size() ? stages.get(last + 1).link : null;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            work:
+            while (constants.getGlobalFlag() && !Thread.currentThread().isInterrupted()) {
+                Seat seat = null;
+                if (input != null) {
+                    seat = input.take();
+                    if (seat == null) {
+                        // Interrupted: the system is stopping
+                        break;
+                    }
+                }
+                for (int s = 0; s < group.length; s++) {
+                    if (s > 0) {
+                        handOver(seat, group[s].handoff);
+                    }
+                    seat = group[s].stage.process(seat);
+                    if (seat == END) {
+                        break work;
+                    }
+                    pause(group[s].processTime);
+                    if (seat == null) {
+                        // The seat left the pipeline
+                        continue work;
+                    }
+                }
+                if (output != null) {
+                    output.put(seat);
+                }
+            }
+            System.out.print("\n" + name + " pipeline thread ended");
+        }
+
+        /**
+         * Simulates the processing time of a stage.
+         */
+        private void pause(long millis) {
+            if (millis <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                // The system is stopping: keep the interrupt so the next take() returns null
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
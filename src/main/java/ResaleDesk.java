@@ -0,0 +1,127 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ResaleDesk.java
+ * @brief   Resells cancelled seats, serving the priority waitlist first.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ResaleDesk class recycles the seats of cancelled reservations instead of
+ * discarding them. Customers who found the flight sold out join a waitlist kept in
+ * a PriorityBlockingQueue (O(log n) insertion and removal, safe for every thread).
+ * A cancelled seat is offered to the waitlist first: the best waiting customer gets
+ * it reserved directly and it enters the pending payment record again. Only when
+ * nobody is waiting does the seat return to the seat map as AVAILABLE.
+ * The waitlist has a capacity: customers who find it full are turned away, so it
+ * grows with the demand for cancelled seats, not with the running time.
+ */
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResaleDesk {
+    private final SeatMap seatMap; ///< The seat map cancelled seats return to.
+    private final PendingPaymentReservations pendingPaymentReservations; ///< Receives the resold seats.
+    private final PriorityBlockingQueue<WaitingCustomer> waitlist = new PriorityBlockingQueue<>(); ///< Customers waiting for a seat.
+    private final AtomicLong arrivals = new AtomicLong(); ///< Arrival order of the waiting customers.
+    private final int capacity; ///< Most customers on the waitlist.
+    private final AtomicInteger waiting = new AtomicInteger(); ///< Customers on the waitlist or joining it, at most capacity.
+    private final AtomicLong turnedAway = new AtomicLong(); ///< Customers who found the waitlist full.
+    private final AtomicLong resold = new AtomicLong(); ///< Seats handed to a waiting customer.
+    private final AtomicLong returned = new AtomicLong(); ///< Seats returned to the seat map.
+    private final LatencyHistogram waitlistTimes = new LatencyHistogram(); ///< Time customers spent on the waitlist.
+
+    /**
+     * Constructor for the ResaleDesk class.
+     *
+     * @param seatMap The seat map cancelled seats return to.
+     * @param pendingPaymentReservations The record resold seats are added to.
+     * @param capacity The most customers on the waitlist.
+     */
+    public ResaleDesk(SeatMap seatMap, PendingPaymentReservations pendingPaymentReservations, int capacity) {
+        this.seatMap = seatMap;
+        this.pendingPaymentReservations = pendingPaymentReservations;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a customer who found no available seat to the waitlist, unless it is full.
+     *
+     * @param priority Priority of the customer; higher is served first.
+     * @return True if the customer joined, false if the waitlist was full.
+     */
+    public boolean join(int priority) {
+        int current;
+        do {
+            current = waiting.get();
+            if (current >= capacity) {
+                turnedAway.incrementAndGet();
+                return false;
+            }
+        } while (!waiting.compareAndSet(current, current + 1));
+        waitlist.add(new WaitingCustomer(priority, arrivals.getAndIncrement()));
+        return true;
+    }
+
+    /**
+     * Resells the seat of a cancelled reservation.
+     * The best waiting customer gets it reserved directly; without waiting customers,
+     * or when the pending payment list is full, the seat becomes AVAILABLE in the seat map.
+     *
+     * @param seat The seat of the cancelled reservation.
+     */
+    public void resell(Seat seat) {
+        // A full pending list cannot take the resold seat: give it back to the seat map
+        WaitingCustomer customer = pendingPaymentReservations.full() ? null : waitlist.poll();
+        if (customer == null) {
+            seatMap.release(seat);
+            returned.incrementAndGet();
+            return;
+        }
+        waiting.decrementAndGet();
+        seatMap.resell(seat);
+        synchronized (waitlistTimes) {
+            waitlistTimes.record(SimulationClock.nanoTime() - customer.getJoinedAt());
+        }
+        resold.incrementAndGet();
+        // Never wait for room: this runs on the threads that empty the pending list
+        if (!pendingPaymentReservations.putPendingPayment(seat, false)) {
+            // The list filled up meanwhile and released the seat to the seat map
+            returned.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of customers waiting for a seat.
+     *
+     * @return The size of the waitlist.
+     */
+    public int waiting() {
+        return waitlist.size();
+    }
+
+    /**
+     * Gets the number of cancelled seats returned to the seat map.
+     *
+     * @return The number of returned seats.
+     */
+    public long returned() {
+        return returned.get();
+    }
+
+    /**
+     * Generates a summary of the resale activity.
+     *
+     * @return The summary.
+     */
+    public String summary() {
+        String times;
+        synchronized (waitlistTimes) {
+            times = waitlistTimes.summaryMillis();
+        }
+        return "\nRESALE: resold to waitlist " + resold.get()
+                + ", returned to seat map " + returned.get()
+                + ", still waiting " + waiting()
+                + ", turned away " + turnedAway.get()
+                + "\nWaitlist time: " + times + "\n";
+    }
+}
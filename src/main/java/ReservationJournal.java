@@ -0,0 +1,326 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ReservationJournal.java
+ * @brief   Write-ahead journal of seat transitions with group commit.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ReservationJournal class appends one fixed-size record (seat ID, transition)
+ * for every transition reported by the reservation records. Stage threads only
+ * copy their record into a shared buffer; a single flusher thread swaps buffers,
+ * writes the batch and forces the file according to the FsyncPolicy. Every record
+ * appended while a force is running joins the next batch, so many transitions from
+ * all stage threads share one FileChannel.force(). A batch that cannot be written
+ * is never acknowledged: the appenders waiting for it and every later append fail
+ * with an UncheckedIOException, and close() throws the error again.
+ * recover() replays an existing journal into the seat map and the reservation records.
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ReservationJournal implements TransitionListener, AutoCloseable {
+    public static final int RECORD_SIZE = 8; ///< Bytes per record: seat ID and transition ordinal.
+    private static final int BUFFER_SIZE = 64 * 1024; ///< Bytes buffered per batch.
+
+    private final FileChannel channel; ///< The journal file, opened for appending.
+    private final FsyncPolicy policy; ///< When the file is forced to disk.
+    private final long flushIntervalNanos; ///< Maximum time between forces under the INTERVAL policy.
+    private final Thread flusher; ///< Thread writing and forcing batches.
+
+    private ByteBuffer active = ByteBuffer.allocateDirect(BUFFER_SIZE); ///< Buffer receiving new records.
+    private ByteBuffer flushing = ByteBuffer.allocateDirect(BUFFER_SIZE); ///< Buffer being written by the flusher.
+    private long appendedSequence; ///< Number of records appended.
+    private long durableSequence; ///< Number of records written and forced as required by the policy.
+    private boolean flusherWaiting; ///< True while the flusher waits for records.
+    private boolean closed; ///< True once close() was called.
+    private IOException failure; ///< First write error, thrown by later appends and by close().
+
+    /**
+     * Opens (or creates) the journal and starts its flusher thread.
+     *
+     * @param path The journal file.
+     * @param policy When the file is forced to disk.
+     * @param flushInterval Maximum milliseconds between forces under the INTERVAL policy.
+     * @throws IOException If the file cannot be opened.
+     */
+    public ReservationJournal(Path path, FsyncPolicy policy, int flushInterval) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.policy = policy;
+        this.flushIntervalNanos = flushInterval * 1_000_000L;
+        this.flusher = new Thread(this::flushLoop, "reservationJournal");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Appends the transition to the journal.
+     * Under the ALWAYS policy it returns only once the record was forced to disk.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     * @throws UncheckedIOException If the journal failed to write a batch.
+     */
+    @Override
+    public void onTransition(Seat seat, Transition transition) {
+        append(seat.getId(), transition);
+    }
+
+    /**
+     * Appends a record and, under the ALWAYS policy, waits for its batch to be forced.
+     * Once a batch failed to be written, no record is accepted any more.
+     *
+     * @param seatId The ID of the seat.
+     * @param transition The transition being made.
+     * @throws UncheckedIOException If a batch failed to be written, including the batch of this record.
+     */
+    private synchronized void append(int seatId, Transition transition) {
+        boolean interrupted = false;
+        while (active.remaining() < RECORD_SIZE && !closed && failure == null) {
+            // The flusher swaps buffers as soon as it finishes the current batch
+            notifyAll();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                // Wait for room anyway, so the record is not lost; the interrupt is restored below
+                interrupted = true;
+            }
+        }
+        checkFailure();
+        if (closed) {
+            restoreInterrupt(interrupted);
+            return;
+        }
+        active.putInt(seatId).putInt(transition.ordinal());
+        long sequence = ++appendedSequence;
+        if (flusherWaiting) {
+            notifyAll();
+        }
+        if (policy == FsyncPolicy.ALWAYS) {
+            try {
+                while (durableSequence < sequence && !closed && failure == null && !interrupted) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                // The stage thread is being stopped: the record is buffered and still written
+                // by the flusher or on close, but the caller does not wait for it to be durable
+                interrupted = true;
+            }
+            if (durableSequence < sequence) {
+                checkFailure();
+            }
+        }
+        restoreInterrupt(interrupted);
+    }
+
+    /**
+     * Throws the first write error, if any. Called holding the monitor.
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("The reservation journal could not be written", failure);
+        }
+    }
+
+    private static void restoreInterrupt(boolean interrupted) {
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loop run by the flusher thread: takes the buffered batch, writes it and forces
+     * the file as the policy requires, then acknowledges every record in the batch.
+     */
+    private void flushLoop() {
+        long lastForce = System.nanoTime();
+        boolean unforced = false; // Written batches not forced yet (INTERVAL policy)
+        while (true) {
+            long batchEnd;
+            synchronized (this) {
+                while (active.position() == 0 && !closed) {
+                    flusherWaiting = true;
+                    try {
+                        if (policy == FsyncPolicy.INTERVAL) {
+                            wait(Math.max(1, flushIntervalNanos / 1_000_000L));
+                            if (unforced && active.position() == 0 && System.nanoTime() - lastForce >= flushIntervalNanos) {
+                                break;
+                            }
+                        } else {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        // Only close() stops the flusher
+                    }
+                }
+                flusherWaiting = false;
+                if (closed && active.position() == 0) {
+                    return;
+                }
+                ByteBuffer batch = active;
+                active = flushing;
+                flushing = batch;
+                batchEnd = appendedSequence;
+                // Appenders blocked on a full buffer can continue with the swapped one
+                notifyAll();
+            }
+
+            try {
+                flushing.flip();
+                while (flushing.hasRemaining()) {
+                    channel.write(flushing);
+                }
+                flushing.clear();
+                long now = System.nanoTime();
+                unforced = policy == FsyncPolicy.INTERVAL;
+                if (policy == FsyncPolicy.ALWAYS
+                        || (policy == FsyncPolicy.INTERVAL && now - lastForce >= flushIntervalNanos)) {
+                    channel.force(false);
+                    lastForce = now;
+                    unforced = false;
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+                flushing.clear();
+            }
+
+            synchronized (this) {
+                // After a failed batch no record is durable any more: waiting appenders get the error
+                if (failure == null) {
+                    durableSequence = batchEnd;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining records, forces the file unless the policy is NEVER,
+     * and closes the journal.
+     *
+     * @throws IOException If a batch could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (policy != FsyncPolicy.NEVER) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Replays a journal into the seat map and the reservation records.
+     * The last transition recorded for each seat decides where the seat is restored;
+     * a partial record at the end of the file (a torn write) is ignored. Live seats
+     * are restored around the admission policy of the lists, so none is blocked on,
+     * released or cancelled for lack of room; the lists may start over their capacity.
+     * Must be called before the journal is attached to the records and before any
+     * process thread starts.
+     *
+     * @param path The journal file; nothing is replayed if it does not exist.
+     * @param seatMap The seat map to restore seat statuses into.
+     * @param pendingPaymentReservations Receives seats whose last transition is RESERVED.
+     * @param confirmedReservations Receives seats whose last transition is PAID or CHECKED.
+     * @param cancelledReservations Receives seats whose last transition is CANCELLED, resold
+     *                              by its resale desk if one is set, so it must be set first;
+     *                              seats whose last transition is RELEASED stay AVAILABLE.
+     * @param verifiedReservations Receives seats whose last transition is VERIFIED.
+     * @param restored Notified of the last transition of every restored seat, e.g. the seat
+     *                 event log, so its read model counts the restored seats too, or a
+     *                 shared inventory, so restored payments are marked again.
+     * @return The number of records replayed.
+     * @throws IOException If the journal cannot be read.
+     */
+    public static long recover(Path path, SeatMap seatMap, PendingPaymentReservations pendingPaymentReservations,
+                               ConfirmedReservations confirmedReservations, CancelledReservations cancelledReservations,
+                               VerifiedReservations verifiedReservations, TransitionListener restored) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        // Last transition per seat ID, stored as ordinal + 1 (0 = never seen)
+        byte[] lastTransition = new byte[seatMap.size() + 1];
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    int seatId = buffer.getInt();
+                    Transition transition = Transition.fromOrdinal(buffer.getInt());
+                    if (transition == null || seatId < 1 || seatId >= lastTransition.length) {
+                        throw new IOException("Corrupt journal record " + records + " in " + path);
+                    }
+                    lastTransition[seatId] = (byte) (transition.ordinal() + 1);
+                    records++;
+                }
+                buffer.compact();
+            }
+        }
+
+        for (int id = 1; id < lastTransition.length; id++) {
+            if (lastTransition[id] == 0) {
+                continue;
+            }
+            Seat seat = seatMap.getSeat(id);
+            Transition last = Transition.fromOrdinal(lastTransition[id] - 1);
+            // Every seat but a released one is occupied again, cancelled ones included, so a
+            // resale desk releases or resells them like a live cancellation; a released hold
+            // was given up and the seat stays AVAILABLE
+            if (last != Transition.RELEASED) {
+                seat.occupiedSeat();
+                if (last == Transition.CHECKED || last == Transition.VERIFIED) {
+                    seat.checked();
+                }
+            }
+            // Notified once the seat is in its restored state, so a listener marking it, like
+            // a shared inventory recording a payment, is not undone by the occupation
+            restored.onTransition(seat, last);
+            switch (last) {
+                case RESERVED:
+                    pendingPaymentReservations.restorePendingPayment(seat);
+                    break;
+                case PAID:
+                    confirmedReservations.restoreConfirmed(seat);
+                    break;
+                case CHECKED:
+                    confirmedReservations.restoreChecked(seat);
+                    break;
+                case CANCELLED:
+                    cancelledReservations.putCanceled(seat);
+                    break;
+                case VERIFIED:
+                    verifiedReservations.putVerified(seat);
+                    break;
+                case RELEASED:
+                    break;
+            }
+        }
+        seatMap.recountAvailableSeats();
+        return records;
+    }
+}
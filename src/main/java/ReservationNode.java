@@ -0,0 +1,230 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ReservationNode.java
+ * @brief   Reservation node process owning a partition of the flights.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ReservationNode class is the server side of the partitioned mode. Every node
+ * runs in its own JVM, listens on a loopback TCP port and owns the seat maps of the
+ * flights the ReservationRouter sends to it (created on first use). Requests and
+ * responses are fixed-size binary frames:
+ * - Request (13 bytes): op (byte), request ID (int), flight ID (int), seat ID (int).
+ * - Response (9 bytes): request ID (int), status (byte), seat ID (int).
+ * SEARCH reuses the frame: the flight field carries the SeatClass ordinal, the
+ * seat field the minimum number of free seats, and the response seat field the
+ * best-fit flight found in the node's FlightAvailabilityIndex.
+ * Each connection is served by one thread, in order. Responses are buffered and
+ * flushed only when no further request is already waiting in the input buffer, so a
+ * pipelined burst of requests is answered with few writes.
+ * A node can be started with an inventory file; its flights are imported with
+ * their own sizes and initial statuses before the node accepts connections.
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReservationNode {
+    public static final byte RESERVE = 1; ///< Reserve any available seat of the flight.
+    public static final byte PAY = 2; ///< Pay the reserved seat.
+    public static final byte CANCEL = 3; ///< Cancel the reservation; the seat becomes available again.
+    public static final byte SEARCH = 4; ///< Find a flight with at least seat ID free seats in the class whose ordinal is the flight ID.
+
+    public static final byte OK = 0; ///< The operation was applied.
+    public static final byte SOLD_OUT = 1; ///< No seat of the flight is available.
+    public static final byte REJECTED = 2; ///< The seat is not in a state allowing the operation.
+
+    public static final int REQUEST_SIZE = 13; ///< Bytes per request frame.
+    public static final int RESPONSE_SIZE = 9; ///< Bytes per response frame.
+    public static final String READY = "READY"; ///< Printed with the port once the node accepts connections.
+
+    private final Constants constants; ///< Seat map dimensions of every flight.
+    private final ConcurrentHashMap<Integer, Flight> flights = new ConcurrentHashMap<>(); ///< Flights owned by this node.
+    private final FlightAvailabilityIndex index = new FlightAvailabilityIndex(); ///< Flights of this node by available seats per class.
+
+    /**
+     * Seat map of one flight plus the paid status of its seats.
+     */
+    private static class Flight {
+        final SeatMap seatMap;
+        final boolean[] paid;
+
+        Flight(Constants constants, int flightId, FlightAvailabilityIndex index) {
+            this(new SeatMap(constants, flightId, index));
+        }
+
+        Flight(SeatMap seatMap) {
+            this.seatMap = seatMap;
+            paid = new boolean[seatMap.size() + 1];
+        }
+    }
+
+    /**
+     * Constructor for the ReservationNode class.
+     *
+     * @param constants The constants providing the rows and columns of every flight.
+     */
+    public ReservationNode(Constants constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * Starts a node.
+     *
+     * @param args Port (0 picks a free one), rows and columns of every flight, and
+     *             optionally an inventory file and its format (CSV or FIXED_WIDTH).
+     * @throws IOException If the port cannot be opened or the inventory cannot be imported.
+     */
+    public static void main(String[] args) throws IOException {
+        Constants constants = new Constants();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        if (args.length > 2) {
+            constants.setRows(Integer.parseInt(args[1]));
+            constants.setColumns(Integer.parseInt(args[2]));
+        }
+        ReservationNode node = new ReservationNode(constants);
+        if (args.length > 3) {
+            InventoryFormat format = args.length > 4 ? InventoryFormat.valueOf(args[4]) : InventoryFormat.CSV;
+            node.load(Paths.get(args[3]), format);
+        }
+        node.serve(port);
+    }
+
+    /**
+     * Imports the flights of an inventory file, replacing any flight with the same ID.
+     *
+     * @param path The inventory file.
+     * @param format The layout of its lines.
+     * @return The number of flights imported.
+     * @throws IOException If the file cannot be read or a record is malformed.
+     */
+    public int load(Path path, InventoryFormat format) throws IOException {
+        Map<Integer, SeatMap> imported = new InventoryImporter(constants, index).importInventory(path, format);
+        for (Map.Entry<Integer, SeatMap> flight : imported.entrySet()) {
+            flights.put(flight.getKey(), new Flight(flight.getValue()));
+        }
+        return imported.size();
+    }
+
+    /**
+     * Accepts connections on the loopback interface and serves each one in its own thread.
+     *
+     * @param port The port to listen on, or 0 for a free one.
+     * @throws IOException If the port cannot be opened.
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println(READY + " " + server.getLocalPort());
+            System.out.flush();
+            while (true) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread thread = new Thread(() -> handle(socket), "reservationNode-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of one connection until it is closed.
+     *
+     * @param socket The connection.
+     */
+    private void handle(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024))) {
+            while (true) {
+                byte op = in.readByte();
+                int requestId = in.readInt();
+                int flightId = in.readInt();
+                int seatId = in.readInt();
+
+                long result = apply(op, flightId, seatId);
+                out.writeInt(requestId);
+                out.writeByte((int) (result >> 32));
+                out.writeInt((int) result);
+
+                // Answer a pipelined burst with one write
+                if (in.available() < REQUEST_SIZE) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException e) {
+            // The router closed the connection
+        } catch (IOException e) {
+            System.out.println("\nNode connection error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a request to the seat map of its flight.
+     *
+     * @param op The operation.
+     * @param flightId The flight.
+     * @param seatId The seat, ignored by RESERVE; the minimum free seats for SEARCH.
+     * @return The status in the upper 32 bits and the seat ID in the lower 32 bits.
+     */
+    private long apply(byte op, int flightId, int seatId) {
+        if (op == SEARCH) {
+            if (flightId < 0 || flightId >= SeatClass.values().length) {
+                return result(REJECTED, -1);
+            }
+            int found = index.bestFit(SeatClass.values()[flightId], seatId);
+            return result(found < 0 ? SOLD_OUT : OK, found);
+        }
+        if (op != RESERVE && op != PAY && op != CANCEL) {
+            return result(REJECTED, seatId);
+        }
+        // Only a reservation creates a flight: a seat of an unknown flight is not held
+        Flight flight = op == RESERVE ? flights.computeIfAbsent(flightId, id -> new Flight(constants, id, index)) : flights.get(flightId);
+        if (flight == null) {
+            return result(REJECTED, seatId);
+        }
+        switch (op) {
+            case RESERVE: {
+                Seat seat = flight.seatMap.reserve();
+                return seat == null ? result(SOLD_OUT, 0) : result(OK, seat.getId());
+            }
+            case PAY:
+            case CANCEL: {
+                if (seatId < 1 || seatId > flight.seatMap.size()) {
+                    return result(REJECTED, seatId);
+                }
+                Seat seat = flight.seatMap.getSeat(seatId);
+                synchronized (flight) {
+                    if (seat.getStatus() != SeatStatus.OCCUPIED) {
+                        return result(REJECTED, seatId);
+                    }
+                    if (op == PAY) {
+                        if (flight.paid[seatId]) {
+                            return result(REJECTED, seatId);
+                        }
+                        flight.paid[seatId] = true;
+                    } else {
+                        flight.paid[seatId] = false;
+                        flight.seatMap.release(seat);
+                    }
+                }
+                return result(OK, seatId);
+            }
+            default:
+                return result(REJECTED, seatId);
+        }
+    }
+
+    private static long result(byte status, int seatId) {
+        return ((long) status << 32) | (seatId & 0xFFFFFFFFL);
+    }
+}
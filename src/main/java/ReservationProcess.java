@@ -1,5 +1,7 @@
 import com.sun.tools.jconsole.JConsoleContext;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * @project Concurrent Flight Reservation System
  * @file    ReservationProcess.java
@@ -13,6 +15,10 @@ import com.sun.tools.jconsole.JConsoleContext;
  * The ReservationProcess class is responsible for handling the reservation
  * of seats in the flight reservation system. It interacts with the seat map
  * and manages the transfer of reserved seats to the pending payment list.
+ * Every reservation request carries a key (the thread ID and the iteration),
+ * so a seat map with an idempotency cache would answer a retry with the same seat.
+ * reserve() serves a single customer, so the reservation stage of a
+ * PipelineBuilder pipeline runs the same step as this thread.
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
@@ -21,6 +27,7 @@ public class ReservationProcess implements Runnable {
     private SeatMap seatMap;  ///< The seat map of the flight, used to manage seat reservations.
     private PendingPaymentReservations pendingPaymentReservations; ///< The list of reservations pending payment.
     private Constants constants; ///< The constants that control the reservation process behavior.
+    private ResaleDesk resaleDesk; ///< The waitlist customers join when the flight is sold out, or null.
 
     /**
      * Constructor for the ReservationProcess class.
@@ -36,6 +43,21 @@ public class ReservationProcess implements Runnable {
         this.constants = constants;
     }
 
+    /**
+     * Constructor for the ReservationProcess class with seat recycling.
+     * Customers arrive until the system stops and join the resale waitlist
+     * when no seat is available.
+     *
+     * @param constants The constants that configure the reservation process.
+     * @param seatMap The seat map used to manage seat reservations.
+     * @param pendingPaymentReservations The list of reservations pending payment.
+     * @param resaleDesk The desk whose waitlist customers join when the flight is sold out.
+     */
+    public ReservationProcess(Constants constants, SeatMap seatMap, PendingPaymentReservations pendingPaymentReservations, ResaleDesk resaleDesk) {
+        this(constants, seatMap, pendingPaymentReservations);
+        this.resaleDesk = resaleDesk;
+    }
+
     /**
      * The run method of the ReservationProcess class, which is executed when the thread starts.
      * This method reserves seats and adds them to the pending payment list for further processing.
@@ -43,10 +65,21 @@ public class ReservationProcess implements Runnable {
      */
     public void run() {
         int loopBounds = constants.getColumns() * constants.getRows() / constants.getNumReservationProcesses();
-        for (int i = 0; i < loopBounds; i++) {
-            // Reserve a seat and add it to the pending payment list
-            Seat seat = seatMap.reserve();
-            pendingPaymentReservations.putPendingPayment(seat);
+        // Customers keep arriving while the system runs, for resold seats and for holds the full pending list released
+        boolean reopens = resaleDesk != null || pendingPaymentReservations.releasesHolds();
+        if (reopens) {
+            loopBounds = Integer.MAX_VALUE;
+        }
+        long thread = Thread.currentThread().threadId();
+        for (int i = 0; i < loopBounds && constants.getGlobalFlag(); i++) {
+            // Reserve a seat and add it to the pending payment list; the key identifies this request
+            Seat seat = reserve((thread << 32) | i);
+            if (seat != null) {
+                pendingPaymentReservations.putPendingPayment(seat);
+            } else if (!reopens) {
+                // Every seat is taken (e.g. restored from the reservation journal)
+                break;
+            }
             try {
                 // Simulate the time taken for the reservation process
                 Thread.sleep(constants.getReservationProcessTime());
@@ -56,4 +89,20 @@ public class ReservationProcess implements Runnable {
         }
         System.out.print("\nReserve Process runnable thread ended");
     }
+
+    /**
+     * Serves one customer: reserves a seat for the request or, when the flight is
+     * sold out and seats are resold, puts the customer on the resale waitlist.
+     *
+     * @param requestKey The key identifying the request.
+     * @return The reserved seat, or null if no seat was available.
+     */
+    public Seat reserve(long requestKey) {
+        Seat seat = seatMap.reserve(requestKey);
+        if (seat == null && resaleDesk != null) {
+            // Sold out: the customer waits for a cancelled seat
+            resaleDesk.join(ThreadLocalRandom.current().nextInt(constants.getWaitlistPriorities()));
+        }
+        return seat;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,271 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ReservationRouter.java
+ * @brief   Routes reservation requests to the node owning the flight.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ReservationRouter class is the client side of the partitioned mode. Flights
+ * are mapped to ReservationNode processes with consistent hashing: every node
+ * places VIRTUAL_NODES points on a hash ring and a flight belongs to the first
+ * point at or after its own hash, so adding a node only moves the flights that
+ * fall on its points. Each node gets one loopback TCP connection. Requests are
+ * written as binary frames into a buffer and sent on flush(), so many requests are
+ * in flight per connection (pipelining); a reader thread per connection completes
+ * the matching futures as responses arrive.
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReservationRouter implements AutoCloseable {
+    private static final int VIRTUAL_NODES = 128; ///< Points per node on the hash ring.
+
+    private final NodeConnection[] nodes; ///< One connection per node.
+    private final TreeMap<Integer, Integer> ring = new TreeMap<>(); ///< Hash ring: point -> node index.
+
+    /**
+     * Response to a routed request.
+     */
+    public static class Response {
+        private final byte status;
+        private final int seatId;
+
+        Response(byte status, int seatId) {
+            this.status = status;
+            this.seatId = seatId;
+        }
+
+        /**
+         * Gets the status of the request.
+         *
+         * @return ReservationNode.OK, SOLD_OUT or REJECTED.
+         */
+        public byte getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets the seat of the request; for RESERVE, the reserved seat.
+         *
+         * @return The seat ID.
+         */
+        public int getSeatId() {
+            return seatId;
+        }
+    }
+
+    /**
+     * Connects to every node and builds the hash ring.
+     *
+     * @param addresses The loopback addresses of the nodes.
+     * @throws IOException If a node cannot be reached.
+     */
+    public ReservationRouter(List<InetSocketAddress> addresses) throws IOException {
+        nodes = new NodeConnection[addresses.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new NodeConnection(addresses.get(i));
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                ring.put(hash(i * VIRTUAL_NODES + v + 0x5bd1e995), i);
+            }
+        }
+    }
+
+    /**
+     * Gets the node owning a flight.
+     *
+     * @param flightId The flight.
+     * @return The index of the node in the address list.
+     */
+    public int nodeOf(int flightId) {
+        Map.Entry<Integer, Integer> point = ring.ceilingEntry(hash(flightId));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Requests any available seat of a flight. Sent on the next flush().
+     *
+     * @param flightId The flight.
+     * @return The response; its seat ID is the reserved seat when the status is OK.
+     */
+    public CompletableFuture<Response> reserve(int flightId) {
+        return nodes[nodeOf(flightId)].send(ReservationNode.RESERVE, flightId, 0);
+    }
+
+    /**
+     * Requests the payment of a reserved seat. Sent on the next flush().
+     *
+     * @param flightId The flight.
+     * @param seatId The reserved seat.
+     * @return The response.
+     */
+    public CompletableFuture<Response> pay(int flightId, int seatId) {
+        return nodes[nodeOf(flightId)].send(ReservationNode.PAY, flightId, seatId);
+    }
+
+    /**
+     * Requests the cancellation of a reserved seat. Sent on the next flush().
+     *
+     * @param flightId The flight.
+     * @param seatId The reserved seat.
+     * @return The response.
+     */
+    public CompletableFuture<Response> cancel(int flightId, int seatId) {
+        return nodes[nodeOf(flightId)].send(ReservationNode.CANCEL, flightId, seatId);
+    }
+
+    /**
+     * Asks every node for its best-fit flight: the one with the fewest free seats in
+     * the class that still has at least the requested number. Sent on the next flush().
+     *
+     * @param seatClass The class.
+     * @param minSeats The minimum number of free seats.
+     * @return The best-fit flight of every node that has one.
+     */
+    public CompletableFuture<List<Integer>> search(SeatClass seatClass, int minSeats) {
+        List<CompletableFuture<Response>> responses = new ArrayList<>(nodes.length);
+        for (NodeConnection node : nodes) {
+            responses.add(node.send(ReservationNode.SEARCH, seatClass.ordinal(), minSeats));
+        }
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<Integer> flights = new ArrayList<>();
+            for (CompletableFuture<Response> response : responses) {
+                if (response.join().getStatus() == ReservationNode.OK) {
+                    flights.add(response.join().getSeatId());
+                }
+            }
+            return flights;
+        });
+    }
+
+    /**
+     * Sends every buffered request.
+     *
+     * @throws IOException If a node connection failed.
+     */
+    public void flush() throws IOException {
+        for (NodeConnection node : nodes) {
+            node.flush();
+        }
+    }
+
+    /**
+     * Closes every node connection. Requests still waiting fail.
+     *
+     * @throws IOException If a connection cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        for (NodeConnection node : nodes) {
+            node.close();
+        }
+    }
+
+    /**
+     * Spreads consecutive IDs over the whole int range (MurmurHash3 finalizer).
+     */
+    private static int hash(int value) {
+        int h = value;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Pipelined connection to one node.
+     */
+    private static class NodeConnection {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final AtomicInteger nextRequestId = new AtomicInteger();
+        private final ConcurrentHashMap<Integer, CompletableFuture<Response>> waiting = new ConcurrentHashMap<>();
+        private volatile IOException failure;
+
+        NodeConnection(InetSocketAddress address) throws IOException {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            Thread reader = new Thread(this::readResponses, "reservationRouter-" + address.getPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        CompletableFuture<Response> send(byte op, int flightId, int seatId) {
+            CompletableFuture<Response> response = new CompletableFuture<>();
+            if (failure != null) {
+                response.completeExceptionally(failure);
+                return response;
+            }
+            int requestId = nextRequestId.getAndIncrement();
+            waiting.put(requestId, response);
+            // The reader may have failed, and failed what was waiting, before the put
+            IOException failed = failure;
+            if (failed != null) {
+                waiting.remove(requestId);
+                response.completeExceptionally(failed);
+                return response;
+            }
+            try {
+                synchronized (out) {
+                    out.writeByte(op);
+                    out.writeInt(requestId);
+                    out.writeInt(flightId);
+                    out.writeInt(seatId);
+                }
+            } catch (IOException e) {
+                waiting.remove(requestId);
+                response.completeExceptionally(e);
+            }
+            return response;
+        }
+
+        void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+        private void readResponses() {
+            try {
+                while (true) {
+                    int requestId = in.readInt();
+                    byte status = in.readByte();
+                    int seatId = in.readInt();
+                    CompletableFuture<Response> response = waiting.remove(requestId);
+                    if (response != null) {
+                        response.complete(new Response(status, seatId));
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+                // Remove each request before failing it; a request put after the failure was set is failed by its sender
+                for (Integer requestId : waiting.keySet()) {
+                    CompletableFuture<Response> response = waiting.remove(requestId);
+                    if (response != null) {
+                        response.completeExceptionally(e);
+                    }
+                }
+            }
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+}
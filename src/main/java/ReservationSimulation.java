@@ -0,0 +1,339 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ReservationSimulation.java
+ * @brief   Discrete-event simulation of the reservation pipeline on a virtual clock.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The ReservationSimulation class runs the same pipeline as the process threads,
+ * on the same seat map and reservation lists, on one thread and without sleeping.
+ * Every process thread becomes a simulated worker with the same loop:
+ * - Reservation: reserve a seat (or join the resale waitlist), then take the
+ *   reservation time.
+ * - Payment: take the payment time, then confirm or cancel a pending seat with
+ *   Constants.getConfirmedSeatProbability().
+ * - Cancellation/validation: check or cancel a confirmed seat with
+ *   Constants.getCheckSeatProbability(), then take the stage time.
+ * - Verification: verify a checked seat, then take the verification time.
+ * Instead of sleeping, a worker schedules its next step at the current virtual
+ * time plus its stage time in an event queue ordered by time (and by scheduling
+ * order on ties). Instead of waiting on an empty list, it is parked on that list and
+ * scheduled again as soon as a seat arrives. The simulation pops the earliest
+ * event, advances the SimulationClock to it and runs the step, so time jumps from
+ * event to event and a day of traffic takes as long as computing its events.
+ * The run ends when every seat is processed (the same condition as Main), when
+ * no worker has anything left to do, or at the requested virtual duration.
+ * Handing a seat to a list must never wait here, so a bounded list must not use
+ * the BLOCK admission policy.
+ */
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ReservationSimulation {
+    private static final int RESERVATION = 0; ///< Worker kind of a reservation process.
+    private static final int PAYMENT = 1; ///< Worker kind of a payment process.
+    private static final int CANCELLATION_VALIDATION = 2; ///< Worker kind of a cancellation/validation process.
+    private static final int VERIFICATION = 3; ///< Worker kind of a verification process.
+
+    private static final int PENDING = 0; ///< Workers parked on the pending payment list.
+    private static final int CONFIRMED = 1; ///< Workers parked on the confirmed list.
+    private static final int CHECKED = 2; ///< Workers parked on the checked list.
+
+    private static final long MILLIS = 1_000_000L; ///< Nanoseconds per millisecond.
+
+    private final Constants constants;
+    private final SeatMap seatMap;
+    private final PendingPaymentReservations pendingPaymentReservations;
+    private final ConfirmedReservations confirmedReservations;
+    private final CancelledReservations cancelledReservations;
+    private final VerifiedReservations verifiedReservations;
+    private final ResaleDesk resaleDesk; ///< Desk of the sold-out customers, or null.
+
+    private final int[] kinds; ///< Kind of each worker.
+    private final long[] remaining; ///< Steps left for each worker, or -1 for no limit.
+    private final boolean[] decided; ///< Whether a cancellation/validation worker drew its next action.
+    private final boolean[] check; ///< The drawn action: check (true) or cancel (false).
+
+    private final long[] times; ///< Time of the scheduled step of each worker.
+    private final long[] order; ///< Scheduling order of the step of each worker, for ties.
+    private final int[] heap; ///< Scheduled workers, a binary min-heap by time and order.
+    private int scheduled; ///< Number of workers in the heap.
+    private long nextOrder; ///< Next scheduling order.
+
+    private final int[][] parked; ///< Workers parked on each list, in arrival order.
+    private final int[] parkedHead; ///< Index of the first parked worker of each list.
+    private final int[] parkedCount; ///< Number of parked workers of each list.
+
+    private long events; ///< Steps run.
+    private long wallNanos; ///< Real time taken by run().
+    private long endTime; ///< Virtual time at the end of run().
+
+    /**
+     * Constructor for the ReservationSimulation class.
+     * Creates one worker per process thread configured in the constants.
+     *
+     * @param constants The stage times, probabilities and number of processes.
+     * @param seatMap The seat map of the flight.
+     * @param pendingPaymentReservations The list of reservations pending payment.
+     * @param confirmedReservations The list of confirmed and checked reservations.
+     * @param cancelledReservations The list of cancelled reservations.
+     * @param verifiedReservations The list of verified reservations.
+     * @param resaleDesk The resale desk when seats are recycled, or null.
+     * @throws IllegalArgumentException If a bounded list uses the BLOCK admission policy.
+     */
+    public ReservationSimulation(Constants constants, SeatMap seatMap, PendingPaymentReservations pendingPaymentReservations,
+                                 ConfirmedReservations confirmedReservations, CancelledReservations cancelledReservations,
+                                 VerifiedReservations verifiedReservations, ResaleDesk resaleDesk) {
+        if (constants.getReservationListCapacity() > 0 && constants.getAdmissionPolicy() == AdmissionPolicy.BLOCK) {
+            throw new IllegalArgumentException("The simulation cannot block on a full list: use the REJECT or SHED admission policy");
+        }
+        this.constants = constants;
+        this.seatMap = seatMap;
+        this.pendingPaymentReservations = pendingPaymentReservations;
+        this.confirmedReservations = confirmedReservations;
+        this.cancelledReservations = cancelledReservations;
+        this.verifiedReservations = verifiedReservations;
+        this.resaleDesk = resaleDesk;
+
+        int[] counts = {
+                constants.getNumReservationProcesses(),
+                constants.getNumPaymentProcess(),
+                constants.getNumCancellationValidationProcess(),
+                constants.getNumVerificationProcess()
+        };
+        int workers = Arrays.stream(counts).sum();
+        kinds = new int[workers];
+        remaining = new long[workers];
+        decided = new boolean[workers];
+        check = new boolean[workers];
+        times = new long[workers];
+        order = new long[workers];
+        heap = new int[workers];
+        parked = new int[3][workers];
+        parkedHead = new int[3];
+        parkedCount = new int[3];
+
+        int seats = constants.getRows() * constants.getColumns();
+        int worker = 0;
+        for (int kind = RESERVATION; kind <= VERIFICATION; kind++) {
+            for (int i = 0; i < counts[kind]; i++, worker++) {
+                kinds[worker] = kind;
+                remaining[worker] = -1;
+                if (kind == RESERVATION && resaleDesk == null && !pendingPaymentReservations.releasesHolds()) {
+                    remaining[worker] = seats / counts[kind];
+                } else if (kind == PAYMENT && !constants.getSeatRecycling()) {
+                    remaining[worker] = seats / counts[kind];
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the simulation from virtual time 0.
+     *
+     * @param duration Virtual time to simulate in nanoseconds, or 0 to run until every seat is processed.
+     * @return The virtual time at the end of the run, in nanoseconds.
+     * @throws IllegalStateException If the virtual clock was not started.
+     */
+    public long run(long duration) {
+        if (!SimulationClock.isVirtual()) {
+            throw new IllegalStateException("Start the virtual clock before creating the simulated system");
+        }
+        long start = System.nanoTime();
+        long now = SimulationClock.nanoTime();
+        for (int worker = 0; worker < kinds.length; worker++) {
+            // Payment threads sleep before taking their first seat; the others act first
+            schedule(worker, kinds[worker] == PAYMENT ? now + constants.getPaymentProcessTime() * MILLIS : now);
+        }
+        while (scheduled > 0 && constants.getGlobalFlag()) {
+            int worker = heap[0];
+            if (duration > 0 && times[worker] > duration) {
+                SimulationClock.advanceTo(duration);
+                break;
+            }
+            poll();
+            SimulationClock.advanceTo(times[worker]);
+            step(worker);
+            events++;
+            unpark();
+            if (processed() >= constants.getRows() * constants.getColumns()) {
+                constants.flagDown();
+            }
+        }
+        endTime = SimulationClock.nanoTime();
+        wallNanos = System.nanoTime() - start;
+        return endTime;
+    }
+
+    /**
+     * Gets the number of seats processed, the same count Main stops at.
+     */
+    private int processed() {
+        return verifiedReservations.size() + (resaleDesk == null ? cancelledReservations.size() : 0);
+    }
+
+    /**
+     * Runs one step of a worker at the current virtual time.
+     */
+    private void step(int worker) {
+        long now = SimulationClock.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (kinds[worker]) {
+            case RESERVATION: {
+                if (remaining[worker] == 0) {
+                    return;
+                }
+                Seat seat = seatMap.reserve();
+                if (seat == null) {
+                    if (resaleDesk != null) {
+                        // Sold out: the customer waits for a cancelled seat
+                        resaleDesk.join(random.nextInt(constants.getWaitlistPriorities()));
+                    } else if (!pendingPaymentReservations.releasesHolds()) {
+                        // Every seat is taken
+                        return;
+                    }
+                } else {
+                    pendingPaymentReservations.putPendingPayment(seat);
+                }
+                countStep(worker);
+                schedule(worker, now + constants.getReservationProcessTime() * MILLIS);
+                return;
+            }
+            case PAYMENT: {
+                if (remaining[worker] == 0) {
+                    return;
+                }
+                if (pendingPaymentReservations.size() == 0) {
+                    park(worker, PENDING);
+                    return;
+                }
+                Seat seat = pendingPaymentReservations.removePendingPayment();
+                if (random.nextInt(101) < constants.getConfirmedSeatProbability()) {
+                    confirmedReservations.putConfirmed(seat);
+                } else {
+                    cancelledReservations.putCanceled(seat);
+                }
+                countStep(worker);
+                schedule(worker, now + constants.getPaymentProcessTime() * MILLIS);
+                return;
+            }
+            case CANCELLATION_VALIDATION: {
+                if (!decided[worker]) {
+                    check[worker] = random.nextInt(101) < constants.getCheckSeatProbability();
+                    decided[worker] = true;
+                }
+                if (confirmedReservations.size() == 0) {
+                    park(worker, CONFIRMED);
+                    return;
+                }
+                if (check[worker]) {
+                    confirmedReservations.checkSeat();
+                } else {
+                    cancelledReservations.putCanceled(confirmedReservations.removeConfirmed());
+                }
+                decided[worker] = false;
+                schedule(worker, now + constants.getCancellationValidationProcessTime() * MILLIS);
+                return;
+            }
+            default: {
+                if (confirmedReservations.checkedSize() == 0) {
+                    park(worker, CHECKED);
+                    return;
+                }
+                verifiedReservations.putVerified(confirmedReservations.removeChecked());
+                schedule(worker, now + constants.getVerificationProcessTime() * MILLIS);
+            }
+        }
+    }
+
+    private void countStep(int worker) {
+        if (remaining[worker] > 0) {
+            remaining[worker]--;
+        }
+    }
+
+    /**
+     * Parks a worker on an empty list until a seat arrives.
+     */
+    private void park(int worker, int list) {
+        int[] queue = parked[list];
+        queue[(parkedHead[list] + parkedCount[list]) % queue.length] = worker;
+        parkedCount[list]++;
+    }
+
+    /**
+     * Schedules, at the current time, as many parked workers of each list as it has seats.
+     */
+    private void unpark() {
+        long now = SimulationClock.nanoTime();
+        for (int list = PENDING; list <= CHECKED; list++) {
+            int available = list == PENDING ? pendingPaymentReservations.size()
+                    : list == CONFIRMED ? confirmedReservations.size()
+                    : confirmedReservations.checkedSize();
+            int[] queue = parked[list];
+            while (parkedCount[list] > 0 && available > 0) {
+                schedule(queue[parkedHead[list]], now);
+                parkedHead[list] = (parkedHead[list] + 1) % queue.length;
+                parkedCount[list]--;
+                available--;
+            }
+        }
+    }
+
+    /**
+     * Adds the next step of a worker to the event queue.
+     */
+    private void schedule(int worker, long time) {
+        times[worker] = time;
+        order[worker] = nextOrder++;
+        int index = scheduled++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(worker, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = worker;
+    }
+
+    /**
+     * Removes the earliest step from the event queue.
+     */
+    private void poll() {
+        int last = heap[--scheduled];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= scheduled) {
+                break;
+            }
+            if (child + 1 < scheduled && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = last;
+    }
+
+    private boolean before(int a, int b) {
+        return times[a] < times[b] || (times[a] == times[b] && order[a] < order[b]);
+    }
+
+    /**
+     * Generates a summary of the run: virtual time simulated, real time taken and steps run.
+     *
+     * @return The summary.
+     */
+    public String summary() {
+        double simulatedSeconds = endTime / 1e9;
+        double wallSeconds = wallNanos / 1e9;
+        return String.format("%nSIMULATION: %.1f s simulated in %.3f s (%.0fx real time), %d events%n",
+                simulatedSeconds, wallSeconds, wallSeconds > 0 ? simulatedSeconds / wallSeconds : 0.0, events);
+    }
+}
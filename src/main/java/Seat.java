@@ -1,3 +1,6 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * @project Concurrent Flight Reservation System
  * @file    Seat.java
@@ -11,21 +14,38 @@
  * The Seat class represents an individual seat in the reservation system,
  * managing its status (available, occupied, unavailable) and other details
  * like the seat ID and whether it has been checked.
+ * The status, the checked flag and a version number are packed in a single long
+ * stamp. Every change is a compare-and-set that increments the version and is
+ * retried if another thread changed the stamp first, so transitions are safe
+ * without holding any lock; retries and conflicts are counted in SeatContention.
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
  */
 public class Seat {
-    private SeatStatus status; ///< The current status of the seat (available, occupied, or unavailable).
+    private static final SeatStatus[] STATUSES = SeatStatus.values(); ///< Cached to avoid cloning values() on every read.
+    private static final long CHECKED = 1L; ///< Bit 0 of the stamp: the checked flag.
+    private static final int STATUS_SHIFT = 1; ///< Bits 1-2 of the stamp: the status ordinal.
+    private static final int VERSION_SHIFT = 8; ///< Bits 8-63 of the stamp: the version.
+    private static final VarHandle STAMP; ///< Compare-and-set access to the stamp.
+
+    static {
+        try {
+            STAMP = MethodHandles.lookup().findVarHandle(Seat.class, "stamp", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long stamp; ///< Version, status (available, occupied, or unavailable) and checked flag of the seat.
     private int id; ///< The unique identifier for the seat.
-    private boolean checked = false; ///< The checked status of the seat, indicating whether it has been processed.
 
     /**
      * Default constructor for the Seat class.
      * Initializes the seat with the available status and a default ID of 0.
      */
     public Seat() {
-        this.status = SeatStatus.AVAILABLE;
+        this.stamp = pack(0, SeatStatus.AVAILABLE, false);
         this.id = 0;
     }
 
@@ -35,21 +55,82 @@ public class Seat {
      * @return The status of the seat as an enum value of type SeatStatus.
      */
     public SeatStatus getStatus() {
-        return status;
+        return statusOf(stamp);
+    }
+
+    /**
+     * Gets the version of the seat, incremented by every change of status or checked flag.
+     *
+     * @return The version of the seat.
+     */
+    public long getVersion() {
+        return stamp >>> VERSION_SHIFT;
+    }
+
+    /**
+     * Gets the stamp of the seat in a single read, so the status, checked flag and
+     * version decoded from it with statusOf, isChecked and versionOf are consistent
+     * with each other even while other threads change the seat.
+     *
+     * @return The stamp of the seat.
+     */
+    public long getStamp() {
+        return stamp;
     }
 
     /**
      * Marks the seat as occupied.
      */
     public void occupiedSeat() {
-        status = SeatStatus.OCCUPIED;
+        update(SeatStatus.OCCUPIED, false, SeatContention.OCCUPY);
+    }
+
+    /**
+     * Marks the seat as occupied only if it is available.
+     * If two threads try to occupy the same seat, exactly one of them succeeds.
+     *
+     * @return True if the seat was available and is now occupied by the caller.
+     */
+    public boolean tryOccupy() {
+        long current = stamp;
+        while (statusOf(current) == SeatStatus.AVAILABLE) {
+            if (STAMP.compareAndSet(this, current, next(current, SeatStatus.OCCUPIED, false))) {
+                SeatContention.OCCUPY.transition();
+                return true;
+            }
+            SeatContention.OCCUPY.retry();
+            current = stamp;
+        }
+        SeatContention.OCCUPY.conflict();
+        return false;
+    }
+
+    /**
+     * Marks the seat as available again and clears its checked status,
+     * so it can be sold once more after a cancellation.
+     */
+    public void availableSeat() {
+        update(SeatStatus.AVAILABLE, false, SeatContention.RELEASE);
+    }
+
+    /**
+     * Marks the seat as occupied and clears its checked status in a single step,
+     * so it is handed to a new customer without ever becoming available.
+     */
+    public void resoldSeat() {
+        update(SeatStatus.OCCUPIED, false, SeatContention.RESELL);
     }
 
     /**
      * Marks the seat as unavailable.
      */
     public void unavailableSeat() {
-        status = SeatStatus.UNAVAILABLE;
+        long current = stamp;
+        while (!STAMP.compareAndSet(this, current, next(current, SeatStatus.UNAVAILABLE, (current & CHECKED) != 0))) {
+            SeatContention.UNAVAILABLE.retry();
+            current = stamp;
+        }
+        SeatContention.UNAVAILABLE.transition();
     }
 
     /**
@@ -76,13 +157,76 @@ public class Seat {
      * @return True if the seat is checked, otherwise false.
      */
     public boolean getChecked() {
-        return checked;
+        return (stamp & CHECKED) != 0;
     }
 
     /**
      * Marks the seat as checked.
      */
     public void checked() {
-        checked = true;
+        long current = stamp;
+        while (!STAMP.compareAndSet(this, current, next(current, statusOf(current), true))) {
+            SeatContention.CHECK.retry();
+            current = stamp;
+        }
+        SeatContention.CHECK.transition();
+    }
+
+    /**
+     * Sets the status and checked flag, retrying until no other thread changes the seat in between.
+     */
+    private void update(SeatStatus status, boolean checked, SeatContention operation) {
+        long current = stamp;
+        while (!STAMP.compareAndSet(this, current, next(current, status, checked))) {
+            operation.retry();
+            current = stamp;
+        }
+        operation.transition();
+    }
+
+    /**
+     * Decodes the status from a stamp.
+     *
+     * @param stamp A stamp returned by getStamp().
+     * @return The status of the seat when the stamp was read.
+     */
+    public static SeatStatus statusOf(long stamp) {
+        return STATUSES[(int) (stamp >>> STATUS_SHIFT) & 3];
+    }
+
+    /**
+     * Decodes the checked flag from a stamp.
+     *
+     * @param stamp A stamp returned by getStamp().
+     * @return True if the seat was checked when the stamp was read.
+     */
+    public static boolean isChecked(long stamp) {
+        return (stamp & CHECKED) != 0;
+    }
+
+    /**
+     * Decodes the version from a stamp.
+     *
+     * @param stamp A stamp returned by getStamp().
+     * @return The version of the seat when the stamp was read.
+     */
+    public static long versionOf(long stamp) {
+        return stamp >>> VERSION_SHIFT;
+    }
+
+    private static long next(long current, SeatStatus status, boolean checked) {
+        return pack((current >>> VERSION_SHIFT) + 1, status, checked);
+    }
+
+    /**
+     * Encodes a version, status and checked flag into a stamp.
+     *
+     * @param version The version.
+     * @param status The status.
+     * @param checked The checked flag.
+     * @return The stamp, as getStamp() would return it.
+     */
+    public static long pack(long version, SeatStatus status, boolean checked) {
+        return version << VERSION_SHIFT | (long) status.ordinal() << STATUS_SHIFT | (checked ? CHECKED : 0);
     }
-}
\ No newline at end of file
+}
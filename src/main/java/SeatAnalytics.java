@@ -0,0 +1,351 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatAnalytics.java
+ * @brief   Parallel post-run analytics over the recorded seat lifecycle events.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatAnalytics class turns a LifecycleEventLog into:
+ * - Dwell-time percentiles per stage (time from one transition of a seat to its next one)
+ *   and from reservation to verification.
+ * - Cancellation rates (cancellations / reservations) by row and by column.
+ * - Throughput per transition over fixed time windows.
+ * Events are grouped by seat with one parallel sort of packed (seat ID, event index)
+ * keys, which keeps the recording order of each seat's transitions. A fork-join task
+ * then splits the sorted keys at seat boundaries and every leaf fills its own
+ * histograms and counters, which are merged on the way back up. Nothing is allocated
+ * per event besides the 8-byte sort key.
+ */
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+public class SeatAnalytics {
+    private static final int MIN_LEAF_SIZE = 1 << 16; ///< Smallest number of events handled by one task.
+    private static final int MAX_WINDOWS = 10_000; ///< Windows are widened to stay below this count.
+    private static final int TRANSITIONS = Transition.values().length;
+
+    private final LifecycleEventLog log; ///< The recorded events.
+    private final int rows; ///< Number of rows in the seat map.
+    private final int columns; ///< Number of columns in the seat map.
+    private final long windowNanos; ///< Requested width of a throughput window.
+
+    /**
+     * Constructor for the SeatAnalytics class.
+     *
+     * @param log The recorded seat lifecycle events.
+     * @param rows Number of rows in the seat map.
+     * @param columns Number of columns in the seat map.
+     * @param windowMillis Width of a throughput window in milliseconds.
+     */
+    public SeatAnalytics(LifecycleEventLog log, int rows, int columns, int windowMillis) {
+        this.log = log;
+        this.rows = rows;
+        this.columns = columns;
+        this.windowNanos = Math.max(1, windowMillis) * 1_000_000L;
+    }
+
+    /**
+     * Analyzes every recorded event using the common fork-join pool.
+     * Call it once the stage threads have stopped.
+     *
+     * @return The analysis report.
+     */
+    public Report analyze() {
+        int events = log.size();
+        if (events == 0) {
+            return new Report(new Partial(rows, columns, 0), windowNanos, 0, log.overflowed());
+        }
+
+        // Group the events by seat, keeping the recording order within each seat
+        long[] keys = new long[events];
+        Arrays.parallelSetAll(keys, i -> ((long) log.seatId(i) << 32) | i);
+        Arrays.parallelSort(keys);
+
+        long start = IntStream.range(0, events).parallel().mapToLong(log::timestamp).min().getAsLong();
+        long end = IntStream.range(0, events).parallel().mapToLong(log::timestamp).max().getAsLong();
+        long window = Math.max(windowNanos, (end - start) / MAX_WINDOWS + 1);
+        int windows = (int) ((end - start) / window) + 1;
+
+        int leafSize = Math.max(MIN_LEAF_SIZE, events / (ForkJoinPool.getCommonPoolParallelism() * 4 + 1));
+        Partial total = ForkJoinPool.commonPool().invoke(new AnalysisTask(keys, 0, events, leafSize, start, window, windows));
+        return new Report(total, window, events, log.overflowed());
+    }
+
+    /**
+     * Fork-join task analyzing a range of sorted keys that starts and ends at a seat boundary.
+     */
+    private class AnalysisTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L; ///< ForkJoinTask is Serializable; the tasks are never serialized.
+        private final long[] keys;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final long start;
+        private final long window;
+        private final int windows;
+
+        AnalysisTask(long[] keys, int from, int to, int leafSize, long start, long window, int windows) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.start = start;
+            this.window = window;
+            this.windows = windows;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > leafSize) {
+                // Move the split point to the next seat boundary, so no lifecycle is cut in two
+                int middle = (from + to) >>> 1;
+                long seat = keys[middle] >>> 32;
+                while (middle < to && keys[middle] >>> 32 == seat) {
+                    middle++;
+                }
+                if (middle < to) {
+                    AnalysisTask left = new AnalysisTask(keys, from, middle, leafSize, start, window, windows);
+                    AnalysisTask right = new AnalysisTask(keys, middle, to, leafSize, start, window, windows);
+                    left.fork();
+                    Partial result = right.compute();
+                    result.merge(left.join());
+                    return result;
+                }
+            }
+            return analyzeRange();
+        }
+
+        private Partial analyzeRange() {
+            Partial partial = new Partial(rows, columns, windows);
+            int previousSeat = -1;
+            int previousTransition = -1;
+            long previousTime = 0;
+            long reservedTime = -1;
+            for (int k = from; k < to; k++) {
+                int event = (int) keys[k];
+                int seatId = (int) (keys[k] >>> 32);
+                int transition = log.transition(event);
+                long time = log.timestamp(event);
+
+                if (seatId == previousSeat) {
+                    partial.dwell[previousTransition].record(time - previousTime);
+                } else {
+                    reservedTime = -1;
+                }
+                if (transition == Transition.RESERVED.ordinal()) {
+                    reservedTime = time;
+                } else if (transition == Transition.VERIFIED.ordinal() && reservedTime >= 0) {
+                    partial.reservationToVerified.record(time - reservedTime);
+                }
+
+                int row = (seatId - 1) / columns;
+                int column = (seatId - 1) % columns;
+                if (seatId >= 1 && row < rows) {
+                    if (transition == Transition.RESERVED.ordinal()) {
+                        partial.reservedByRow[row]++;
+                        partial.reservedByColumn[column]++;
+                    } else if (transition == Transition.CANCELLED.ordinal()) {
+                        partial.cancelledByRow[row]++;
+                        partial.cancelledByColumn[column]++;
+                    }
+                }
+                partial.throughput[(int) ((time - start) / window) * TRANSITIONS + transition]++;
+
+                previousSeat = seatId;
+                previousTransition = transition;
+                previousTime = time;
+            }
+            return partial;
+        }
+    }
+
+    /**
+     * Histograms and counters of one task, merged into the final result.
+     */
+    private static class Partial {
+        final LatencyHistogram[] dwell = new LatencyHistogram[TRANSITIONS];
+        final LatencyHistogram reservationToVerified = new LatencyHistogram();
+        final long[] reservedByRow;
+        final long[] cancelledByRow;
+        final long[] reservedByColumn;
+        final long[] cancelledByColumn;
+        final long[] throughput; ///< Events per window and transition: [window * TRANSITIONS + transition].
+
+        Partial(int rows, int columns, int windows) {
+            for (int t = 0; t < TRANSITIONS; t++) {
+                dwell[t] = new LatencyHistogram();
+            }
+            reservedByRow = new long[rows];
+            cancelledByRow = new long[rows];
+            reservedByColumn = new long[columns];
+            cancelledByColumn = new long[columns];
+            throughput = new long[windows * TRANSITIONS];
+        }
+
+        void merge(Partial other) {
+            for (int t = 0; t < TRANSITIONS; t++) {
+                dwell[t].merge(other.dwell[t]);
+            }
+            reservationToVerified.merge(other.reservationToVerified);
+            add(reservedByRow, other.reservedByRow);
+            add(cancelledByRow, other.cancelledByRow);
+            add(reservedByColumn, other.reservedByColumn);
+            add(cancelledByColumn, other.cancelledByColumn);
+            add(throughput, other.throughput);
+        }
+
+        private static void add(long[] into, long[] values) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += values[i];
+            }
+        }
+    }
+
+    /**
+     * Result of an analysis.
+     */
+    public static class Report {
+        private static final int MAX_PRINTED_ROWS = 10; ///< Rows with the highest cancellation rate printed.
+        private static final int MAX_PRINTED_WINDOWS = 60; ///< Windows printed one per line.
+
+        private final Partial result;
+        private final long window;
+        private final int events;
+        private final boolean overflowed;
+
+        private Report(Partial result, long window, int events, boolean overflowed) {
+            this.result = result;
+            this.window = window;
+            this.events = events;
+            this.overflowed = overflowed;
+        }
+
+        /**
+         * Gets the dwell times of the stage that starts with the given transition,
+         * i.e. the time from that transition of a seat to its next one.
+         *
+         * @param transition The transition starting the stage.
+         * @return The dwell-time histogram in nanoseconds.
+         */
+        public LatencyHistogram dwell(Transition transition) {
+            return result.dwell[transition.ordinal()];
+        }
+
+        /**
+         * Gets the time from the reservation of a seat to its verification.
+         *
+         * @return The histogram in nanoseconds.
+         */
+        public LatencyHistogram reservationToVerified() {
+            return result.reservationToVerified;
+        }
+
+        /**
+         * Gets the cancellation rate of a row.
+         *
+         * @param row The row, starting at 0.
+         * @return Cancellations divided by reservations, or 0 without reservations.
+         */
+        public double cancellationRateByRow(int row) {
+            return rate(result.cancelledByRow[row], result.reservedByRow[row]);
+        }
+
+        /**
+         * Gets the cancellation rate of a column.
+         *
+         * @param column The column, starting at 0.
+         * @return Cancellations divided by reservations, or 0 without reservations.
+         */
+        public double cancellationRateByColumn(int column) {
+            return rate(result.cancelledByColumn[column], result.reservedByColumn[column]);
+        }
+
+        /**
+         * Gets the number of windows covered by the events.
+         *
+         * @return The number of throughput windows.
+         */
+        public int windows() {
+            return result.throughput.length / TRANSITIONS;
+        }
+
+        /**
+         * Gets the throughput of a transition in a window.
+         *
+         * @param window The window, starting at 0.
+         * @param transition The transition.
+         * @return The transitions per second in that window.
+         */
+        public double throughput(int window, Transition transition) {
+            return result.throughput[window * TRANSITIONS + transition.ordinal()] * 1e9 / this.window;
+        }
+
+        private static double rate(long cancelled, long reserved) {
+            return reserved == 0 ? 0 : (double) cancelled / reserved;
+        }
+
+        /**
+         * Generates the printable report.
+         *
+         * @return The report.
+         */
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append("\nSeat lifecycle analytics: ").append(events).append(" events");
+            if (overflowed) {
+                report.append(" (event log full, later events were dropped)");
+            }
+            report.append("\n");
+            if (events == 0) {
+                return report.toString();
+            }
+
+            report.append("\nDwell time per stage:\n");
+            for (Transition transition : Transition.values()) {
+                LatencyHistogram histogram = dwell(transition);
+                if (histogram.count() > 0) {
+                    report.append(String.format("  after %-9s %s%n", transition, histogram.summaryMillis()));
+                }
+            }
+            report.append(String.format("  reserved->verified %s%n", result.reservationToVerified.summaryMillis()));
+
+            report.append("\nCancellation rate by column:\n ");
+            for (int column = 0; column < result.reservedByColumn.length; column++) {
+                report.append(String.format(" %d: %.1f%%", column + 1, cancellationRateByColumn(column) * 100));
+            }
+            Integer[] order = new Integer[result.reservedByRow.length];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, (a, b) -> Double.compare(cancellationRateByRow(b), cancellationRateByRow(a)));
+            report.append("\nHighest cancellation rate by row:\n ");
+            for (int i = 0; i < Math.min(MAX_PRINTED_ROWS, order.length); i++) {
+                int row = order[i];
+                report.append(String.format(" %d: %.1f%% (%d/%d)", row + 1, cancellationRateByRow(row) * 100,
+                        result.cancelledByRow[row], result.reservedByRow[row]));
+            }
+
+            report.append(String.format("%n%nThroughput per %.0f ms window (transitions/s):%n", window / 1e6));
+            int windows = windows();
+            double[] totals = new double[windows];
+            for (int w = 0; w < windows; w++) {
+                for (Transition transition : Transition.values()) {
+                    totals[w] += throughput(w, transition);
+                }
+            }
+            if (windows <= MAX_PRINTED_WINDOWS) {
+                for (int w = 0; w < windows; w++) {
+                    report.append(String.format("  %8.0f ms  total %10.1f  verified %10.1f  cancelled %10.1f%n",
+                            w * window / 1e6, totals[w], throughput(w, Transition.VERIFIED), throughput(w, Transition.CANCELLED)));
+                }
+            } else {
+                double[] sorted = totals.clone();
+                Arrays.sort(sorted);
+                report.append(String.format("  %d windows: min %.1f  median %.1f  max %.1f%n",
+                        windows, sorted[0], sorted[windows / 2], sorted[windows - 1]));
+            }
+            return report.toString();
+        }
+    }
+}
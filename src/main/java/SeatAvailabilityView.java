@@ -0,0 +1,171 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatAvailabilityView.java
+ * @brief   Read-optimized copy of the seat statuses for availability queries.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatAvailabilityView class keeps a byte per seat with its status and the
+ * number of available seats. Each status is written with a single atomic
+ * get-and-set, so publishing a seat never locks and reading one seat is a single
+ * volatile read; the reserving threads do not queue behind each other here.
+ * Only whole-map reads need more: every publication counts itself as started
+ * before writing and as finished after, the finished count sharing one atomic
+ * word with the number of available seats. A snapshot reads that word, copies the
+ * statuses and checks that no publication started since, as a sequence lock
+ * would, so the copy and the count match. A reader that keeps losing the race
+ * counts the available seats of its own copy instead, so it never waits for the
+ * writers and still never sees a count that does not match the statuses.
+ * Cancellations are written to the Seat directly by CancelledReservations, so the
+ * view also listens for the CANCELLED transition.
+ */
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SeatAvailabilityView implements TransitionListener {
+    private static final SeatStatus[] STATUSES = SeatStatus.values(); ///< Cached to avoid cloning values() on every read.
+    private static final int OPTIMISTIC_ATTEMPTS = 3; ///< Validated copies tried before counting a copy.
+    private static final VarHandle STATUS = MethodHandles.arrayElementVarHandle(byte[].class); ///< Atomic access to a status.
+
+    private final byte[] statuses; ///< Status ordinal of every seat, by seat ID.
+    private final int rows; ///< Number of rows of the seat map.
+    private final int columns; ///< Number of columns of the seat map.
+    private final AtomicLong started = new AtomicLong(); ///< Publications begun.
+    private final AtomicLong finished; ///< Publications completed (high 32 bits) plus the number of AVAILABLE seats (low 32 bits, signed).
+
+    /**
+     * Constructor for the SeatAvailabilityView class. Every seat starts AVAILABLE.
+     *
+     * @param rows Number of rows of the seat map.
+     * @param columns Number of columns of the seat map.
+     */
+    public SeatAvailabilityView(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.statuses = new byte[rows * columns + 1];
+        this.finished = new AtomicLong(rows * columns);
+    }
+
+    /**
+     * Publishes the new status of a seat.
+     *
+     * @param seatId The ID of the seat.
+     * @param status The new status.
+     */
+    public void publish(int seatId, SeatStatus status) {
+        started.incrementAndGet();
+        finished.addAndGet((1L << 32) + set(seatId, status));
+    }
+
+    /**
+     * Publishes the current status of every seat of the seat map, e.g. after it was restored.
+     *
+     * @param seatMap The seat map.
+     */
+    public void publishAll(SeatMap seatMap) {
+        started.incrementAndGet();
+        int delta = 0;
+        for (int id = 1; id < statuses.length; id++) {
+            delta += set(id, seatMap.statusOf(id));
+        }
+        finished.addAndGet((1L << 32) + delta);
+    }
+
+    /**
+     * Publishes cancelled seats as UNAVAILABLE. If the seat is then returned to
+     * the seat map or resold, the seat map publishes that afterwards.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    @Override
+    public void onTransition(Seat seat, Transition transition) {
+        if (transition == Transition.CANCELLED) {
+            publish(seat.getId(), SeatStatus.UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Gets the status of a seat.
+     *
+     * @param seatId The ID of the seat.
+     * @return The last published status of the seat.
+     */
+    public SeatStatus status(int seatId) {
+        return STATUSES[(byte) STATUS.getVolatile(statuses, seatId)];
+    }
+
+    /**
+     * Gets the number of available seats.
+     *
+     * @return The number of seats last published as AVAILABLE.
+     */
+    public int availableSeats() {
+        // Two publications of one seat may add their counts out of order for a moment
+        return Math.max(0, (int) finished.get());
+    }
+
+    /**
+     * Copies the status of every seat, consistent with the returned count.
+     *
+     * @param into Receives the status ordinal of every seat, by seat ID; at least size() + 1 bytes long.
+     * @return The number of AVAILABLE seats in the copy.
+     */
+    public int snapshot(byte[] into) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long before = finished.get();
+            System.arraycopy(statuses, 0, into, 0, statuses.length);
+            // Keep the copy before the read of the started count, as StampedLock.validate() does
+            VarHandle.acquireFence();
+            int available = (int) before;
+            // Both counts wrap at 32 bits
+            if ((int) started.get() == (int) ((before - available) >>> 32)) {
+                return available;
+            }
+        }
+        // The writers kept publishing: count the copy itself
+        System.arraycopy(statuses, 0, into, 0, statuses.length);
+        int available = 0;
+        for (int id = 1; id < statuses.length; id++) {
+            if (into[id] == SeatStatus.AVAILABLE.ordinal()) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Gets the number of seats of the view.
+     *
+     * @return The number of rows multiplied by the number of columns.
+     */
+    public int size() {
+        return rows * columns;
+    }
+
+    /**
+     * Gets the number of columns of the seat map, to lay out a snapshot by rows.
+     *
+     * @return The number of columns.
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Stores a status atomically.
+     *
+     * @return The change in the number of available seats: -1, 0 or 1.
+     */
+    private int set(int seatId, SeatStatus status) {
+        byte previous = (byte) STATUS.getAndSet(statuses, seatId, (byte) status.ordinal());
+        if (previous == status.ordinal()) {
+            return 0;
+        }
+        if (previous == SeatStatus.AVAILABLE.ordinal()) {
+            return -1;
+        }
+        return status == SeatStatus.AVAILABLE ? 1 : 0;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatClass.java
+ * @brief   Enum representing the cabin class of a seat.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatClass enum represents the cabin classes of a flight. Classes are laid
+ * out by rows from the front of the seat map:
+ * - FIRST: The first Constants.getFirstClassRows() rows.
+ * - BUSINESS: The next Constants.getBusinessClassRows() rows.
+ * - ECONOMY: The remaining rows.
+ */
+public enum SeatClass {
+    FIRST,     ///< Front rows.
+    BUSINESS,  ///< Rows after first class.
+    ECONOMY;   ///< Remaining rows.
+
+    /**
+     * Gets the class of a row of the seat map.
+     *
+     * @param row The row, from 0.
+     * @param constants The constants providing the number of rows of each class.
+     * @return The class of the row.
+     */
+    public static SeatClass ofRow(int row, Constants constants) {
+        if (row < constants.getFirstClassRows()) {
+            return FIRST;
+        }
+        if (row < constants.getFirstClassRows() + constants.getBusinessClassRows()) {
+            return BUSINESS;
+        }
+        return ECONOMY;
+    }
+}
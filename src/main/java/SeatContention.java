@@ -0,0 +1,93 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatContention.java
+ * @brief   Contention counters of the optimistic seat transitions.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatContention enum has one constant per kind of seat transition. Each one
+ * counts, across all seats:
+ * - transitions: compare-and-set operations that succeeded.
+ * - retries: compare-and-set operations that failed because another thread changed
+ *   the seat first, and were attempted again.
+ * - conflicts: conditional transitions given up because the seat was no longer in
+ *   the expected status (e.g. two threads trying to occupy the same seat).
+ * Counters are LongAdders, so counting does not become a contention point itself.
+ */
+import java.util.concurrent.atomic.LongAdder;
+
+public enum SeatContention {
+    OCCUPY,       ///< AVAILABLE -> OCCUPIED, when a seat is reserved.
+    RELEASE,      ///< Back to AVAILABLE, when a cancelled seat is returned to the seat map.
+    RESELL,       ///< Back to OCCUPIED and unchecked, when a cancelled seat is resold.
+    UNAVAILABLE,  ///< OCCUPIED -> UNAVAILABLE, when a reservation is cancelled.
+    CHECK;        ///< Setting the checked flag.
+
+    private final LongAdder transitions = new LongAdder(); ///< Successful compare-and-set operations.
+    private final LongAdder retries = new LongAdder(); ///< Compare-and-set operations lost to another thread.
+    private final LongAdder conflicts = new LongAdder(); ///< Transitions given up because of the seat status.
+
+    void transition() {
+        transitions.increment();
+    }
+
+    void retry() {
+        retries.increment();
+    }
+
+    void conflict() {
+        conflicts.increment();
+    }
+
+    /**
+     * Gets the number of successful transitions.
+     *
+     * @return The number of transitions.
+     */
+    public long transitions() {
+        return transitions.sum();
+    }
+
+    /**
+     * Gets the number of compare-and-set operations that had to be retried.
+     *
+     * @return The number of retries.
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * Gets the number of transitions given up because the seat was in another status.
+     *
+     * @return The number of conflicts.
+     */
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Resets the counters of every transition.
+     */
+    public static void resetAll() {
+        for (SeatContention operation : values()) {
+            operation.transitions.reset();
+            operation.retries.reset();
+            operation.conflicts.reset();
+        }
+    }
+
+    /**
+     * Generates a summary of the counters of every transition.
+     *
+     * @return The summary, one transition per line.
+     */
+    public static String summary() {
+        StringBuilder summary = new StringBuilder("\nSeat contention:");
+        for (SeatContention operation : values()) {
+            summary.append(String.format("%n  %-12s transitions=%d retries=%d conflicts=%d",
+                    operation.name().toLowerCase(), operation.transitions(), operation.retries(), operation.conflicts()));
+        }
+        return summary.append("\n").toString();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatEvent.java
+ * @brief   Immutable record of one seat transition in the seat event log.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatEvent class is one entry of the SeatEventLog: the position of the
+ * event in the log, the seat, the transition it made and when. Events never
+ * change once created, so they can be shared with any number of projections.
+ */
+public final class SeatEvent {
+    private final long sequence; ///< Position of the event in the log, from 0.
+    private final int seatId; ///< The seat making the transition.
+    private final Transition transition; ///< The transition made.
+    private final long timestamp; ///< SimulationClock.nanoTime() when the event was appended.
+
+    /**
+     * Constructor for the SeatEvent class.
+     *
+     * @param sequence Position of the event in the log.
+     * @param seatId The seat making the transition.
+     * @param transition The transition made.
+     * @param timestamp SimulationClock.nanoTime() when the event was appended.
+     */
+    public SeatEvent(long sequence, int seatId, Transition transition, long timestamp) {
+        this.sequence = sequence;
+        this.seatId = seatId;
+        this.transition = transition;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the position of the event in the log.
+     *
+     * @return The sequence number, from 0.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the seat making the transition.
+     *
+     * @return The seat ID.
+     */
+    public int getSeatId() {
+        return seatId;
+    }
+
+    /**
+     * Gets the transition made.
+     *
+     * @return The transition.
+     */
+    public Transition getTransition() {
+        return transition;
+    }
+
+    /**
+     * Gets when the event was appended.
+     *
+     * @return The SimulationClock.nanoTime() of the event.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " seat " + seatId + " " + transition;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatEventLog.java
+ * @brief   Single ordered log of seat events feeding the read model projections.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatEventLog class is the core of the event-sourced mode
+ * (Constants.setEventSourcing). As a transition listener it turns every seat
+ * transition into an immutable SeatEvent, appends it to one ordered log and
+ * applies it to every subscribed SeatProjection, all under the log's monitor, so
+ * every projection sees the same events in the same order. A projection
+ * subscribed later, or rebuilt from scratch, first receives the whole log.
+ * Unlike LifecycleEventLog, which is a fixed-size primitive buffer for analytics,
+ * this log keeps every event as an object and is meant to be queried while the
+ * system runs.
+ */
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeatEventLog implements TransitionListener {
+    private final List<SeatEvent> events; ///< Every event, in order; the index is the sequence.
+    private final List<SeatProjection> projections = new ArrayList<>(); ///< Read models updated with every event.
+
+    /**
+     * Constructor for the SeatEventLog class.
+     *
+     * @param expectedEvents Initial capacity of the log; it grows beyond it if needed.
+     */
+    public SeatEventLog(int expectedEvents) {
+        events = new ArrayList<>(expectedEvents);
+    }
+
+    /**
+     * Appends the transition to the log and applies it to every projection.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    @Override
+    public synchronized void onTransition(Seat seat, Transition transition) {
+        SeatEvent event = new SeatEvent(events.size(), seat.getId(), transition, SimulationClock.nanoTime());
+        events.add(event);
+        for (SeatProjection projection : projections) {
+            projection.apply(event);
+        }
+    }
+
+    /**
+     * Subscribes a projection. It receives every event already in the log first,
+     * then every new one.
+     *
+     * @param projection The projection.
+     */
+    public synchronized void subscribe(SeatProjection projection) {
+        replay(projection);
+        projections.add(projection);
+    }
+
+    /**
+     * Applies every event of the log to a projection without subscribing it,
+     * e.g. to build a read model for a one-off query.
+     *
+     * @param projection The projection.
+     */
+    public synchronized void replay(SeatProjection projection) {
+        for (SeatEvent event : events) {
+            projection.apply(event);
+        }
+    }
+
+    /**
+     * Gets an event of the log.
+     *
+     * @param sequence The position of the event, from 0.
+     * @return The event.
+     */
+    public synchronized SeatEvent event(long sequence) {
+        return events.get((int) sequence);
+    }
+
+    /**
+     * Gets the number of events in the log.
+     *
+     * @return The size of the log.
+     */
+    public synchronized int size() {
+        return events.size();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatExportBenchmark.java
+ * @brief   Times the seat state export of a very large seat map while it is being reserved.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatExportBenchmark class creates a seat map with LAZY rows (100M seats by
+ * default), reserves part of it, and exports it with the SeatStateExporter to the
+ * columnar and the CSV format while another thread reserves as many seats again. It prints
+ * the throughput and the heap in use, then reads the status column of the columnar
+ * file back and checks that it holds at least the seats reserved before the export.
+ * Run it with: gradle seatExportBenchmark --args="<rows> <columns> <reservations> <directory>"
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class SeatExportBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Rows (1000000), columns (100), reservations before the export (10000)
+     *             and directory of the files (the temporary directory).
+     * @throws Exception If a file cannot be written or read.
+     */
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int reservations = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        Path directory = args.length > 3 ? Paths.get(args[3]) : Paths.get(System.getProperty("java.io.tmpdir"));
+
+        Constants constants = new Constants();
+        constants.setRows(rows);
+        constants.setColumns(columns);
+        constants.setSeatMapInitialization(SeatMapInitialization.LAZY);
+        constants.setOptimisticSeatMap(true);
+        SeatMap seatMap = new SeatMap(constants);
+        for (int i = 0; i < reservations; i++) {
+            seatMap.reserve();
+        }
+
+        // Reserve as many seats again while exporting; every reservation may create a row
+        Thread reserver = new Thread(() -> {
+            for (int i = 0; i < reservations && !Thread.currentThread().isInterrupted(); i++) {
+                seatMap.reserve();
+            }
+        }, "reserver");
+        reserver.setDaemon(true);
+        reserver.start();
+
+        SeatStateExporter exporter = new SeatStateExporter(seatMap, null, System.nanoTime());
+        Path columnar = directory.resolve("seat-export.seats");
+        Path csv = directory.resolve("seat-export.csv");
+        try {
+            long start = System.nanoTime();
+            long bytes = exporter.exportColumns(columnar);
+            report("columnar", seatMap.size(), bytes, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            bytes = exporter.exportCsv(csv);
+            report("csv", seatMap.size(), bytes, System.nanoTime() - start);
+            reserver.interrupt();
+
+            long occupied = countOccupied(columnar, seatMap.size());
+            System.out.printf("occupied in the columnar export: %d (at least %d expected)%n", occupied, reservations);
+            if (occupied < reservations) {
+                System.exit(1);
+            }
+        } finally {
+            reserver.interrupt();
+            Files.deleteIfExists(columnar);
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    /**
+     * Prints the throughput of an export and the heap in use.
+     */
+    private static void report(String format, int seats, long bytes, long nanos) {
+        Runtime runtime = Runtime.getRuntime();
+        double seconds = nanos / 1e9;
+        System.out.printf("%-8s %d seats, %.1f MB in %.2f s: %.1f M seats/s, heap in use %d MB%n",
+                format, seats, bytes / 1e6, seconds, seats / seconds / 1e6,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    /**
+     * Counts the OCCUPIED seats of the status column, following the column directory.
+     */
+    private static long countOccupied(Path path, int seats) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SeatStateExporter.HEADER_SIZE + SeatStateExporter.DIRECTORY_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getLong(0) != SeatStateExporter.MAGIC || header.getLong(16) != seats) {
+                throw new IOException("Not a columnar export of " + seats + " seats");
+            }
+            // The status column is the first one in the directory
+            long offset = header.getLong(SeatStateExporter.HEADER_SIZE + 24);
+            ByteBuffer block = ByteBuffer.allocate(1 << 20);
+            long occupied = 0;
+            for (long read = 0; read < seats; ) {
+                block.clear();
+                block.limit((int) Math.min(block.capacity(), seats - read));
+                int n = channel.read(block, offset + read);
+                for (int i = 0; i < n; i++) {
+                    if (block.get(i) == SeatStatus.OCCUPIED.ordinal()) {
+                        occupied++;
+                    }
+                }
+                read += n;
+            }
+            return occupied;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatIdSet.java
+ * @brief   Lock-free set of seat IDs backed by one bit per seat.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatIdSet class records which seats reached a final state (verified or
+ * cancelled) as a bitset over the seat ID space, kept in AtomicLongArrays: a
+ * seat ID is added by setting its bit with compare-and-set, without any lock, and
+ * membership is a single read, so a seat map of N seats takes about N / 8 bytes
+ * instead of a list of references to Seat objects. IDs are iterated in ascending
+ * order straight from the words, without building a collection.
+ * The words are split into chunks of the size given at construction, so a set
+ * sized for the seat map is a single chunk and never grows. An ID beyond the
+ * capacity adds a chunk under the set's monitor, copying only the chunk
+ * references: the chunks themselves never move, so no concurrent add is lost.
+ */
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+public class SeatIdSet {
+    private final int chunkBits; ///< IDs per chunk, a multiple of 64.
+    private volatile AtomicLongArray[] chunks; ///< Words of each run of chunkBits IDs, one bit per ID; null until an ID of the run is added.
+
+    /**
+     * Constructor for the SeatIdSet class.
+     *
+     * @param capacity The number of IDs, 0 to capacity - 1, held without growing.
+     */
+    public SeatIdSet(int capacity) {
+        int words = Math.max(1, (int) ((capacity + 63L) >>> 6));
+        chunkBits = words << 6;
+        chunks = new AtomicLongArray[]{new AtomicLongArray(words)};
+    }
+
+    /**
+     * Adds a seat ID.
+     *
+     * @param id The seat ID, not negative.
+     * @return True if the ID was not in the set yet.
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Seat IDs are not negative: " + id);
+        }
+        int index = id / chunkBits;
+        int offset = id - index * chunkBits;
+        AtomicLongArray[] current = chunks;
+        AtomicLongArray chunk = index < current.length ? current[index] : null;
+        if (chunk == null) {
+            chunk = chunk(index);
+        }
+        long bit = 1L << offset;
+        long word;
+        do {
+            word = chunk.get(offset >>> 6);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!chunk.compareAndSet(offset >>> 6, word, word | bit));
+        return true;
+    }
+
+    /**
+     * Gets a chunk, creating it and growing the chunk references if needed.
+     */
+    private synchronized AtomicLongArray chunk(int index) {
+        AtomicLongArray[] current = chunks;
+        if (index >= current.length) {
+            AtomicLongArray[] grown = new AtomicLongArray[Math.max(index + 1, current.length * 2)];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        if (current[index] == null) {
+            current[index] = new AtomicLongArray(chunkBits >>> 6);
+        }
+        // Publish the new chunk, and the grown references, through the volatile field
+        chunks = current;
+        return current[index];
+    }
+
+    /**
+     * Gets whether a seat ID is in the set.
+     *
+     * @param id The seat ID.
+     * @return True if the ID was added.
+     */
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = id / chunkBits;
+        int offset = id - index * chunkBits;
+        AtomicLongArray[] current = chunks;
+        AtomicLongArray chunk = index < current.length ? current[index] : null;
+        return chunk != null && (chunk.get(offset >>> 6) & (1L << offset)) != 0;
+    }
+
+    /**
+     * Gets the number of IDs in the set.
+     *
+     * @return The number of distinct IDs added, counted from the words.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (AtomicLongArray chunk : chunks) {
+            for (int i = 0; chunk != null && i < chunk.length(); i++) {
+                count += Long.bitCount(chunk.get(i));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes every ID in the set to an action, in ascending order. IDs added
+     * meanwhile may or may not be passed.
+     *
+     * @param action The action run on each ID.
+     */
+    public void forEach(IntConsumer action) {
+        AtomicLongArray[] current = chunks;
+        for (int c = 0; c < current.length; c++) {
+            AtomicLongArray chunk = current[c];
+            for (int i = 0; chunk != null && i < chunk.length(); i++) {
+                long word = chunk.get(i);
+                while (word != 0) {
+                    action.accept(c * chunkBits + (i << 6) + Long.numberOfTrailingZeros(word));
+                    // Clear the lowest set bit
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the memory held by the words.
+     *
+     * @return The footprint in bytes.
+     */
+    public long footprintBytes() {
+        long bytes = 0;
+        for (AtomicLongArray chunk : chunks) {
+            bytes += chunk == null ? 0 : (long) chunk.length() * Long.BYTES;
+        }
+        return bytes;
+    }
+}
@@ -1,4 +1,9 @@
-import java.util.Random;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 /**
  * @project Concurrent Flight Reservation System
@@ -12,50 +17,330 @@ import java.util.Random;
  * simulating a realistic flight reservation environment.
  * The SeatMap class represents the grid of seats in the reservation system,
  * allowing for seat reservations, random seat selection, and displaying the seat map.
+ * A reservation takes a permit from the available seat counter and then occupies a
+ * random available seat, under the seat map monitor or, in optimistic mode, by
+ * compare-and-set alone. Availability is published to a SeatAvailabilityView and
+ * counted per SeatClass. The seats are held in memory or, on a SharedSeatInventory,
+ * in a file shared with other processes.
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
  */
-public class SeatMap {
-    private Seat[][] seatMap; ///< A 2D array representing the seat map (rows and columns).
+public final class SeatMap {
+    private static final VarHandle ROWS = MethodHandles.arrayElementVarHandle(Seat[][].class); ///< Publishes lazily created rows.
+
+    private Seat[][] seatMap; ///< A 2D array representing the seat map (rows and columns); a null row is not created yet.
     private int rows; ///< Number of rows in the seat map.
     private int columns; ///< Number of columns in the seat map.
+    private final AtomicInteger availableSeats; ///< Number of seats whose status is AVAILABLE and not yet promised to a reservation.
+    private final boolean optimistic; ///< Whether reservations are made without the seat map monitor.
+    private final MonitorProfiler profiler; ///< Contention of the seat map monitor.
+    private final SeatAvailabilityView availabilityView; ///< Read-optimized copy of the seat statuses.
+    private final SeatClass[] rowClasses; ///< Cabin class of each row.
+    private final AtomicIntegerArray classAvailableSeats; ///< Number of AVAILABLE seats of each class.
+    private final int flightId; ///< The flight of this seat map.
+    private final FlightAvailabilityIndex index; ///< Search index of the flights, or null.
+    private IdempotencyCache reservations; ///< Version and ID of the seat reserved for each request key, or null.
+    private final SharedSeatInventory inventory; ///< The shared file holding the seat states, or null for seats on the heap.
 
     /**
      * Constructor for the SeatMap class.
      * Initializes the seat map with the specified number of rows and columns,
-     * and assigns IDs to each seat.
+     * and creates the seats, with their IDs, as the constants' seat map initialization says.
      *
      * @param constants The constants object providing the number of rows and columns.
      */
     public SeatMap(Constants constants){
+        this(constants, 0, null, null);
+    }
+
+    /**
+     * Constructor for a SeatMap whose seats live in a shared inventory file.
+     * The availability view and the class counts start from the seat states in the file.
+     *
+     * @param constants The constants object providing the number of rows and columns.
+     * @param inventory The shared inventory, with the same number of rows and columns.
+     */
+    public SeatMap(Constants constants, SharedSeatInventory inventory){
+        this(constants, 0, null, inventory);
+    }
+
+    /**
+     * Constructor for the SeatMap class of one of many flights.
+     * The seat map registers itself in the index and keeps its entry up to date.
+     *
+     * @param constants The constants object providing the number of rows and columns.
+     * @param flightId The flight of this seat map.
+     * @param index The search index of the flights, or null.
+     */
+    public SeatMap(Constants constants, int flightId, FlightAvailabilityIndex index){
+        this(constants, flightId, index, null);
+    }
+
+    private SeatMap(Constants constants, int flightId, FlightAvailabilityIndex index, SharedSeatInventory inventory){
         this.rows = constants.getRows();
         this.columns = constants.getColumns();
-        seatMap = new Seat[rows][columns];
+        this.inventory = inventory;
+        seatMap = new Seat[rows][];
+        // The seats of a shared inventory are only handles to its words: create them on first access
+        switch (inventory != null ? SeatMapInitialization.LAZY : constants.getSeatMapInitialization()) {
+            case PARALLEL:
+                IntStream.range(0, rows).parallel().forEach(i -> seatMap[i] = newRow(i));
+                break;
+            case LAZY:
+                // Rows are created by row() on first access
+                break;
+            default:
+                for (int i = 0; i < rows; i++) {
+                    seatMap[i] = newRow(i);
+                }
+        }
+        availableSeats = new AtomicInteger(rows * columns);
+        optimistic = constants.getOptimisticSeatMap();
+        profiler = new MonitorProfiler("seat map", this, constants.getMonitorProfiling() && !optimistic);
+        availabilityView = new SeatAvailabilityView(rows, columns);
+        rowClasses = new SeatClass[rows];
+        classAvailableSeats = new AtomicIntegerArray(SeatClass.values().length);
         for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                seatMap[i][j] = new Seat();
-                seatMap[i][j].setId(i * seatMap[0].length + j + 1);
+            rowClasses[i] = SeatClass.ofRow(i, constants);
+            classAvailableSeats.addAndGet(rowClasses[i].ordinal(), columns);
+        }
+        if (inventory != null) {
+            // Start from the seats the file says are not available
+            for (int id = 1; id <= rows * columns; id++) {
+                SeatStatus status = inventory.status(id);
+                if (status != SeatStatus.AVAILABLE) {
+                    availabilityView.publish(id, status);
+                    classAvailableSeats.decrementAndGet(rowClasses[(id - 1) / columns].ordinal());
+                }
             }
         }
+        this.flightId = flightId;
+        this.index = index;
+        if (index != null) {
+            index.register(this);
+        }
+    }
+
+    /**
+     * Creates the seats of a row and assigns their IDs.
+     *
+     * @param row The row, from 0.
+     * @return The seats of the row, all AVAILABLE.
+     */
+    private Seat[] newRow(int row){
+        Seat[] seats = new Seat[columns];
+        for (int j = 0; j < columns; j++) {
+            int id = row * columns + j + 1;
+            if (inventory != null) {
+                seats[j] = new MappedSeat(inventory, id);
+            } else {
+                seats[j] = new Seat();
+                seats[j].setId(id);
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Gets the seats of a row, creating them if this is the first access.
+     * If several threads create the row at once, the first to publish it wins
+     * and the others use its seats.
+     *
+     * @param row The row, from 0.
+     * @return The seats of the row.
+     */
+    private Seat[] row(int row){
+        Seat[] seats = (Seat[]) ROWS.getAcquire(seatMap, row);
+        if (seats == null) {
+            Seat[] created = newRow(row);
+            seats = (Seat[]) ROWS.compareAndExchangeRelease(seatMap, row, (Seat[]) null, created);
+            if (seats == null) {
+                seats = created;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Gets the status of a seat without creating its row.
+     *
+     * @param id The ID of the seat, from 1 to size().
+     * @return The status of the seat; AVAILABLE if its row is not created yet.
+     */
+    public SeatStatus statusOf(int id){
+        if (inventory != null) {
+            return inventory.status(id);
+        }
+        Seat seat = createdSeat(id);
+        return seat == null ? SeatStatus.AVAILABLE : seat.getStatus();
+    }
+
+    /**
+     * Gets a seat by its ID without creating its row.
+     *
+     * @param id The ID of the seat, from 1 to size().
+     * @return The seat, or null if its row is not created yet (the seat is AVAILABLE, never checked or resold).
+     */
+    public Seat createdSeat(int id){
+        Seat[] seats = (Seat[]) ROWS.getAcquire(seatMap, (id - 1) / columns);
+        return seats == null ? null : seats[(id - 1) % columns];
+    }
+
+    /**
+     * Gets the number of rows whose seats have been created.
+     *
+     * @return The number of created rows; all of them unless the initialization is LAZY.
+     */
+    public int createdRows(){
+        int created = 0;
+        for (int i = 0; i < rows; i++) {
+            if (ROWS.getAcquire(seatMap, i) != null) {
+                created++;
+            }
+        }
+        return created;
     }
 
     /**
      * Reserves a seat by selecting a random available seat and changing its status to occupied.
      *
-     * @return The seat that was reserved.
+     * @return The seat that was reserved, or null if no seat is available.
+     */
+    public Seat reserve(){
+        if (inventory != null) {
+            return reserveSharedSeat();
+        }
+        if (optimistic) {
+            return reserveAvailableSeat();
+        }
+        long requested = profiler.requesting();
+        synchronized (this) {
+            profiler.acquired(requested);
+            try {
+                return reserveAvailableSeat();
+            } finally {
+                profiler.released();
+            }
+        }
+    }
+
+    /**
+     * Gets the contention profile of the seat map monitor.
+     *
+     * @return The profiler; disabled unless Constants.getMonitorProfiling() and not optimistic.
+     */
+    public MonitorProfiler getMonitorProfiler(){
+        return profiler;
+    }
+
+    /**
+     * Reserves a seat once per request key. Retrying a key returns the seat of its first
+     * reservation, without touching the seat map, while the idempotency cache remembers it
+     * and the seat is still held by that reservation. A seat that was released, cancelled
+     * or resold since then has another version, so the retry is served as a new request.
+     * If two calls with the same key race, the loser releases its seat and returns the winner's.
+     *
+     * @param requestKey The key identifying the reservation request.
+     * @return The seat reserved for the key, or null if no seat is available.
+     */
+    public Seat reserve(long requestKey){
+        if (reservations == null) {
+            return reserve();
+        }
+        while (true) {
+            long reserved = reservations.get(requestKey);
+            if (reserved != IdempotencyCache.MISSING) {
+                Seat seat = heldSeat(reserved);
+                if (seat != null) {
+                    return seat;
+                }
+                // The hold of the first reservation ended: forget it, unless a racing call already did
+                reservations.remove(requestKey, reserved);
+            }
+            Seat seat = reserve();
+            if (seat == null) {
+                // Nothing was changed, so a retry may try again
+                return null;
+            }
+            if (reservations.putIfAbsent(requestKey, (seat.getVersion() << 32) | seat.getId()) == IdempotencyCache.MISSING) {
+                return seat;
+            }
+            // Another call recorded the key first: give the seat back and read its seat
+            release(seat);
+        }
+    }
+
+    /**
+     * Gets the seat of a recorded reservation if that reservation still holds it.
+     * Only marking the seat as checked changes its version during a hold.
+     *
+     * @param reserved The version of the seat in the upper 32 bits and its ID in the lower 32 bits.
+     * @return The seat, or null if its status or version shows the hold ended.
+     */
+    private Seat heldSeat(long reserved){
+        Seat seat = getSeat((int) reserved);
+        long version = seat.getVersion() & 0xFFFFFFFFL;
+        long recorded = reserved >>> 32;
+        if (seat.getStatus() != SeatStatus.OCCUPIED
+                || (version != recorded && !(seat.getChecked() && version == ((recorded + 1) & 0xFFFFFFFFL)))) {
+            return null;
+        }
+        return seat;
+    }
+
+    /**
+     * Sets the cache remembering the seat reserved for each request key.
+     *
+     * @param reservations The cache, or null to treat every keyed reservation as new.
      */
-    public synchronized Seat reserve(){
-        // Randomly select an available seat
-        Seat seat = randomAvailableSeat();
+    public void setIdempotencyCache(IdempotencyCache reservations){
+        this.reservations = reservations;
+    }
 
-        // Change the seat status to OCCUPIED
-        seat.occupiedSeat();
+    /**
+     * Takes a permit from the available seat counter and occupies a random available seat.
+     * The permit guarantees an available seat exists for this caller, so the search ends
+     * even when other threads win some of the seats it tries.
+     *
+     * @return The seat that was reserved, or null if no seat is available.
+     */
+    private Seat reserveAvailableSeat(){
+        int available;
+        do {
+            available = availableSeats.get();
+            if (available == 0) {
+                return null;
+            }
+        } while (!availableSeats.compareAndSet(available, available - 1));
+
+        // Randomly select an available seat and change its status to OCCUPIED
+        Seat seat;
+        do {
+            seat = randomAvailableSeat();
+        } while (!seat.tryOccupy());
+        reserved(seat);
 
         // Return the seat to be added to the Pending Payment Reservations list
         return seat;
     }
 
+    /**
+     * Reserves a random seat available in the shared inventory, racing the other
+     * processes on the file's compare-and-set; no lock is taken.
+     *
+     * @return The seat that was reserved, or null if no seat is available.
+     */
+    private Seat reserveSharedSeat(){
+        int id = inventory.reserve();
+        if (id == 0) {
+            return null;
+        }
+        Seat seat = getSeat(id);
+        reserved(seat);
+        return seat;
+    }
+
     /**
      * Selects a random available seat from the seat map.
      * The seat's status must be AVAILABLE.
@@ -63,33 +348,210 @@ public class SeatMap {
      * @return A random available seat.
      */
     public Seat randomAvailableSeat(){
-        Random random = new Random();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         int randomRow;
         int randomColumn;
         Seat seat;
         do{
-            randomRow = random.nextInt(seatMap.length);
-            randomColumn = random.nextInt(seatMap[0].length);
-            seat = seatMap[randomRow][randomColumn];
+            randomRow = random.nextInt(rows);
+            randomColumn = random.nextInt(columns);
+            seat = row(randomRow)[randomColumn];
         }while(seat.getStatus() != SeatStatus.AVAILABLE);
         return seat;
     }
 
+    /**
+     * Returns a seat to the map as AVAILABLE, e.g. after its reservation was cancelled.
+     * The view and the counts are updated before the seat becomes AVAILABLE, so a
+     * reservation of the seat can never be published before its release.
+     *
+     * @param seat The seat to release.
+     */
+    public void release(Seat seat){
+        released(seat);
+        if (inventory == null) {
+            availableSeats.incrementAndGet();
+        }
+        // A MappedSeat gives its permit back to the shared counter itself
+        seat.availableSeat();
+    }
+
+    /**
+     * Publishes a seat that became OCCUPIED to the availability view, the class counts and the index.
+     *
+     * @param seat The reserved seat.
+     */
+    private void reserved(Seat seat){
+        availabilityView.publish(seat.getId(), SeatStatus.OCCUPIED);
+        SeatClass seatClass = seatClassOf(seat.getId());
+        classAvailableSeats.decrementAndGet(seatClass.ordinal());
+        if (index != null) {
+            index.refresh(this, seatClass);
+        }
+    }
+
+    /**
+     * Publishes a seat that became AVAILABLE to the availability view, the class counts and the index.
+     *
+     * @param seat The released seat.
+     */
+    private void released(Seat seat){
+        availabilityView.publish(seat.getId(), SeatStatus.AVAILABLE);
+        SeatClass seatClass = seatClassOf(seat.getId());
+        classAvailableSeats.incrementAndGet(seatClass.ordinal());
+        if (index != null) {
+            index.refresh(this, seatClass);
+        }
+    }
+
+    /**
+     * Resells the seat of a cancelled reservation to a waiting customer.
+     * The seat goes back to OCCUPIED in a single compare-and-set without ever
+     * becoming AVAILABLE, so no reservation thread can take it in between.
+     *
+     * @param seat The seat to resell.
+     */
+    public void resell(Seat seat){
+        seat.resoldSeat();
+        availabilityView.publish(seat.getId(), SeatStatus.OCCUPIED);
+    }
+
+    /**
+     * Gets a seat by its ID.
+     *
+     * @param id The ID of the seat, from 1 to size().
+     * @return The seat with the given ID.
+     */
+    public Seat getSeat(int id){
+        return row((id - 1) / columns)[(id - 1) % columns];
+    }
+
+    /**
+     * Gets the number of seats in the seat map.
+     *
+     * @return The number of rows multiplied by the number of columns.
+     */
+    public int size(){
+        return rows * columns;
+    }
+
+    /**
+     * Gets the number of seats that can still be reserved, across all processes
+     * for a seat map on a shared inventory.
+     *
+     * @return The number of AVAILABLE seats.
+     */
+    public int availableSeats(){
+        return inventory != null ? inventory.availableSeats() : availableSeats.get();
+    }
+
+    /**
+     * Gets the shared inventory holding the seat states.
+     *
+     * @return The shared inventory, or null for seats on the heap.
+     */
+    public SharedSeatInventory getInventory(){
+        return inventory;
+    }
+
+    /**
+     * Recounts the available seats after seat statuses were changed directly,
+     * for example when the reservation journal is replayed.
+     */
+    public synchronized void recountAvailableSeats(){
+        if (inventory != null) {
+            inventory.recount();
+            recountDerivedState();
+            return;
+        }
+        int available = 0;
+        for (int id = 1; id <= size(); id++) {
+            if (statusOf(id) == SeatStatus.AVAILABLE) {
+                available++;
+            }
+        }
+        availableSeats.set(available);
+        recountDerivedState();
+    }
+
+    /**
+     * Rebuilds the class counts, the availability view and the index entry from the seat statuses.
+     */
+    private void recountDerivedState(){
+        int[] classAvailable = new int[classAvailableSeats.length()];
+        for (int id = 1; id <= size(); id++) {
+            if (statusOf(id) == SeatStatus.AVAILABLE) {
+                classAvailable[seatClassOf(id).ordinal()]++;
+            }
+        }
+        for (int i = 0; i < classAvailable.length; i++) {
+            classAvailableSeats.set(i, classAvailable[i]);
+        }
+        availabilityView.publishAll(this);
+        if (index != null) {
+            index.register(this);
+        }
+    }
+
+    /**
+     * Gets the number of seats of a class that can still be reserved.
+     *
+     * @param seatClass The class.
+     * @return The number of AVAILABLE seats of the class.
+     */
+    public int availableSeats(SeatClass seatClass){
+        return classAvailableSeats.get(seatClass.ordinal());
+    }
+
+    /**
+     * Gets the class of a seat.
+     *
+     * @param id The ID of the seat.
+     * @return The class of the row of the seat.
+     */
+    public SeatClass seatClassOf(int id){
+        return rowClasses[(id - 1) / columns];
+    }
+
+    /**
+     * Gets the flight of this seat map.
+     *
+     * @return The flight ID, 0 for the single flight of the simulation.
+     */
+    public int getFlightId(){
+        return flightId;
+    }
+
+    /**
+     * Gets the read-optimized view of the seat statuses. Queries on it do not block
+     * reservations; it must be registered as a transition listener to see cancellations.
+     *
+     * @return The availability view.
+     */
+    public SeatAvailabilityView getAvailabilityView(){
+        return availabilityView;
+    }
+
     /**
      * Generates a string representation of the seat map, showing the ID and status of each seat.
+     * The statuses come from a consistent snapshot of the availability view.
      *
      * @return A formatted string representing the seat map.
      */
     public String printMatrix(){
+        byte[] statuses = new byte[size() + 1];
+        availabilityView.snapshot(statuses);
+        SeatStatus[] values = SeatStatus.values();
         StringBuilder printSeatChart = new StringBuilder();
         printSeatChart.append("\n");
         int idWidth = 3;
         int statusWidth = 10;
 
         // Iterate through each row and seat, formatting the output
-        for (Seat[] row : seatMap) {
-            for (Seat seat : row) {
-                String formattedSeat = String.format("ID: %-" + idWidth + "d State: %-" + statusWidth + "s;\t", seat.getId(), seat.getStatus());
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                int id = i * columns + j + 1;
+                String formattedSeat = String.format("ID: %-" + idWidth + "d State: %-" + statusWidth + "s;\t", id, values[statuses[id]]);
                 printSeatChart.append(formattedSeat);
             }
             printSeatChart.append("\n");
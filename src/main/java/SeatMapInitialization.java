@@ -0,0 +1,19 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatMapInitialization.java
+ * @brief   Enum representing how the seats of a seat map are created.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatMapInitialization enum selects when a SeatMap creates its Seat objects:
+ * - EAGER: Every row, in the constructor, on the constructing thread.
+ * - PARALLEL: Every row, in the constructor, split across the common fork/join pool.
+ * - LAZY: Each row on first access. A row that is never touched is never created
+ *   and its seats count as AVAILABLE, so the constructor does not depend on the
+ *   number of seats.
+ */
+public enum SeatMapInitialization {
+    EAGER,     ///< All rows created by the constructing thread.
+    PARALLEL,  ///< All rows created in parallel by the constructor.
+    LAZY       ///< Each row created on first access.
+}
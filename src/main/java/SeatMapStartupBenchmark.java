@@ -0,0 +1,69 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatMapStartupBenchmark.java
+ * @brief   Measures the time from creating a seat map to its first reservation.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatMapStartupBenchmark class creates seat maps of growing size with every
+ * SeatMapInitialization and times the constructor plus the first reservation,
+ * which is the startup cost seen by the simulation. It also prints how many rows
+ * had their seats created by then.
+ * Run it with: gradle seatMapStartupBenchmark --args="<columns> <maxRows> <rounds>"
+ */
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeatMapStartupBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Columns (100), maximum number of rows (40000) and measured rounds (3).
+     */
+    public static void main(String[] args) {
+        int columns = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int maxRows = args.length > 1 ? Integer.parseInt(args[1]) : 40_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        // 100, 1000, ... rows, up to the maximum
+        List<Integer> rowCounts = new ArrayList<>();
+        for (int rows = 100; rows < maxRows; rows *= 10) {
+            rowCounts.add(rows);
+        }
+        rowCounts.add(maxRows);
+
+        System.out.printf("%-9s %10s %12s %13s%n", "mode", "seats", "startup ms", "created rows");
+        for (SeatMapInitialization initialization : SeatMapInitialization.values()) {
+            for (int rows : rowCounts) {
+                Constants constants = new Constants();
+                constants.setRows(rows);
+                constants.setColumns(columns);
+                constants.setSeatMapInitialization(initialization);
+
+                // One unmeasured round to warm up the JIT, then the best of the measured ones
+                startup(constants);
+                long best = Long.MAX_VALUE;
+                int createdRows = 0;
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    SeatMap seatMap = startup(constants);
+                    best = Math.min(best, System.nanoTime() - start);
+                    createdRows = seatMap.createdRows();
+                }
+                System.out.printf("%-9s %10d %12.3f %13d%n", initialization, rows * columns, best / 1e6, createdRows);
+            }
+        }
+    }
+
+    /**
+     * Creates a seat map and makes its first reservation.
+     */
+    private static SeatMap startup(Constants constants) {
+        SeatMap seatMap = new SeatMap(constants);
+        if (seatMap.reserve() == null) {
+            throw new IllegalStateException("The first reservation found no seat");
+        }
+        return seatMap;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatProjection.java
+ * @brief   Read model maintained from the events of the seat event log.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatProjection interface is implemented by read models built from the
+ * SeatEventLog. The log calls apply() once per event, in log order, and never
+ * concurrently, so a projection only has to make its queries safe.
+ */
+public interface SeatProjection {
+
+    /**
+     * Updates the read model with the next event of the log.
+     *
+     * @param event The event.
+     */
+    void apply(SeatEvent event);
+}
@@ -0,0 +1,157 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatReadModel.java
+ * @brief   Seat counts, row occupancy and id sets maintained from the seat event log.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatReadModel class is the projection the event-sourced mode queries instead
+ * of the reservation lists. Every event moves its seat to the stage named by the
+ * transition, so the model keeps, updated in O(1) per event:
+ * - The number of seats in each stage (the last transition each seat made).
+ * - The number of occupied seats per row: seats reserved, paid, checked or verified.
+ * - The verified seats and the seats cancelled at least once, as bit sets.
+ * - The total number of cancellations, counting a resold seat once per cancellation.
+ * Every query is answered from these fields without walking a list.
+ */
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class SeatReadModel implements SeatProjection {
+    private static final byte NONE = -1; ///< Stage of a seat that has made no transition.
+
+    private final int columns; ///< Seats per row, to find the row of a seat.
+    private final byte[] stage; ///< Ordinal of the last transition of each seat, indexed by seat ID.
+    private final int[] stageCounts; ///< Seats per stage, indexed by transition ordinal.
+    private final int[] rowOccupancy; ///< Occupied seats per row.
+    private final BitSet verified = new BitSet(); ///< Seats verified.
+    private final BitSet cancelled = new BitSet(); ///< Seats cancelled at least once.
+    private int cancellations; ///< Cancellation events, including those of resold seats.
+
+    /**
+     * Constructor for the SeatReadModel class.
+     *
+     * @param rows The number of rows of the seat map.
+     * @param columns The number of columns of the seat map.
+     */
+    public SeatReadModel(int rows, int columns) {
+        this.columns = columns;
+        stage = new byte[rows * columns + 1];
+        Arrays.fill(stage, NONE);
+        stageCounts = new int[Transition.values().length];
+        rowOccupancy = new int[rows];
+    }
+
+    /**
+     * Moves the seat of the event to its new stage.
+     *
+     * @param event The event.
+     */
+    @Override
+    public synchronized void apply(SeatEvent event) {
+        int seatId = event.getSeatId();
+        Transition transition = event.getTransition();
+        byte previous = stage[seatId];
+        if (previous != NONE) {
+            stageCounts[previous]--;
+        }
+        stageCounts[transition.ordinal()]++;
+        stage[seatId] = (byte) transition.ordinal();
+
+        boolean wasOccupied = previous != NONE && previous != Transition.CANCELLED.ordinal()
+                && previous != Transition.RELEASED.ordinal();
+        boolean isOccupied = transition != Transition.CANCELLED && transition != Transition.RELEASED;
+        if (wasOccupied != isOccupied) {
+            rowOccupancy[(seatId - 1) / columns] += isOccupied ? 1 : -1;
+        }
+
+        if (transition == Transition.VERIFIED) {
+            verified.set(seatId);
+        } else if (transition == Transition.CANCELLED) {
+            cancelled.set(seatId);
+            cancellations++;
+        }
+    }
+
+    /**
+     * Gets the number of seats whose last transition is the given one.
+     *
+     * @param transition The transition naming the stage.
+     * @return The number of seats in the stage.
+     */
+    public synchronized int count(Transition transition) {
+        return stageCounts[transition.ordinal()];
+    }
+
+    /**
+     * Gets the number of occupied seats of a row: reserved, paid, checked or verified.
+     *
+     * @param row The row, from 0.
+     * @return The number of occupied seats.
+     */
+    public synchronized int occupied(int row) {
+        return rowOccupancy[row];
+    }
+
+    /**
+     * Gets the total number of cancellations.
+     *
+     * @return The cancellation events, counting a resold seat once per cancellation.
+     */
+    public synchronized int cancellations() {
+        return cancellations;
+    }
+
+    /**
+     * Gets the number of distinct seats that reached a final state.
+     *
+     * @return The seats verified or cancelled at least once, counting a resold and verified seat once.
+     */
+    public synchronized int processedSeats() {
+        int processed = verified.cardinality();
+        for (int seatId = cancelled.nextSetBit(0); seatId >= 0; seatId = cancelled.nextSetBit(seatId + 1)) {
+            if (!verified.get(seatId)) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Checks whether a seat has been verified.
+     *
+     * @param seatId The ID of the seat.
+     * @return True if the seat has been verified.
+     */
+    public synchronized boolean isVerified(int seatId) {
+        return verified.get(seatId);
+    }
+
+    /**
+     * Checks whether a seat has been cancelled at least once.
+     *
+     * @param seatId The ID of the seat.
+     * @return True if the seat has been cancelled.
+     */
+    public synchronized boolean isCancelled(int seatId) {
+        return cancelled.get(seatId);
+    }
+
+    /**
+     * Gets the verified seats.
+     *
+     * @return Their IDs, in ascending order.
+     */
+    public synchronized int[] verifiedIds() {
+        return verified.stream().toArray();
+    }
+
+    /**
+     * Gets the seats cancelled at least once.
+     *
+     * @return Their IDs, in ascending order.
+     */
+    public synchronized int[] cancelledIds() {
+        return cancelled.stream().toArray();
+    }
+}
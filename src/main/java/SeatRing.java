@@ -0,0 +1,198 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatRing.java
+ * @brief   Bounded lock-free ring buffer handing seats between pipeline stages.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatRing class is a preallocated ring of seat slots with a sequence number
+ * per slot, in the style of the Disruptor and of Vyukov's bounded queue. Producers
+ * claim a slot by advancing the tail sequence with compare-and-set, write the seat
+ * and publish it by setting the slot sequence; consumers do the same with the
+ * head. The slot sequence tells each side whether the slot is ready for it, so
+ * several producers and consumers can share a ring (every pipeline stage runs on
+ * several threads) without locks, and a handoff allocates nothing.
+ * The head and tail counters are padded apart to avoid false sharing.
+ */
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class SeatRing {
+    private final Seat[] slots; ///< Seat of each slot.
+    private final AtomicLongArray sequences; ///< Sequence of each slot: position to write, or position + 1 once written.
+    private final int mask; ///< Capacity minus one; the capacity is a power of two.
+    private final WaitStrategy waitStrategy; ///< How put() and take() wait.
+    private final PaddedSequence tail = new PaddedSequence(); ///< Next position to write.
+    private final PaddedSequence head = new PaddedSequence(); ///< Next position to read.
+
+    /**
+     * Sequence counter on its own cache lines.
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedSequence extends AtomicLong {
+        private static final long serialVersionUID = 1L; ///< AtomicLong is Serializable; the ring never serializes its sequences.
+        private long p1, p2, p3, p4, p5, p6, p7;
+        private long q1, q2, q3, q4, q5, q6, q7, q8;
+    }
+
+    /**
+     * Constructor for the SeatRing class.
+     *
+     * @param capacity Minimum number of seats the ring holds; rounded up to a power of two.
+     * @param waitStrategy How put() and take() wait.
+     */
+    public SeatRing(int capacity, WaitStrategy waitStrategy) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new Seat[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Adds a seat if the ring is not full.
+     *
+     * @param seat The seat.
+     * @return True if the seat was added.
+     */
+    public boolean offer(Seat seat) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = seat;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds a seat from the previous lap: the ring is full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest seat if the ring is not empty.
+     *
+     * @return The seat, or null if the ring is empty.
+     */
+    public Seat poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Seat seat = slots[index];
+                    slots[index] = null;
+                    sequences.setRelease(index, position + mask + 1);
+                    return seat;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                // The slot has not been written yet: the ring is empty
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Adds a seat, waiting with the wait strategy while the ring is full.
+     *
+     * @param seat The seat.
+     * @return True if the seat was added, false if the thread was interrupted.
+     */
+    public boolean put(Seat seat) {
+        return put(seat, "SeatRing.put");
+    }
+
+    /**
+     * Adds a seat, waiting with the wait strategy while the ring is full. A wait is
+     * recorded as a StageWaitEvent of the given operation.
+     *
+     * @param seat The seat.
+     * @param operation The operation putting the seat.
+     * @return True if the seat was added, false if the thread was interrupted.
+     */
+    public boolean put(Seat seat, String operation) {
+        if (offer(seat)) {
+            return true;
+        }
+        StageWaitEvent waitEvent = StageWaitEvent.begin(operation);
+        try {
+            for (int attempt = 0; !offer(seat); attempt++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                waitStrategy.idle(attempt);
+            }
+            return true;
+        } finally {
+            StageWaitEvent.end(waitEvent, size());
+        }
+    }
+
+    /**
+     * Removes the oldest seat, waiting with the wait strategy while the ring is empty.
+     *
+     * @return The seat, or null if the thread was interrupted.
+     */
+    public Seat take() {
+        return take("SeatRing.take");
+    }
+
+    /**
+     * Removes the oldest seat, waiting with the wait strategy while the ring is empty.
+     * A wait is recorded as a StageWaitEvent of the given operation.
+     *
+     * @param operation The operation taking the seat.
+     * @return The seat, or null if the thread was interrupted.
+     */
+    public Seat take(String operation) {
+        Seat seat = poll();
+        if (seat != null) {
+            return seat;
+        }
+        StageWaitEvent waitEvent = StageWaitEvent.begin(operation);
+        try {
+            for (int attempt = 0; (seat = poll()) == null; attempt++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                waitStrategy.idle(attempt);
+            }
+            return seat;
+        } finally {
+            StageWaitEvent.end(waitEvent, size());
+        }
+    }
+
+    /**
+     * Gets the number of seats in the ring. Only a snapshot while other threads use it.
+     *
+     * @return The number of seats written and not yet read.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * Gets the number of slots of the ring.
+     *
+     * @return The capacity, a power of two.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
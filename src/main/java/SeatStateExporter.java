@@ -0,0 +1,321 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatStateExporter.java
+ * @brief   Streams seat state and lifecycle timestamps to columnar binary or CSV files.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatStateExporter class writes the state of every seat of a seat map (status,
+ * checked flag, version, class) and, if a SeatTimeline is given, the time of each
+ * of its transitions, without building the output in memory: values are encoded
+ * into one reusable 1 MiB direct buffer that is written to a FileChannel whenever
+ * it fills, so the heap used does not depend on the number of seats.
+ * Seats are read with plain volatile reads and rows not created yet are not
+ * created, so an export can run while the pipeline is active. The seats are read
+ * in blocks of rows: the stamp and transition times of each seat are read once,
+ * then the block is written to every column, so each row is one consistent
+ * snapshot of its seat. Each file is written under a temporary name and moved
+ * over the previous export atomically, so a reader never sees a partial file.
+ * Columnar binary format (little-endian):
+ * - Header, 32 bytes: magic "SEATCOLS" (8), format version (int), column count
+ *   (int), seat count (long), origin of the timestamps in SimulationClock.nanoTime() (long).
+ * - Directory, 32 bytes per column: name (16 bytes, ASCII padded with zeros),
+ *   value width in bytes (int), reserved (int), file offset of the column (long).
+ * - Columns, one after the other, each with one value per seat in ID order:
+ *   status (1 byte, SeatStatus ordinal), checked (1 byte), version (int),
+ *   class (1 byte, SeatClass ordinal), then one long per Transition with the
+ *   nanoseconds from the origin to the transition, or -1 if not made.
+ * The CSV variant has the same columns, one line per seat, with the seat ID first.
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+public class SeatStateExporter {
+    public static final long MAGIC = 0x534C4F4354414553L; ///< "SEATCOLS" read as a little-endian long.
+    public static final int FORMAT = 1; ///< Version of the binary format.
+    public static final int HEADER_SIZE = 32; ///< Bytes before the column directory.
+    public static final int DIRECTORY_ENTRY_SIZE = 32; ///< Bytes per column in the directory.
+
+    private static final int BUFFER_SIZE = 1 << 20; ///< Bytes encoded before each write.
+    private static final int NAME_SIZE = 16; ///< Bytes of a column name in the directory.
+    private static final int BLOCK_SIZE = 4096; ///< Seats read before they are written to the columns.
+    private static final long UNCREATED = Seat.pack(0, SeatStatus.AVAILABLE, false); ///< Stamp exported for a seat whose row is not created.
+    private static final Transition[] TRANSITIONS = Transition.values(); ///< Cached values, values() copies the array.
+
+    private final SeatMap seatMap; ///< The seats to export.
+    private final SeatTimeline seatTimeline; ///< Transition times of the seats, or null to omit them.
+    private final long origin; ///< SimulationClock.nanoTime() the exported times are relative to.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN); ///< Values waiting to be written.
+    private final long[] stamps = new long[BLOCK_SIZE]; ///< Stamps of the seats of the block being written.
+    private final long[] times = new long[BLOCK_SIZE * TRANSITIONS.length]; ///< Transition times of the seats of the block, TRANSITIONS.length per seat.
+
+    /**
+     * Constructor for the SeatStateExporter class.
+     *
+     * @param seatMap The seats to export.
+     * @param seatTimeline Transition times of the seats, or null to export the state only.
+     * @param origin The SimulationClock.nanoTime() the exported transition times are relative to.
+     */
+    public SeatStateExporter(SeatMap seatMap, SeatTimeline seatTimeline, long origin) {
+        this.seatMap = seatMap;
+        this.seatTimeline = seatTimeline;
+        this.origin = origin;
+    }
+
+    /**
+     * Writes the columnar binary file. Not thread-safe: one export at a time per exporter.
+     *
+     * @param path The file, replaced atomically if it exists.
+     * @return The number of bytes written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long exportColumns(Path path) throws IOException {
+        String[] names = columnNames();
+        int[] widths = new int[names.length];
+        widths[0] = 1;
+        widths[1] = 1;
+        widths[2] = 4;
+        widths[3] = 1;
+        for (int i = 4; i < names.length; i++) {
+            widths[i] = 8;
+        }
+        int seats = seatMap.size();
+        long[] offsets = new long[names.length];
+        long offset = HEADER_SIZE + (long) DIRECTORY_ENTRY_SIZE * names.length;
+        Path temporary = temporary(path);
+        try (FileChannel channel = open(temporary)) {
+            buffer.clear();
+            buffer.putLong(MAGIC).putInt(FORMAT).putInt(names.length).putLong(seats).putLong(origin);
+            for (int i = 0; i < names.length; i++) {
+                byte[] name = names[i].getBytes(StandardCharsets.US_ASCII);
+                buffer.put(name, 0, Math.min(name.length, NAME_SIZE));
+                for (int j = name.length; j < NAME_SIZE; j++) {
+                    buffer.put((byte) 0);
+                }
+                buffer.putInt(widths[i]).putInt(0).putLong(offset);
+                offsets[i] = offset;
+                offset += (long) widths[i] * seats;
+            }
+            write(channel, 0);
+
+            for (int first = 1; first <= seats; first += BLOCK_SIZE) {
+                int count = Math.min(BLOCK_SIZE, seats - first + 1);
+                readBlock(first, count);
+                for (int column = 0; column < names.length; column++) {
+                    for (int i = 0; i < count; i++) {
+                        switch (column) {
+                            case 0:
+                                buffer.put((byte) Seat.statusOf(stamps[i]).ordinal());
+                                break;
+                            case 1:
+                                buffer.put((byte) (Seat.isChecked(stamps[i]) ? 1 : 0));
+                                break;
+                            case 2:
+                                buffer.putInt((int) Seat.versionOf(stamps[i]));
+                                break;
+                            case 3:
+                                buffer.put((byte) seatMap.seatClassOf(first + i).ordinal());
+                                break;
+                            default:
+                                buffer.putLong(times[i * TRANSITIONS.length + column - 4]);
+                                break;
+                        }
+                    }
+                    write(channel, offsets[column] + (long) widths[column] * (first - 1));
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        moveOver(temporary, path);
+        return offset;
+    }
+
+    /**
+     * Writes the CSV file, with a header line. Not thread-safe: one export at a time per exporter.
+     *
+     * @param path The file, replaced atomically if it exists.
+     * @return The number of bytes written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long exportCsv(Path path) throws IOException {
+        long written = 0;
+        int seats = seatMap.size();
+        SeatStatus[] statuses = SeatStatus.values();
+        SeatClass[] classes = SeatClass.values();
+        Path temporary = temporary(path);
+        try (FileChannel channel = open(temporary)) {
+            buffer.clear();
+            putAscii("id");
+            for (String name : columnNames()) {
+                buffer.put((byte) ',');
+                putAscii(name);
+            }
+            buffer.put((byte) '\n');
+            for (int first = 1; first <= seats; first += BLOCK_SIZE) {
+                int count = Math.min(BLOCK_SIZE, seats - first + 1);
+                readBlock(first, count);
+                for (int i = 0; i < count; i++) {
+                    // A line is at most 8 numbers of 20 digits plus the names and separators
+                    if (buffer.remaining() < 256) {
+                        written += flush(channel);
+                    }
+                    putNumber(first + i);
+                    buffer.put((byte) ',');
+                    putAscii(statuses[Seat.statusOf(stamps[i]).ordinal()].name());
+                    buffer.put((byte) ',');
+                    buffer.put((byte) (Seat.isChecked(stamps[i]) ? '1' : '0'));
+                    buffer.put((byte) ',');
+                    putNumber(Seat.versionOf(stamps[i]));
+                    buffer.put((byte) ',');
+                    putAscii(classes[seatMap.seatClassOf(first + i).ordinal()].name());
+                    if (seatTimeline != null) {
+                        for (int t = 0; t < TRANSITIONS.length; t++) {
+                            buffer.put((byte) ',');
+                            putNumber(times[i * TRANSITIONS.length + t]);
+                        }
+                    }
+                    buffer.put((byte) '\n');
+                }
+            }
+            written += flush(channel);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        moveOver(temporary, path);
+        return written;
+    }
+
+    /**
+     * Reads the stamps and, with a timeline, the transition times of a block of seats,
+     * each seat once.
+     *
+     * @param first The ID of the first seat of the block.
+     * @param count The number of seats of the block, at most BLOCK_SIZE.
+     */
+    private void readBlock(int first, int count) {
+        for (int i = 0; i < count; i++) {
+            Seat seat = seatMap.createdSeat(first + i);
+            stamps[i] = seat == null ? UNCREATED : seat.getStamp();
+            if (seatTimeline != null) {
+                for (int t = 0; t < TRANSITIONS.length; t++) {
+                    times[i * TRANSITIONS.length + t] = elapsed(first + i, TRANSITIONS[t]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the names of the exported columns.
+     */
+    private String[] columnNames() {
+        int timeColumns = seatTimeline == null ? 0 : TRANSITIONS.length;
+        String[] names = new String[4 + timeColumns];
+        names[0] = "status";
+        names[1] = "checked";
+        names[2] = "version";
+        names[3] = "class";
+        for (int i = 0; i < timeColumns; i++) {
+            names[4 + i] = TRANSITIONS[i].name().toLowerCase(Locale.ROOT) + "_ns";
+        }
+        return names;
+    }
+
+    /**
+     * Gets the nanoseconds from the origin to a transition of a seat, or -1 if not made.
+     */
+    private long elapsed(int id, Transition transition) {
+        long timestamp = seatTimeline.timestamp(id, transition);
+        return timestamp == SeatTimeline.NOT_REACHED ? -1 : timestamp - origin;
+    }
+
+    /**
+     * Encodes an ASCII string into the buffer.
+     */
+    private void putAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    /**
+     * Encodes a number in decimal into the buffer without creating a String.
+     */
+    private void putNumber(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                putAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    /**
+     * Writes the buffer to the channel and empties it.
+     *
+     * @return The number of bytes written.
+     */
+    private int flush(FileChannel channel) throws IOException {
+        buffer.flip();
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    /**
+     * Writes the buffer to the channel at a position and empties it.
+     */
+    private void write(FileChannel channel, long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the temporary file an export is written to before it replaces the previous one.
+     */
+    private static Path temporary(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    /**
+     * Replaces a file with a fully written temporary file in a single step,
+     * deleting the temporary file if it cannot be moved.
+     */
+    private static void moveOver(Path temporary, Path path) throws IOException {
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
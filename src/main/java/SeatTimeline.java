@@ -0,0 +1,104 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatTimeline.java
+ * @brief   Per-seat transition timestamps stored in primitive columns indexed by seat ID.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatTimeline class keeps one long[] column per Transition, indexed by seat ID,
+ * holding the SimulationClock.nanoTime() of the last time each seat made that transition.
+ * Recording a transition is a single array store, and the dwell time of a seat in a
+ * stage is the difference of two columns. Values are stored relative to the creation
+ * of the timeline plus one, so 0 always means "not reached" whatever the origin of
+ * SimulationClock.nanoTime() is. A seat that goes through several lifecycles keeps the
+ * timestamps of the latest one.
+ */
+import java.util.stream.IntStream;
+
+public class SeatTimeline implements TransitionListener {
+    public static final long NOT_REACHED = -1; ///< Returned for a transition the seat has not made.
+
+    private final long[][] columns; ///< One column per transition: [transition][seat ID].
+    private final long origin; ///< SimulationClock.nanoTime() at creation, minus one.
+
+    /**
+     * Constructor for the SeatTimeline class.
+     *
+     * @param seats The number of seats; IDs go from 1 to seats.
+     */
+    public SeatTimeline(int seats) {
+        columns = new long[Transition.values().length][seats + 1];
+        origin = SimulationClock.nanoTime() - 1;
+    }
+
+    /**
+     * Records the current time as the time the seat made the transition.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    @Override
+    public void onTransition(Seat seat, Transition transition) {
+        columns[transition.ordinal()][seat.getId()] = SimulationClock.nanoTime() - origin;
+    }
+
+    /**
+     * Gets the time a seat made a transition.
+     *
+     * @param seatId The ID of the seat.
+     * @param transition The transition.
+     * @return The SimulationClock.nanoTime() of the transition, or NOT_REACHED.
+     */
+    public long timestamp(int seatId, Transition transition) {
+        long stored = columns[transition.ordinal()][seatId];
+        return stored == 0 ? NOT_REACHED : stored + origin;
+    }
+
+    /**
+     * Gets the time a seat spent between two transitions.
+     *
+     * @param seatId The ID of the seat.
+     * @param from The transition entering the stage.
+     * @param to The transition leaving the stage.
+     * @return The time in nanoseconds, or NOT_REACHED if the seat has not made both transitions.
+     */
+    public long dwell(int seatId, Transition from, Transition to) {
+        long entered = columns[from.ordinal()][seatId];
+        long left = columns[to.ordinal()][seatId];
+        if (entered == 0 || left == 0) {
+            return NOT_REACHED;
+        }
+        return left - entered;
+    }
+
+    /**
+     * Collects the time every seat spent between two transitions, in parallel.
+     * Seats that have not made both transitions are skipped.
+     *
+     * @param from The transition entering the stage.
+     * @param to The transition leaving the stage.
+     * @return The dwell-time histogram in nanoseconds.
+     */
+    public LatencyHistogram dwellTimes(Transition from, Transition to) {
+        long[] entered = columns[from.ordinal()];
+        long[] left = columns[to.ordinal()];
+        return IntStream.range(1, entered.length).parallel().collect(LatencyHistogram::new, (histogram, id) -> {
+            if (entered[id] != 0 && left[id] != 0) {
+                histogram.record(left[id] - entered[id]);
+            }
+        }, LatencyHistogram::merge);
+    }
+
+    /**
+     * Generates a summary of the dwell times of the pipeline stages.
+     *
+     * @return The summary, one stage per line.
+     */
+    public String dwellSummary() {
+        return "\nStage dwell times:"
+                + "\n  pending payment " + dwellTimes(Transition.RESERVED, Transition.PAID).summaryMillis()
+                + "\n  confirmed       " + dwellTimes(Transition.PAID, Transition.CHECKED).summaryMillis()
+                + "\n  checked         " + dwellTimes(Transition.CHECKED, Transition.VERIFIED).summaryMillis()
+                + "\n";
+    }
+}
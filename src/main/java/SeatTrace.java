@@ -0,0 +1,86 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatTrace.java
+ * @brief   Allocation-free console trace of seat transitions.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatTrace class prints the "\n<id> <Transition>" lines emitted by the
+ * reservation lists. Digits are formatted into a per-thread byte buffer and
+ * written straight to the console stream, so no String is built per seat.
+ */
+import java.nio.charset.StandardCharsets;
+
+public final class SeatTrace {
+    public static final byte[] RESERVED = label(" Reserved"); ///< Label printed when a seat is reserved.
+    public static final byte[] PAID = label(" Paid"); ///< Label printed when a seat is paid.
+    public static final byte[] CHECKED = label(" Checked"); ///< Label printed when a seat is checked.
+    public static final byte[] CANCELED = label(" Canceled"); ///< Label printed when a seat is canceled.
+    public static final byte[] VERIFIED = label(" Verified"); ///< Label printed when a seat is verified.
+    public static final byte[] RELEASED = label(" Released"); ///< Label printed when a hold is released.
+
+    private static final int BUFFER_SIZE = 32; ///< Newline + up to 11 digits/sign + the longest label.
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private static volatile boolean enabled = true; ///< Whether transitions are printed.
+
+    private SeatTrace() {
+    }
+
+    /**
+     * Prints "\n" followed by the seat ID and the given label.
+     *
+     * @param id The ID of the seat.
+     * @param label One of the label constants of this class.
+     */
+    public static void print(int id, byte[] label) {
+        if (!enabled) {
+            return;
+        }
+        byte[] buffer = BUFFER.get();
+        int length = 0;
+        buffer[length++] = '\n';
+        length = writeInt(buffer, length, id);
+        System.arraycopy(label, 0, buffer, length, label.length);
+        length += label.length;
+        System.out.write(buffer, 0, length);
+    }
+
+    /**
+     * Turns the trace on or off, e.g. off for a simulation of millions of transitions.
+     *
+     * @param enabled True to print the transitions.
+     */
+    public static void setEnabled(boolean enabled) {
+        SeatTrace.enabled = enabled;
+    }
+
+    /**
+     * Writes the decimal digits of a value into the buffer.
+     *
+     * @param buffer The destination buffer.
+     * @param offset The first position to write.
+     * @param value The value to format.
+     * @return The position after the last written digit.
+     */
+    private static int writeInt(byte[] buffer, int offset, int value) {
+        long v = value;
+        if (v < 0) {
+            buffer[offset++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long scale = 10; scale <= v; scale *= 10) {
+            digits++;
+        }
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + (v % 10));
+            v /= 10;
+        }
+        return end;
+    }
+
+    private static byte[] label(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
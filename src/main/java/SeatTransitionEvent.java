@@ -0,0 +1,156 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatTransitionEvent.java
+ * @brief   Java Flight Recorder events for the seat transitions.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SeatTransitionEvent class is the base of one JFR event type per transition
+ * (reservation.SeatReserved, SeatPaid, SeatChecked, SeatCancelled and
+ * SeatVerified), so a recording can filter and count each one on its own.
+ * LISTENER is the transition listener emitting them. Each transition creates its
+ * event and fills it only if the event type is enabled in a running recording;
+ * otherwise the event is never used and the JIT removes its allocation, so
+ * without a recording the listener costs nothing (the allocation check runs
+ * with it attached).
+ */
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Category({"Flight Reservation", "Seat Transitions"})
+@StackTrace(false)
+public abstract class SeatTransitionEvent extends Event {
+    @Label("Seat")
+    @Description("ID of the seat making the transition")
+    int seatId;
+
+    @Label("Seat Version")
+    @Description("Number of times the seat has been released or resold")
+    long version;
+
+    /**
+     * Transition listener emitting one event per transition while a recording enables it.
+     */
+    public static final TransitionListener LISTENER = SeatTransitionEvent::emit;
+
+    /**
+     * The seat was added to the pending payment record.
+     */
+    @Name("reservation.SeatReserved")
+    @Label("Seat Reserved")
+    public static final class Reserved extends SeatTransitionEvent {
+    }
+
+    /**
+     * The seat was added to the confirmed record.
+     */
+    @Name("reservation.SeatPaid")
+    @Label("Seat Paid")
+    public static final class Paid extends SeatTransitionEvent {
+    }
+
+    /**
+     * The seat was added to the checked record.
+     */
+    @Name("reservation.SeatChecked")
+    @Label("Seat Checked")
+    public static final class Checked extends SeatTransitionEvent {
+    }
+
+    /**
+     * The seat was added to the cancelled record.
+     */
+    @Name("reservation.SeatCancelled")
+    @Label("Seat Cancelled")
+    public static final class Cancelled extends SeatTransitionEvent {
+    }
+
+    /**
+     * The seat was added to the verified record.
+     */
+    @Name("reservation.SeatVerified")
+    @Label("Seat Verified")
+    public static final class Verified extends SeatTransitionEvent {
+    }
+
+    /**
+     * The hold was released and the seat returned to the seat map.
+     */
+    @Name("reservation.SeatReleased")
+    @Label("Seat Released")
+    public static final class Released extends SeatTransitionEvent {
+    }
+
+    /**
+     * Emits the event of a transition. Each case allocates its own event type, so
+     * the allocation stays local to the case and the JIT can remove it.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    private static void emit(Seat seat, Transition transition) {
+        switch (transition) {
+            case RESERVED: {
+                Reserved event = new Reserved();
+                if (event.isEnabled()) {
+                    event.record(seat);
+                }
+                break;
+            }
+            case PAID: {
+                Paid event = new Paid();
+                if (event.isEnabled()) {
+                    event.record(seat);
+                }
+                break;
+            }
+            case CHECKED: {
+                Checked event = new Checked();
+                if (event.isEnabled()) {
+                    event.record(seat);
+                }
+                break;
+            }
+            case CANCELLED: {
+                Cancelled event = new Cancelled();
+                if (event.isEnabled()) {
+                    event.record(seat);
+                }
+                break;
+            }
+            case VERIFIED: {
+                Verified event = new Verified();
+                if (event.isEnabled()) {
+                    event.record(seat);
+                }
+                break;
+            }
+            case RELEASED: {
+                Released event = new Released();
+                if (event.isEnabled()) {
+                    event.record(seat);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Fills the event with the seat and commits it if the recording settings accept it.
+     *
+     * @param seat The seat making the transition.
+     */
+    final void record(Seat seat) {
+        if (shouldCommit()) {
+            seatId = seat.getId();
+            version = seat.getVersion();
+            commit();
+        }
+    }
+}
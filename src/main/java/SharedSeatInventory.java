@@ -0,0 +1,433 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SharedSeatInventory.java
+ * @brief   Seat states of one flight in a memory-mapped file shared by several JVMs.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SharedSeatInventory class keeps the state of every seat of a flight in a
+ * memory-mapped file, outside the Java heap. Every process mapping the same file
+ * sees the same pages, and all updates are compare-and-set operations on aligned
+ * ints through a byte buffer view VarHandle, so processes on the same host reserve
+ * from one inventory without locks or network hops. The file also keeps the state
+ * when every process exits.
+ * File layout (native byte order):
+ * - Header (64 bytes): magic, format, rows, columns, available seats (ints).
+ * - One int per seat, by seat ID: version (bits 4-31), paid flag (bit 3), status
+ *   ordinal (bits 1-2), checked flag (bit 0). The version, status and checked flag
+ *   mean the same as in the stamp of Seat; the paid flag is set by the PAID
+ *   transition, without changing the version, and cleared by any change of status.
+ * The first process creating the file initializes it while holding a file lock.
+ * Every process keeps a shared lock on a presence byte, past the end of the file,
+ * while it has the inventory open, and the operating system drops it when the
+ * process ends, even if it crashed. A process opening the inventory while nobody
+ * else holds that lock knows every reservation in the file was made by a process
+ * that ended: it reclaims the holds that were never paid, returning them to
+ * AVAILABLE, and recounts the available seats, which also repairs permits taken by
+ * a process that died before occupying its seat. Paid and checked seats stay sold.
+ * A process can have the inventory open only once at a time.
+ */
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedSeatInventory implements TransitionListener, AutoCloseable {
+    private static final int MAGIC = 0x53454154; ///< "SEAT", written last when the file is initialized.
+    private static final int FORMAT = 2; ///< Version of the file layout.
+    private static final int HEADER_SIZE = 64; ///< Bytes before the first seat.
+    private static final int MAGIC_OFFSET = 0;
+    private static final int FORMAT_OFFSET = 4;
+    private static final int ROWS_OFFSET = 8;
+    private static final int COLUMNS_OFFSET = 12;
+    private static final int AVAILABLE_OFFSET = 16;
+    private static final long PRESENCE_OFFSET = Long.MAX_VALUE - 1; ///< Byte locked in shared mode by every process using the file.
+
+    private static final SeatStatus[] STATUSES = SeatStatus.values(); ///< Cached to avoid cloning values() on every read.
+    private static final int CHECKED = 1; ///< Bit 0 of a seat word: the checked flag.
+    private static final int STATUS_SHIFT = 1; ///< Bits 1-2 of a seat word: the status ordinal.
+    private static final int PAID = 1 << 3; ///< Bit 3 of a seat word: the paid flag.
+    private static final int VERSION_SHIFT = 4; ///< Bits 4-31 of a seat word: the version.
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder()); ///< Atomic int access to the mapping.
+
+    private final FileChannel channel; ///< The inventory file.
+    private final MappedByteBuffer buffer; ///< The shared mapping of the whole file.
+    private final int rows; ///< Number of rows of the flight.
+    private final int columns; ///< Number of columns of the flight.
+    private final FileLock presence; ///< Shared lock held while this process uses the file.
+    private final int reclaimed; ///< Seats of ended processes returned to AVAILABLE when the file was opened.
+    private final AtomicInteger reservations = new AtomicInteger(); ///< Seats reserved and not released by this process, including reservations in progress.
+
+    /**
+     * Opens the inventory file, creating and initializing it with every seat AVAILABLE if needed.
+     * If no other process has the file open, the seats held by ended processes are reclaimed.
+     *
+     * @param path The inventory file.
+     * @param rows Number of rows of the flight.
+     * @param columns Number of columns of the flight.
+     * @throws IOException If the file cannot be mapped or belongs to a flight of another size.
+     */
+    public SharedSeatInventory(Path path, int rows, int columns) throws IOException {
+        this.rows = rows;
+        this.columns = columns;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // The header lock makes the processes opening the file take turns
+            FileLock header = channel.lock(0, HEADER_SIZE, false);
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) rows * columns * Integer.BYTES);
+                buffer.order(ByteOrder.nativeOrder());
+                if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                    for (int id = 1; id <= rows * columns; id++) {
+                        buffer.putInt(offset(id), pack(0, SeatStatus.AVAILABLE, false));
+                    }
+                    buffer.putInt(FORMAT_OFFSET, FORMAT);
+                    buffer.putInt(ROWS_OFFSET, rows);
+                    buffer.putInt(COLUMNS_OFFSET, columns);
+                    buffer.putInt(AVAILABLE_OFFSET, rows * columns);
+                    buffer.force();
+                    buffer.putInt(MAGIC_OFFSET, MAGIC);
+                    buffer.force();
+                } else if (buffer.getInt(FORMAT_OFFSET) != FORMAT || buffer.getInt(ROWS_OFFSET) != rows
+                        || buffer.getInt(COLUMNS_OFFSET) != columns) {
+                    throw new IOException("Inventory " + path + " was created for another flight layout");
+                }
+                FileLock alone = channel.tryLock(PRESENCE_OFFSET, 1, false);
+                if (alone != null) {
+                    // Nobody else uses the file: whatever is still held belongs to ended processes
+                    reclaimed = reclaimOrphans();
+                    alone.release();
+                } else {
+                    reclaimed = 0;
+                }
+                presence = channel.lock(PRESENCE_OFFSET, 1, true);
+            } finally {
+                header.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the OCCUPIED seats that were neither paid nor checked to AVAILABLE and recounts
+     * the available seats. Called holding the header lock while no other process
+     * has the file open.
+     *
+     * @return The number of seats returned to AVAILABLE.
+     */
+    private int reclaimOrphans() {
+        int orphans = 0;
+        int available = 0;
+        for (int id = 1; id <= rows * columns; id++) {
+            int word = (int) INT.getVolatile(buffer, offset(id));
+            if (statusOf(word) == SeatStatus.OCCUPIED && (word & (CHECKED | PAID)) == 0) {
+                INT.setVolatile(buffer, offset(id), next(word, SeatStatus.AVAILABLE, false));
+                orphans++;
+                available++;
+            } else if (statusOf(word) == SeatStatus.AVAILABLE) {
+                available++;
+            }
+        }
+        INT.setVolatile(buffer, AVAILABLE_OFFSET, available);
+        buffer.force();
+        return orphans;
+    }
+
+    /**
+     * Gets the number of seats held by ended processes that were reclaimed when the file was opened.
+     *
+     * @return The number of reclaimed seats; 0 if another process had the file open.
+     */
+    public int reclaimed() {
+        return reclaimed;
+    }
+
+    /**
+     * Gets the number of seats held by this process. Other processes sharing the
+     * inventory sell the rest, so this is the number of seats this process handles.
+     *
+     * @return The number of seats reserved and not released through this inventory,
+     *         including reservations in progress.
+     */
+    public int reservations() {
+        return reservations.get();
+    }
+
+    /**
+     * Gets the number of seats of the flight.
+     *
+     * @return The number of rows multiplied by the number of columns.
+     */
+    public int size() {
+        return rows * columns;
+    }
+
+    /**
+     * Gets the number of seats that can still be reserved, across all processes.
+     *
+     * @return The number of AVAILABLE seats not yet promised to a reservation.
+     */
+    public int availableSeats() {
+        return (int) INT.getVolatile(buffer, AVAILABLE_OFFSET);
+    }
+
+    /**
+     * Reserves a random available seat. A permit is taken from the available seat
+     * counter first, so the search ends even when other processes win some of the
+     * seats it tries.
+     *
+     * @return The ID of the reserved seat, or 0 if no seat is available.
+     */
+    public int reserve() {
+        reservations.incrementAndGet();
+        int available;
+        do {
+            available = availableSeats();
+            if (available == 0) {
+                reservations.decrementAndGet();
+                return 0;
+            }
+        } while (!INT.compareAndSet(buffer, AVAILABLE_OFFSET, available, available - 1));
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id;
+        do {
+            id = random.nextInt(size()) + 1;
+        } while (status(id) != SeatStatus.AVAILABLE || !tryOccupy(id));
+        return id;
+    }
+
+    /**
+     * Marks a seat as occupied only if it is available. This does not take a permit
+     * from the available seat counter; reserve() does.
+     *
+     * @param id The ID of the seat.
+     * @return True if the seat was available and is now occupied by the caller.
+     */
+    public boolean tryOccupy(int id) {
+        int offset = offset(id);
+        int current = (int) INT.getVolatile(buffer, offset);
+        while (statusOf(current) == SeatStatus.AVAILABLE) {
+            if (INT.compareAndSet(buffer, offset, current, next(current, SeatStatus.OCCUPIED, false))) {
+                SeatContention.OCCUPY.transition();
+                return true;
+            }
+            SeatContention.OCCUPY.retry();
+            current = (int) INT.getVolatile(buffer, offset);
+        }
+        SeatContention.OCCUPY.conflict();
+        return false;
+    }
+
+    /**
+     * Marks a seat as OCCUPIED, unpaid and unchecked, whatever its status, e.g. when a journal is replayed.
+     * This does not take a permit from the available seat counter; recount() afterwards.
+     *
+     * @param id The ID of the seat.
+     */
+    public void occupy(int id) {
+        update(id, SeatStatus.OCCUPIED, false, SeatContention.OCCUPY);
+    }
+
+    /**
+     * Returns a seat to the inventory as AVAILABLE, unpaid and unchecked.
+     *
+     * @param id The ID of the seat.
+     */
+    public void release(int id) {
+        update(id, SeatStatus.AVAILABLE, false, SeatContention.RELEASE);
+        INT.getAndAdd(buffer, AVAILABLE_OFFSET, 1);
+        reservations.decrementAndGet();
+    }
+
+    /**
+     * Marks a cancelled seat as OCCUPIED, unpaid and unchecked for a new customer, without it ever becoming AVAILABLE.
+     *
+     * @param id The ID of the seat.
+     */
+    public void resell(int id) {
+        update(id, SeatStatus.OCCUPIED, false, SeatContention.RESELL);
+    }
+
+    /**
+     * Marks a seat as UNAVAILABLE, keeping its checked and paid flags.
+     *
+     * @param id The ID of the seat.
+     */
+    public void markUnavailable(int id) {
+        int offset = offset(id);
+        int current = (int) INT.getVolatile(buffer, offset);
+        while (!INT.compareAndSet(buffer, offset, current, next(current, SeatStatus.UNAVAILABLE, (current & CHECKED) != 0) | (current & PAID))) {
+            SeatContention.UNAVAILABLE.retry();
+            current = (int) INT.getVolatile(buffer, offset);
+        }
+        SeatContention.UNAVAILABLE.transition();
+    }
+
+    /**
+     * Marks a seat as checked, keeping its status and paid flag.
+     *
+     * @param id The ID of the seat.
+     */
+    public void check(int id) {
+        int offset = offset(id);
+        int current = (int) INT.getVolatile(buffer, offset);
+        while (!INT.compareAndSet(buffer, offset, current, next(current, statusOf(current), true) | (current & PAID))) {
+            SeatContention.CHECK.retry();
+            current = (int) INT.getVolatile(buffer, offset);
+        }
+        SeatContention.CHECK.transition();
+    }
+
+    /**
+     * Marks a held seat as paid, so it is not reclaimed as an orphaned hold if this
+     * process ends. The version does not change: the seat is still held by the same
+     * reservation.
+     *
+     * @param id The ID of the seat.
+     */
+    public void pay(int id) {
+        int offset = offset(id);
+        int current = (int) INT.getVolatile(buffer, offset);
+        while ((current & PAID) == 0 && !INT.compareAndSet(buffer, offset, current, current | PAID)) {
+            current = (int) INT.getVolatile(buffer, offset);
+        }
+    }
+
+    /**
+     * Gets whether a seat has been paid since its status last changed.
+     *
+     * @param id The ID of the seat.
+     * @return True if the seat is paid.
+     */
+    public boolean isPaid(int id) {
+        return ((int) INT.getVolatile(buffer, offset(id)) & PAID) != 0;
+    }
+
+    /**
+     * Marks the seats that are paid, so a crash does not return them to sale.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    @Override
+    public void onTransition(Seat seat, Transition transition) {
+        if (transition == Transition.PAID) {
+            pay(seat.getId());
+        }
+    }
+
+    /**
+     * Gets the status of a seat.
+     *
+     * @param id The ID of the seat.
+     * @return The status of the seat.
+     */
+    public SeatStatus status(int id) {
+        return statusOf((int) INT.getVolatile(buffer, offset(id)));
+    }
+
+    /**
+     * Gets whether a seat has been checked.
+     *
+     * @param id The ID of the seat.
+     * @return True if the seat is checked.
+     */
+    public boolean isChecked(int id) {
+        return ((int) INT.getVolatile(buffer, offset(id)) & CHECKED) != 0;
+    }
+
+    /**
+     * Gets the version of a seat, incremented by every change.
+     *
+     * @param id The ID of the seat.
+     * @return The version of the seat, modulo 2^28.
+     */
+    public int version(int id) {
+        return (int) INT.getVolatile(buffer, offset(id)) >>> VERSION_SHIFT;
+    }
+
+    /**
+     * Gets the state of a seat from a single read of its word.
+     *
+     * @param id The ID of the seat.
+     * @return The version, status and checked flag of the seat, packed as a stamp of Seat.
+     */
+    public long stamp(int id) {
+        int word = (int) INT.getVolatile(buffer, offset(id));
+        return Seat.pack(word >>> VERSION_SHIFT, statusOf(word), (word & CHECKED) != 0);
+    }
+
+    /**
+     * Recounts the available seats from the seat states. Only safe while no other
+     * process is reserving, e.g. to repair the counter after a process died between
+     * taking a permit and occupying its seat.
+     */
+    public void recount() {
+        int available = 0;
+        for (int id = 1; id <= size(); id++) {
+            if (status(id) == SeatStatus.AVAILABLE) {
+                available++;
+            }
+        }
+        INT.setVolatile(buffer, AVAILABLE_OFFSET, available);
+    }
+
+    /**
+     * Forces the mapping to the storage device.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Forces the mapping to the storage device and closes the file, which also
+     * drops the presence lock. The mapping itself is released when it is garbage collected.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        presence.release();
+        channel.close();
+    }
+
+    /**
+     * Sets the status and checked flag and clears the paid flag, retrying until no other thread or process changes the seat in between.
+     */
+    private void update(int id, SeatStatus status, boolean checked, SeatContention operation) {
+        int offset = offset(id);
+        int current = (int) INT.getVolatile(buffer, offset);
+        while (!INT.compareAndSet(buffer, offset, current, next(current, status, checked))) {
+            operation.retry();
+            current = (int) INT.getVolatile(buffer, offset);
+        }
+        operation.transition();
+    }
+
+    private static int offset(int id) {
+        return HEADER_SIZE + (id - 1) * Integer.BYTES;
+    }
+
+    private static SeatStatus statusOf(int word) {
+        return STATUSES[(word >>> STATUS_SHIFT) & 3];
+    }
+
+    private static int next(int current, SeatStatus status, boolean checked) {
+        return pack((current >>> VERSION_SHIFT) + 1, status, checked);
+    }
+
+    private static int pack(int version, SeatStatus status, boolean checked) {
+        return version << VERSION_SHIFT | status.ordinal() << STATUS_SHIFT | (checked ? CHECKED : 0);
+    }
+}
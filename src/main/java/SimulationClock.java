@@ -0,0 +1,61 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SimulationClock.java
+ * @brief   Source of the time stamps of the system, real or virtual.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The SimulationClock class is where the reservation lists, the resale desk and
+ * the lifecycle recorders read the time. It returns System.nanoTime() until the
+ * virtual clock is started; from then on it returns the virtual time, which only
+ * moves when the ReservationSimulation advances it to its next event. Hold times,
+ * payment deadlines, waitlist times and seat timelines are then measured in
+ * simulated time. The virtual clock is meant for the single-threaded simulation
+ * and must be started before any of those components is created.
+ */
+public final class SimulationClock {
+    private static boolean virtual; ///< Whether the virtual time replaces System.nanoTime().
+    private static long now; ///< The virtual time, in nanoseconds since the clock was started.
+
+    private SimulationClock() {
+    }
+
+    /**
+     * Gets the current time.
+     *
+     * @return The virtual time in nanoseconds if the virtual clock was started, otherwise System.nanoTime().
+     */
+    public static long nanoTime() {
+        return virtual ? now : System.nanoTime();
+    }
+
+    /**
+     * Replaces System.nanoTime() with a virtual time starting at 0.
+     */
+    public static void startVirtual() {
+        now = 0;
+        virtual = true;
+    }
+
+    /**
+     * Checks whether the virtual clock was started.
+     *
+     * @return True if the time is virtual.
+     */
+    public static boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Moves the virtual time forward.
+     *
+     * @param time The new virtual time, in nanoseconds.
+     * @throws IllegalStateException If the time is not virtual or the new time is in the past.
+     */
+    public static void advanceTo(long time) {
+        if (!virtual || time < now) {
+            throw new IllegalStateException("The virtual clock cannot move to " + time + " from " + now);
+        }
+        now = time;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    StageWaitEvent.java
+ * @brief   Java Flight Recorder event for a thread blocked between pipeline stages.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The StageWaitEvent class (reservation.StageWait) records how long a thread
+ * waited for a seat to take, or for room to put one, and where: the operation
+ * that blocked (removePendingPayment, removeConfirmed, removeChecked, checkSeat,
+ * or the blocking puts of the bounded lists) and the number of seats in its list
+ * or ring when the wait ended. Its duration is the wait itself.
+ * Events are created only once a thread is about to block, and only if the event
+ * type is enabled in a running recording, so the handoffs that do not wait, and
+ * every handoff without a recording, pay nothing.
+ */
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("reservation.StageWait")
+@Label("Stage Wait")
+@Category({"Flight Reservation", "Stage Waits"})
+@Description("A thread blocked taking a seat from, or putting one into, a pipeline stage")
+@StackTrace(false)
+public final class StageWaitEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(StageWaitEvent.class); ///< Tells whether a recording enables the event.
+
+    @Label("Operation")
+    @Description("The operation that blocked")
+    String operation;
+
+    @Label("Queue Size")
+    @Description("Seats in the list or ring when the wait ended")
+    int queueSize;
+
+    /**
+     * Starts timing a wait that is about to begin.
+     *
+     * @param operation The operation about to block.
+     * @return The started event, or null if no recording enables it.
+     */
+    public static StageWaitEvent begin(String operation) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        StageWaitEvent event = new StageWaitEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the wait and commits the event if the recording settings accept it.
+     *
+     * @param event The event returned by begin(), or null.
+     * @param queueSize Seats in the list or ring when the wait ended.
+     */
+    public static void end(StageWaitEvent event, int queueSize) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.queueSize = queueSize;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    Transition.java
+ * @brief   Enum representing the lifecycle transitions of a seat reservation.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The Transition enum names the moves a seat makes between the reservation records:
+ * - RESERVED: The seat was reserved and added to the pending payment record.
+ * - PAID: The payment was approved and the seat added to the confirmed record.
+ * - CHECKED: The reservation was validated and marked as checked.
+ * - CANCELLED: The reservation was rejected or cancelled.
+ * - VERIFIED: The checked reservation was verified.
+ * - RELEASED: The hold was rejected or shed by the full pending payment record and
+ *   the seat returned to the seat map as AVAILABLE.
+ * The ordinal of each constant is stored in the reservation journal, so new
+ * constants must only be appended.
+ */
+public enum Transition {
+    RESERVED,   ///< The seat was added to the pending payment record.
+    PAID,       ///< The seat was added to the confirmed record.
+    CHECKED,    ///< The seat was added to the checked record.
+    CANCELLED,  ///< The seat was added to the cancelled record.
+    VERIFIED,   ///< The seat was added to the verified record.
+    RELEASED;   ///< The seat was returned to the seat map by the pending payment record.
+
+    private static final Transition[] VALUES = values(); ///< Cached values, values() copies the array.
+
+    /**
+     * Returns the transition with the given ordinal.
+     *
+     * @param ordinal The ordinal of the transition.
+     * @return The transition, or null if the ordinal is out of range.
+     */
+    public static Transition fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            return null;
+        }
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    TransitionListener.java
+ * @brief   Callback notified of every seat transition between reservation records.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The reservation records call their listener before a seat becomes visible in
+ * the next record, so a listener that returns only once the transition is durable
+ * (such as the reservation journal) delays the acknowledgement until then.
+ * Listeners are called concurrently from every stage thread.
+ */
+public interface TransitionListener {
+
+    /**
+     * Listener that ignores every transition.
+     */
+    TransitionListener NONE = (seat, transition) -> { };
+
+    /**
+     * Combines several listeners into one that calls them in order.
+     *
+     * @param listeners The listeners to combine.
+     * @return NONE if there are no listeners, the listener itself if there is one,
+     *         otherwise a listener calling each of them.
+     */
+    static TransitionListener of(TransitionListener... listeners) {
+        if (listeners.length == 0) {
+            return NONE;
+        }
+        if (listeners.length == 1) {
+            return listeners[0];
+        }
+        TransitionListener[] all = listeners.clone();
+        return (seat, transition) -> {
+            for (TransitionListener listener : all) {
+                listener.onTransition(seat, transition);
+            }
+        };
+    }
+
+    /**
+     * Called when a seat makes a transition.
+     *
+     * @param seat The seat making the transition.
+     * @param transition The transition being made.
+     */
+    void onTransition(Seat seat, Transition transition);
+}
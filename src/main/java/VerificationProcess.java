@@ -45,7 +45,7 @@ public class VerificationProcess implements Runnable{
             if(seat == null){
                 break; // Exit if there are no more seats to process.
             }
-            verifiedReservations.putVerified(seat); // Move the seat to the verified list.
+            verify(seat); // Move the seat to the verified list.
             try {
                 Thread.sleep(constants.getVerificationProcessTime()); // Simulate the verification delay.
             } catch (InterruptedException e){
@@ -54,4 +54,12 @@ public class VerificationProcess implements Runnable{
         }
         System.out.print("\nVerification Process runnable thread ends: "+(verifiedReservations.size())); // Print the size of verified reservations
     }
+
+    /**
+     * @brief Verifies one checked seat.
+     * @param seat The checked seat, removed from the checked list or handed over by a pipeline stage.
+     */
+    public void verify(Seat seat){
+        verifiedReservations.putVerified(seat);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
 
 /**
  * @project Concurrent Flight Reservation System
@@ -13,43 +13,86 @@ import java.util.List;
  * simulating a realistic flight reservation environment.
  * The VerifiedReservations class is responsible for storing reservations
  * that have been verified. It allows adding verified reservations,
- * retrieving the list of verified reservations, and getting the size of the list.
+ * iterating the IDs of the verified seats, and getting their number.
+ * Only the seat IDs are kept, in a SeatIdSet with one bit per seat, and a
+ * seat is added without taking any lock.
  * This file is part of a project developed for the Concurrent Programming course
  * of the FCEFYN at the National University of Córdoba (UNC).
  * All rights reserved.
  */
 public class VerifiedReservations {
-    private List<Seat> verifiedReservations = new ArrayList<>();
+    private final SeatIdSet verifiedReservations; ///< IDs of the verified seats, one bit per seat.
+    private final LongAdder verifications = new LongAdder(); ///< Seats added, counting a seat verified twice twice.
+    private TransitionListener transitionListener = TransitionListener.NONE; ///< Notified of every verified seat.
 
     /**
-     * @brief Constructor for the VerifiedReservations class.
+     * @brief Constructor for the VerifiedReservations class, sized to the default seat map of Constants.
      */
     public VerifiedReservations(){
+        this(new Constants());
     }
 
     /**
-     * @brief Adds a verified reservation to the list.
-     * @param seat The seat to be added to the list of verified reservations.
+     * @brief Constructor that presizes the set to the whole seat map.
+     * @param constants The constants providing the number of rows and columns.
      */
-    public synchronized void putVerified(Seat seat){
-        verifiedReservations.add(seat);
-        System.out.print("\n"+seat.getId()+" Verified");
-        notifyAll();
+    public VerifiedReservations(Constants constants){
+        // Seat IDs start at 1
+        verifiedReservations = new SeatIdSet(constants.getRows() * constants.getColumns() + 1);
+    }
+
+    /**
+     * @brief Adds a verified reservation to the set.
+     * @param seat The seat to be added to the verified reservations.
+     *
+     * @details Lock-free: the seat ID is set with compare-and-set.
+     */
+    public void putVerified(Seat seat){
+        // Record the transition before the verification is acknowledged
+        transitionListener.onTransition(seat, Transition.VERIFIED);
+        verifiedReservations.add(seat.getId());
+        verifications.increment();
+        SeatTrace.print(seat.getId(), SeatTrace.VERIFIED);
+    }
+
+    /**
+     * @brief Sets the listener notified before a seat is added to the set.
+     * @param transitionListener The listener, for example the reservation journal.
+     */
+    public void setTransitionListener(TransitionListener transitionListener){
+        this.transitionListener = transitionListener;
     }
 
     /**
      * @brief Gets the number of verified reservations.
-     * @return The number of verified reservations in the list.
+     * @return The number of seats added.
      */
     public int size(){
-        return verifiedReservations.size();
+        return verifications.intValue();
+    }
+
+    /**
+     * @brief Gets whether a seat was verified.
+     * @param seatId The seat ID.
+     * @return True if the seat is in the verified reservations.
+     */
+    public boolean contains(int seatId){
+        return verifiedReservations.contains(seatId);
+    }
+
+    /**
+     * @brief Passes the ID of every verified seat to an action, in ascending order.
+     * @param action The action run on each seat ID.
+     */
+    public void forEachId(IntConsumer action){
+        verifiedReservations.forEach(action);
     }
 
     /**
-     * @brief Retrieves the list of verified reservations.
-     * @return The list of verified reservations.
+     * @brief Gets the memory held by the verified reservations.
+     * @return The footprint in bytes, about one bit per seat.
      */
-    public List<Seat> getVerifiedReservations(){
-        return verifiedReservations;
+    public long footprintBytes(){
+        return verifiedReservations.footprintBytes();
     }
 }
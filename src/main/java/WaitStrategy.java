@@ -0,0 +1,42 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    WaitStrategy.java
+ * @brief   Enum representing how a thread waits on an empty or full SeatRing.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The WaitStrategy enum trades latency for CPU while a ring handoff cannot proceed:
+ * - BUSY_SPIN: Spin with Thread.onSpinWait(). Lowest latency; burns a core per
+ *   waiting thread, so only for threads with a dedicated core.
+ * - YIELD: Spin briefly, then Thread.yield() between attempts.
+ * - PARK: Spin and yield briefly, then park for an interval doubling up to
+ *   MAX_PARK_NANOS. Nearly idle when the ring stays empty, at the cost of up to
+ *   that interval of extra latency.
+ * No strategy needs a lock or a wake-up from the other side.
+ */
+import java.util.concurrent.locks.LockSupport;
+
+public enum WaitStrategy {
+    BUSY_SPIN,  ///< Spin.
+    YIELD,      ///< Spin, then yield.
+    PARK;       ///< Spin, yield, then park with exponential back-off.
+
+    private static final int SPINS = 100; ///< Attempts spent spinning before yielding.
+    private static final int YIELDS = 100; ///< Attempts spent yielding before parking.
+    private static final long MAX_PARK_NANOS = 1_000_000; ///< Longest park of the PARK strategy.
+
+    /**
+     * Waits before the next attempt.
+     *
+     * @param attempt The number of attempts that already failed, from 0.
+     */
+    public void idle(int attempt) {
+        if (this == BUSY_SPIN || attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (this == YIELD || attempt < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(attempt - SPINS - YIELDS, 10)));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    WaitingCustomer.java
+ * @brief   Customer waiting for a seat to be resold.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details The WaitingCustomer class is an entry of the resale waitlist. Customers are
+ * ordered by priority (highest first) and, within a priority, by arrival.
+ */
+public class WaitingCustomer implements Comparable<WaitingCustomer> {
+    private final int priority; ///< Priority of the customer; higher is served first.
+    private final long arrival; ///< Arrival order, unique per waitlist.
+    private final long joinedAt; ///< SimulationClock.nanoTime() when the customer joined the waitlist.
+
+    /**
+     * Constructor for the WaitingCustomer class.
+     *
+     * @param priority Priority of the customer; higher is served first.
+     * @param arrival Arrival order, unique per waitlist.
+     */
+    public WaitingCustomer(int priority, long arrival) {
+        this.priority = priority;
+        this.arrival = arrival;
+        this.joinedAt = SimulationClock.nanoTime();
+    }
+
+    /**
+     * Gets the priority of the customer.
+     *
+     * @return The priority; higher is served first.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the time the customer joined the waitlist.
+     *
+     * @return The SimulationClock.nanoTime() of the arrival.
+     */
+    public long getJoinedAt() {
+        return joinedAt;
+    }
+
+    /**
+     * Orders customers by descending priority, then by arrival.
+     *
+     * @param other The customer to compare with.
+     * @return A negative value if this customer is served first.
+     */
+    @Override
+    public int compareTo(WaitingCustomer other) {
+        if (priority != other.priority) {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(arrival, other.arrival);
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    AllocationTest.java
+ * @brief   Allocation regression tests for the seat transition hot path.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Measures the heap bytes allocated per seat transition once the JIT has
+ * warmed up, under every HandoffMode, with the transition listeners of an analytics
+ * run (SeatTimeline, LifecycleEventLog and the JFR SeatTransitionEvent listener, with
+ * no recording running) attached. The lists are driven one transition at a time on
+ * the test thread, and the process loops are run on their own threads for a full
+ * reserve, pay, check and verify pass. The lists trace every transition to the
+ * console; the output is dropped but the trace path is still taken.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class AllocationTest {
+    private static final int ROWS = 1000;
+    private static final int COLUMNS = 10;
+    private static final int SEATS = ROWS * COLUMNS;
+    private static final int WARMUP_ROUNDS = 30;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final String[] TRANSITIONS = {"reserve", "pay", "check", "verify", "cancel"};
+    private static final String[] PROCESSES = {"reservation", "payment", "validation", "verification"};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static PrintStream console;
+
+    @BeforeAll
+    static void dropTheTrace() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterAll
+    static void restoreTheConsole() {
+        System.setOut(console);
+    }
+
+    /**
+     * A transition fails if it allocates in any measured round, not only in all of them.
+     */
+    @ParameterizedTest
+    @EnumSource(HandoffMode.class)
+    void listTransitionsDoNotAllocate(HandoffMode mode) {
+        Constants constants = constants(mode);
+        long[] allocated = new long[TRANSITIONS.length];
+        long[] worst = new long[TRANSITIONS.length];
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            listRound(constants, round % 2 == 0, allocated);
+            if (round >= WARMUP_ROUNDS) {
+                for (int t = 0; t < TRANSITIONS.length; t++) {
+                    worst[t] = Math.max(worst[t], allocated[t]);
+                }
+            }
+        }
+        for (int t = 0; t < TRANSITIONS.length; t++) {
+            assertEquals(0, worst[t], mode + " " + TRANSITIONS[t] + " allocated over " + SEATS + " transitions");
+        }
+    }
+
+    /**
+     * Each process thread allocates a little once, to print that it ended and to
+     * leave its last sleep when it is interrupted, so a process fails only if it
+     * allocates at least a byte per seat, which any allocation per transition does.
+     */
+    @ParameterizedTest
+    @EnumSource(HandoffMode.class)
+    void processLoopsDoNotAllocatePerSeat(HandoffMode mode) {
+        long[] allocated = new long[PROCESSES.length];
+        long[] worst = new long[PROCESSES.length];
+        assertTimeoutPreemptively(Duration.ofMinutes(2), () -> {
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                processRound(mode, allocated);
+                if (round >= WARMUP_ROUNDS) {
+                    for (int p = 0; p < PROCESSES.length; p++) {
+                        worst[p] = Math.max(worst[p], allocated[p]);
+                    }
+                }
+            }
+        });
+        for (int p = 0; p < PROCESSES.length; p++) {
+            assertTrue(worst[p] < SEATS, mode + " " + PROCESSES[p] + " allocated " + worst[p] + " bytes over " + SEATS + " seats");
+        }
+    }
+
+    private static Constants constants(HandoffMode mode) {
+        Constants constants = new Constants();
+        constants.setRows(ROWS);
+        constants.setColumns(COLUMNS);
+        constants.setHandoffMode(mode);
+        return constants;
+    }
+
+    /**
+     * Moves every seat of a fresh seat map through the lists. Even rounds take the
+     * verification path, odd rounds the cancellation path; the transitions that are
+     * not exercised are left at -1.
+     */
+    private static void listRound(Constants constants, boolean verify, long[] allocated) {
+        Arrays.fill(allocated, -1);
+        Lists lists = new Lists(constants);
+
+        long start = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < SEATS; i++) {
+            lists.pending.putPendingPayment(lists.seatMap.reserve());
+        }
+        long afterReserve = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < SEATS; i++) {
+            lists.confirmed.putConfirmed(lists.pending.removePendingPayment());
+        }
+        long afterPay = THREADS.getCurrentThreadAllocatedBytes();
+        allocated[0] = afterReserve - start;
+        allocated[1] = afterPay - afterReserve;
+
+        if (verify) {
+            for (int i = 0; i < SEATS; i++) {
+                lists.confirmed.checkSeat();
+            }
+            long afterCheck = THREADS.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < SEATS; i++) {
+                lists.verified.putVerified(lists.confirmed.removeChecked());
+            }
+            long afterVerify = THREADS.getCurrentThreadAllocatedBytes();
+            allocated[2] = afterCheck - afterPay;
+            allocated[3] = afterVerify - afterCheck;
+        } else {
+            for (int i = 0; i < SEATS; i++) {
+                lists.cancelled.putCanceled(lists.confirmed.removeConfirmed());
+            }
+            allocated[4] = THREADS.getCurrentThreadAllocatedBytes() - afterPay;
+        }
+        assertFalse(lists.eventLog.overflowed(), "the lifecycle event log filled up, so its append path was not measured");
+    }
+
+    /**
+     * Runs one thread per process until every seat of a fresh seat map is verified,
+     * then stops them as Main does, recording the bytes each thread allocated.
+     */
+    private static void processRound(HandoffMode mode, long[] allocated) throws InterruptedException {
+        // Fresh constants each round, since stopping the processes takes their flag down
+        Constants constants = constants(mode);
+        constants.setConfirmedSeatProbability(101);
+        constants.setCheckSeatProbability(101);
+        constants.setNumReservationProcesses(1);
+        constants.setNumPaymentProcess(1);
+        constants.setReservationProcessTime(0);
+        constants.setPaymentProcessTime(0);
+        constants.setCancellationValidationProcessTime(0);
+        constants.setVerificationProcessTime(0);
+        Lists lists = new Lists(constants);
+        Runnable[] processes = {
+                new ReservationProcess(constants, lists.seatMap, lists.pending)::run,
+                new PaymentProcess(constants, lists.pending, lists.confirmed, lists.cancelled)::run,
+                new CancellationValidationProcess(constants, lists.confirmed, lists.cancelled)::run,
+                new VerificationProcess(constants, lists.confirmed, lists.verified)::run};
+        Thread[] threads = new Thread[processes.length];
+        for (int p = 0; p < processes.length; p++) {
+            Runnable process = processes[p];
+            int index = p;
+            threads[p] = new Thread(() -> {
+                long start = THREADS.getCurrentThreadAllocatedBytes();
+                process.run();
+                allocated[index] = THREADS.getCurrentThreadAllocatedBytes() - start;
+            });
+            threads[p].start();
+        }
+        while (lists.verified.size() < SEATS) {
+            Thread.sleep(1);
+        }
+        constants.flagDown();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, lists.cancelled.size());
+        assertFalse(lists.eventLog.overflowed(), "the lifecycle event log filled up, so its append path was not measured");
+    }
+
+    /**
+     * A fresh seat map and reservation lists with the analytics listeners attached.
+     */
+    private static final class Lists {
+        final SeatMap seatMap;
+        final PendingPaymentReservations pending;
+        final ConfirmedReservations confirmed;
+        final CancelledReservations cancelled;
+        final VerifiedReservations verified;
+        final LifecycleEventLog eventLog = new LifecycleEventLog(SEATS * TRANSITIONS.length);
+
+        Lists(Constants constants) {
+            seatMap = new SeatMap(constants);
+            pending = new PendingPaymentReservations(constants);
+            confirmed = new ConfirmedReservations(constants);
+            cancelled = new CancelledReservations(constants);
+            verified = new VerifiedReservations(constants);
+            TransitionListener listener = TransitionListener.of(new SeatTimeline(SEATS), eventLog, SeatTransitionEvent.LISTENER);
+            pending.setTransitionListener(listener);
+            confirmed.setTransitionListener(listener);
+            cancelled.setTransitionListener(listener);
+            verified.setTransitionListener(listener);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    IdempotencyCacheTest.java
+ * @brief   Tests of the idempotency cache eviction and expiry.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Uses caches small enough to have a single segment, so the least recently
+ * used order covers every key, and a short time to live on the real clock.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void keepsTheFirstResultOfAKey() {
+        IdempotencyCache cache = new IdempotencyCache(4, 0);
+        assertEquals(IdempotencyCache.MISSING, cache.putIfAbsent(1, 10));
+        assertEquals(10, cache.putIfAbsent(1, 20));
+        assertEquals(10, cache.get(1));
+        assertEquals(IdempotencyCache.MISSING, cache.get(2));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedKeyWhenFull() {
+        IdempotencyCache cache = new IdempotencyCache(3, 0);
+        assertEquals(3, cache.capacity());
+        cache.putIfAbsent(1, 10);
+        cache.putIfAbsent(2, 20);
+        cache.putIfAbsent(3, 30);
+        // Reading key 1 makes key 2 the least recently used
+        assertEquals(10, cache.get(1));
+
+        cache.putIfAbsent(4, 40);
+
+        assertEquals(3, cache.size());
+        assertEquals(IdempotencyCache.MISSING, cache.get(2));
+        assertEquals(10, cache.get(1));
+        assertEquals(30, cache.get(3));
+        assertEquals(40, cache.get(4));
+        assertTrue(cache.summary("test").contains("evictions=1"), cache.summary("test"));
+    }
+
+    @Test
+    void forgetsAKeyOnceItsTimeToLiveHasPassed() throws InterruptedException {
+        long ttl = 200_000_000L;
+        IdempotencyCache cache = new IdempotencyCache(4, ttl);
+        long stored = System.nanoTime();
+        cache.putIfAbsent(1, 10);
+        if (System.nanoTime() - stored < ttl / 2) {
+            assertEquals(10, cache.get(1));
+        }
+
+        Thread.sleep(ttl / 1_000_000 + 50);
+
+        assertEquals(IdempotencyCache.MISSING, cache.get(1));
+        assertEquals(0, cache.size());
+        assertTrue(cache.summary("test").contains("expirations=1"), cache.summary("test"));
+        // The key can be recorded again
+        assertEquals(IdempotencyCache.MISSING, cache.putIfAbsent(1, 20));
+        assertEquals(20, cache.get(1));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    InventoryImporterTest.java
+ * @brief   Tests of the parallel inventory import.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Imports small CSV inventories in one chunk and in chunks of a few bytes,
+ * so the records of a flight are merged across chunks, and checks the seat maps
+ * built and the byte offsets reported for records that cannot be imported.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class InventoryImporterTest {
+    private static final String HEADER = "flight,row,seat,class,status\n";
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void silenceTrace() {
+        SeatTrace.setEnabled(false);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {16, InventoryImporter.DEFAULT_CHUNK_SIZE})
+    void buildsASeatMapPerFlightAndMarksMissingSeatsUnavailable(int chunkSize) throws IOException {
+        Path path = write(HEADER
+                + "1,1,A,F,O\n"
+                + "1,1,B,F,A\n"
+                + "1,2,A,E,A\n"
+                + "2,1,1,E,U\n"
+                + "2,1,2,E,A\n");
+
+        Map<Integer, SeatMap> flights = importer(chunkSize).importInventory(path, InventoryFormat.CSV);
+
+        assertEquals(2, flights.size());
+        SeatMap first = flights.get(1);
+        assertEquals(4, first.size());
+        assertEquals(SeatStatus.OCCUPIED, first.statusOf(1));
+        assertEquals(SeatStatus.AVAILABLE, first.statusOf(2));
+        assertEquals(SeatStatus.AVAILABLE, first.statusOf(3));
+        // Row 2 seat B has no record
+        assertEquals(SeatStatus.UNAVAILABLE, first.statusOf(4));
+        assertEquals(SeatClass.FIRST, first.seatClassOf(1));
+        assertEquals(SeatClass.ECONOMY, first.seatClassOf(3));
+        SeatMap second = flights.get(2);
+        assertEquals(2, second.size());
+        assertEquals(SeatStatus.UNAVAILABLE, second.statusOf(1));
+        assertEquals(SeatStatus.AVAILABLE, second.statusOf(2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {16, InventoryImporter.DEFAULT_CHUNK_SIZE})
+    void rejectsASeatListedTwiceAtItsSecondRecord(int chunkSize) throws IOException {
+        String inventory = HEADER
+                + "7,1,A,E,A\n"
+                + "7,1,B,E,A\n"
+                + "7,2,A,E,A\n"
+                + "7,1,B,E,O\n";
+        Path path = write(inventory);
+
+        IOException e = assertThrows(IOException.class,
+                () -> importer(chunkSize).importInventory(path, InventoryFormat.CSV));
+
+        assertTrue(e.getMessage().contains("at byte " + inventory.lastIndexOf("7,1,B")), e.getMessage());
+        assertTrue(e.getMessage().contains("row 1 seat 2 of flight 7 listed twice"), e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {16, InventoryImporter.DEFAULT_CHUNK_SIZE})
+    void rejectsAFlightWithMoreSeatsThanASeatMapHolds(int chunkSize) throws IOException {
+        // Neither record is too large alone; together they span 16777215 rows of 65535 seats
+        String inventory = HEADER
+                + "3,16777215,1,E,A\n"
+                + "3,1,65535,E,A\n";
+        Path path = write(inventory);
+
+        IOException e = assertThrows(IOException.class,
+                () -> importer(chunkSize).importInventory(path, InventoryFormat.CSV));
+
+        assertTrue(e.getMessage().contains("at byte " + inventory.indexOf("3,1,65535")), e.getMessage());
+        assertTrue(e.getMessage().contains("flight 3 has more than"), e.getMessage());
+    }
+
+    private Path write(String inventory) throws IOException {
+        Path path = directory.resolve("inventory.csv");
+        Files.writeString(path, inventory, StandardCharsets.US_ASCII);
+        return path;
+    }
+
+    private static InventoryImporter importer(int chunkSize) {
+        return new InventoryImporter(new Constants(), new FlightAvailabilityIndex(), chunkSize);
+    }
+}
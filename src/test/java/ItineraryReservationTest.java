@@ -0,0 +1,121 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ItineraryReservationTest.java
+ * @brief   Tests of the all-or-nothing itinerary reservation.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Reserves itineraries on small flights, alone and from racing threads that
+ * sell the flights out, and checks that every seat left OCCUPIED belongs to a
+ * committed itinerary, so an aborted attempt never keeps a leg.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+
+import org.junit.jupiter.api.Test;
+
+class ItineraryReservationTest {
+    private static final int FLIGHTS = 3;
+    private static final int THREADS = 6;
+    private static final int ROUNDS = 2000;
+
+    @Test
+    void reservesEveryLegOrNone() {
+        SeatMap first = flight(1, 2);
+        SeatMap second = flight(1, 1);
+        SeatMap soldOut = flight(1, 1);
+        soldOut.reserve();
+        ItineraryReservation itineraries = new ItineraryReservation(3);
+
+        Seat[] seats = itineraries.reserve(first, second);
+        assertNotNull(seats);
+        assertEquals(SeatStatus.OCCUPIED, seats[0].getStatus());
+        assertEquals(SeatStatus.OCCUPIED, seats[1].getStatus());
+        assertEquals(1, first.availableSeats());
+        assertEquals(0, second.availableSeats());
+
+        assertNull(itineraries.reserve(first, soldOut));
+        assertEquals(1, first.availableSeats());
+
+        itineraries.release(new SeatMap[]{first, second}, seats);
+        assertEquals(2, first.availableSeats());
+        assertEquals(1, second.availableSeats());
+        assertEquals(1, itineraries.commits());
+    }
+
+    @Test
+    void racingItinerariesRollBackWithoutLeakingSeats() {
+        ItineraryReservation itineraries = new ItineraryReservation(3);
+        assertTimeoutPreemptively(Duration.ofMinutes(1), () -> {
+            // Rounds until attempts have had to roll back a claimed leg
+            for (int round = 0; round < ROUNDS && (round < 10 || itineraries.rolledBack() == 0); round++) {
+                sellOut(itineraries);
+            }
+        });
+        assertTrue(itineraries.rolledBack() > 0, itineraries.summary());
+    }
+
+    /**
+     * Sells out a set of flights with threads reserving itineraries of two
+     * neighbouring flights, then checks that the OCCUPIED seats of each flight are
+     * exactly the legs of the committed itineraries.
+     */
+    private static void sellOut(ItineraryReservation itineraries) throws Exception {
+        SeatMap[] flights = new SeatMap[FLIGHTS];
+        for (int f = 0; f < FLIGHTS; f++) {
+            flights[f] = flight(2, 2);
+        }
+        Queue<Seat> committed = new ConcurrentLinkedQueue<>();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SeatMap[] legs = {flights[t % FLIGHTS], flights[(t + 1) % FLIGHTS]};
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    return;
+                }
+                Seat[] seats;
+                while ((seats = itineraries.reserve(legs)) != null) {
+                    committed.add(seats[0]);
+                    committed.add(seats[1]);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int claimed = 0;
+        for (SeatMap flight : flights) {
+            for (int id = 1; id <= flight.size(); id++) {
+                if (flight.statusOf(id) == SeatStatus.OCCUPIED) {
+                    claimed++;
+                    assertTrue(committed.contains(flight.getSeat(id)), "seat " + id + " is held by no itinerary");
+                }
+            }
+        }
+        assertEquals(committed.size(), claimed);
+    }
+
+    private static SeatMap flight(int rows, int columns) {
+        Constants constants = new Constants();
+        constants.setRows(rows);
+        constants.setColumns(columns);
+        return new SeatMap(constants);
+    }
+}
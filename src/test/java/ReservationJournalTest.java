@@ -0,0 +1,137 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    ReservationJournalTest.java
+ * @brief   Tests of the reservation journal replay.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Writes journals with ReservationJournal itself and replays them into fresh
+ * seat maps and reservation lists, including lists bounded below the number of live
+ * seats and journals ending in a torn record.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReservationJournalTest {
+    private static final int ROWS = 5;
+    private static final int COLUMNS = 4;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void silenceTrace() {
+        SeatTrace.setEnabled(false);
+    }
+
+    @Test
+    void replaysMoreLiveSeatsThanTheListCapacityUnderEveryPolicy() throws IOException {
+        Path path = directory.resolve("journal");
+        try (ReservationJournal journal = new ReservationJournal(path, FsyncPolicy.NEVER, 0)) {
+            for (int id = 1; id <= 6; id++) {
+                record(journal, id, Transition.RESERVED);
+            }
+            for (int id = 7; id <= 12; id++) {
+                record(journal, id, Transition.RESERVED, Transition.PAID);
+            }
+            for (int id = 13; id <= 15; id++) {
+                record(journal, id, Transition.RESERVED, Transition.PAID, Transition.CHECKED);
+            }
+        }
+
+        for (AdmissionPolicy policy : AdmissionPolicy.values()) {
+            Constants constants = constants();
+            constants.setReservationListCapacity(2);
+            constants.setAdmissionPolicy(policy);
+            Replay replay = new Replay(constants);
+            // Under BLOCK a replay through the admission-controlled puts would wait forever
+            long records = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> replay.recover(path));
+
+            assertEquals(6 + 6 * 2 + 3 * 3, records);
+            assertEquals(6, replay.pending.size(), policy.name());
+            assertEquals(6, replay.confirmed.size(), policy.name());
+            assertEquals(3, replay.confirmed.checkedSize(), policy.name());
+            assertEquals(0, replay.cancelled.size(), policy.name());
+            for (int id = 1; id <= 15; id++) {
+                assertEquals(SeatStatus.OCCUPIED, replay.seatMap.getSeat(id).getStatus(), policy + " seat " + id);
+            }
+            assertEquals(ROWS * COLUMNS - 15, replay.seatMap.availableSeats(), policy.name());
+        }
+    }
+
+    @Test
+    void ignoresATornRecordAtTheEnd() throws IOException {
+        Path path = directory.resolve("journal");
+        try (ReservationJournal journal = new ReservationJournal(path, FsyncPolicy.ALWAYS, 0)) {
+            record(journal, 1, Transition.RESERVED, Transition.PAID, Transition.CHECKED, Transition.VERIFIED);
+            record(journal, 2, Transition.RESERVED);
+        }
+        // Half of a record of seat 3, as left by a crash in the middle of a write
+        Files.write(path, new byte[]{0, 0, 0, 3, 0}, StandardOpenOption.APPEND);
+
+        Replay replay = new Replay(constants());
+        assertEquals(5, replay.recover(path));
+        assertTrue(replay.verified.contains(1));
+        assertEquals(1, replay.pending.size());
+        assertEquals(SeatStatus.AVAILABLE, replay.seatMap.getSeat(3).getStatus());
+        assertEquals(ROWS * COLUMNS - 2, replay.seatMap.availableSeats());
+    }
+
+    @Test
+    void replaysNothingWithoutAJournal() throws IOException {
+        Replay replay = new Replay(constants());
+        assertEquals(0, replay.recover(directory.resolve("missing")));
+        assertEquals(ROWS * COLUMNS, replay.seatMap.availableSeats());
+    }
+
+    private static Constants constants() {
+        Constants constants = new Constants();
+        constants.setRows(ROWS);
+        constants.setColumns(COLUMNS);
+        return constants;
+    }
+
+    private static void record(ReservationJournal journal, int seatId, Transition... transitions) {
+        Seat seat = new Seat();
+        seat.setId(seatId);
+        for (Transition transition : transitions) {
+            journal.onTransition(seat, transition);
+        }
+    }
+
+    /**
+     * A fresh seat map and reservation lists to replay a journal into.
+     */
+    private static final class Replay {
+        final SeatMap seatMap;
+        final PendingPaymentReservations pending;
+        final ConfirmedReservations confirmed;
+        final CancelledReservations cancelled;
+        final VerifiedReservations verified;
+
+        Replay(Constants constants) {
+            seatMap = new SeatMap(constants);
+            pending = new PendingPaymentReservations(constants);
+            confirmed = new ConfirmedReservations(constants);
+            cancelled = new CancelledReservations(constants);
+            verified = new VerifiedReservations(constants);
+            pending.setSeatMap(seatMap);
+            confirmed.setOverflow(cancelled);
+        }
+
+        long recover(Path path) throws IOException {
+            return ReservationJournal.recover(path, seatMap, pending, confirmed, cancelled, verified, TransitionListener.NONE);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SeatRingTest.java
+ * @brief   Tests of the lock-free seat ring handoff.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Checks the capacity and FIFO order of a ring on one thread, then hands
+ * every seat of a seat map from several producers to several consumers through a
+ * small ring under each WaitStrategy, so the ring wraps many times.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class SeatRingTest {
+    private static final int ROWS = 500;
+    private static final int COLUMNS = 40;
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 4;
+
+    @Test
+    void roundsTheCapacityUpAndKeepsFifoOrder() {
+        SeatMap seatMap = seatMap();
+        SeatRing ring = new SeatRing(5, WaitStrategy.BUSY_SPIN);
+        assertEquals(8, ring.capacity());
+        for (int id = 1; id <= 8; id++) {
+            assertTrue(ring.offer(seatMap.getSeat(id)));
+        }
+        assertFalse(ring.offer(seatMap.getSeat(9)));
+        assertEquals(8, ring.size());
+        for (int id = 1; id <= 8; id++) {
+            assertSame(seatMap.getSeat(id), ring.poll());
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void putAndTakeGiveUpWhenInterrupted() {
+        SeatMap seatMap = seatMap();
+        SeatRing ring = new SeatRing(2, WaitStrategy.PARK);
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(ring.take());
+            assertTrue(ring.put(seatMap.getSeat(1)));
+            assertTrue(ring.put(seatMap.getSeat(2)));
+            assertFalse(ring.put(seatMap.getSeat(3)));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void handsEverySeatToExactlyOneConsumer(WaitStrategy waitStrategy) {
+        SeatMap seatMap = seatMap();
+        int seats = ROWS * COLUMNS;
+        SeatRing ring = new SeatRing(64, waitStrategy);
+        AtomicIntegerArray taken = new AtomicIntegerArray(seats + 1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int first = p;
+            threads.add(new Thread(() -> {
+                // Each producer puts every PRODUCERS-th seat
+                for (int id = first + 1; id <= seats; id += PRODUCERS) {
+                    ring.put(seatMap.getSeat(id));
+                }
+            }));
+        }
+        for (int c = 0; c < CONSUMERS; c++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < seats / CONSUMERS; i++) {
+                    taken.incrementAndGet(ring.take().getId());
+                }
+            }));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        });
+        for (int id = 1; id <= seats; id++) {
+            assertEquals(1, taken.get(id), "seat " + id);
+        }
+        assertNull(ring.poll());
+    }
+
+    private static SeatMap seatMap() {
+        Constants constants = new Constants();
+        constants.setRows(ROWS);
+        constants.setColumns(COLUMNS);
+        return new SeatMap(constants);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * @project Concurrent Flight Reservation System
+ * @file    SharedSeatInventoryTest.java
+ * @brief   Tests of the orphan reclaim of the shared seat inventory.
+ * @author  agent
+ * @date    19/10/2026
+ *
+ * @details Leaves seats held, paid and checked in an inventory file, closes it as a
+ * process that ended would, and opens it again alone, so the orphaned holds are
+ * reclaimed.
+ */
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SharedSeatInventoryTest {
+    private static final int ROWS = 3;
+    private static final int COLUMNS = 2;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reclaimsOnlyTheHoldsThatWereNeverPaid() throws IOException {
+        Path path = directory.resolve("inventory");
+        try (SharedSeatInventory inventory = new SharedSeatInventory(path, ROWS, COLUMNS)) {
+            assertTrue(inventory.tryOccupy(1));
+            assertTrue(inventory.tryOccupy(2));
+            inventory.pay(2);
+            assertTrue(inventory.tryOccupy(3));
+            inventory.pay(3);
+            inventory.check(3);
+            assertTrue(inventory.tryOccupy(4));
+            inventory.check(4);
+        }
+
+        try (SharedSeatInventory inventory = new SharedSeatInventory(path, ROWS, COLUMNS)) {
+            assertEquals(1, inventory.reclaimed());
+            assertEquals(SeatStatus.AVAILABLE, inventory.status(1));
+            assertEquals(SeatStatus.OCCUPIED, inventory.status(2));
+            assertTrue(inventory.isPaid(2));
+            assertEquals(SeatStatus.OCCUPIED, inventory.status(3));
+            assertTrue(inventory.isChecked(3));
+            assertEquals(SeatStatus.OCCUPIED, inventory.status(4));
+            assertEquals(3, inventory.availableSeats());
+        }
+    }
+
+    @Test
+    void payingKeepsTheVersionAndAnyStatusChangeClearsIt() throws IOException {
+        try (SharedSeatInventory inventory = new SharedSeatInventory(directory.resolve("inventory"), ROWS, COLUMNS)) {
+            assertTrue(inventory.tryOccupy(1));
+            int version = inventory.version(1);
+            inventory.pay(1);
+            assertTrue(inventory.isPaid(1));
+            assertEquals(version, inventory.version(1));
+
+            inventory.check(1);
+            assertTrue(inventory.isPaid(1));
+            inventory.resell(1);
+            assertFalse(inventory.isPaid(1));
+            assertFalse(inventory.isChecked(1));
+        }
+    }
+}